@@ -0,0 +1,180 @@
+package com.example.demo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Ten thousand clients booking at once against the servlet stack and against the WebFlux and R2DBC stack,
+ * each client a virtual thread sending one POST /api/reserve for its own slot. Besides the time for every
+ * booking to be answered, reports the most platform threads the JVM ran and the most database connections
+ * held at any moment. The REACTIVE case needs the reactive profile on the classpath:
+ * mvn -Pbenchmarks,reactive, then run the jar with ConcurrencyBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ConcurrencyBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    @Param({"SERVLET", "REACTIVE"})
+    private String stack;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI reserveUri;
+    private List<Long> slotIds;
+    private ThreadMXBean threads;
+    private Gauge connections;
+    private ScheduledExecutorService sampler;
+    private int iteration;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Peaks {
+        public long peakPlatformThreads;
+        public long peakConnections;
+        public long booked;
+        public long refused;
+    }
+
+    @Setup
+    public void setUp() {
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:concurrency;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.hikari.maximum-pool-size=20",
+            "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--logging.level.root=WARN"));
+        if ("REACTIVE".equals(stack)) {
+            if (!ClassUtils.isPresent("com.example.demo.reactive.ReactiveParkingService", null)) {
+                throw new IllegalStateException("The REACTIVE stack needs the benchmarks built with -Preactive");
+            }
+            args.add("--spring.profiles.active=reactive");
+            args.add("--spring.r2dbc.url=r2dbc:h2:mem:///concurrency;DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+            args.add("--spring.r2dbc.username=sa");
+            args.add("--spring.r2dbc.password=");
+        }
+        context = new SpringApplicationBuilder(DemoApplication.class).run(args.toArray(String[]::new));
+        String port = context.getEnvironment().getProperty("local.server.port");
+        reserveUri = URI.create("http://localhost:" + port + "/api/reserve");
+        client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+        HttpResponse<String> provisioned = send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/floors/provision"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"floorNumber\":1,\"slots\":{\"count\":" + CLIENTS + "}}"))
+            .build());
+        if (provisioned.statusCode() != 200) {
+            throw new IllegalStateException("Provisioning failed: " + provisioned.body());
+        }
+        slotIds = context.getBean(JdbcTemplate.class).queryForList("SELECT id FROM slot ORDER BY id", Long.class);
+
+        threads = ManagementFactory.getThreadMXBean();
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+        connections = "REACTIVE".equals(stack)
+            ? registry.find("r2dbc.pool.acquired").gauge()
+            : registry.find("hikaricp.connections.active").gauge();
+        sampler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @Benchmark
+    public void bookConcurrently(Peaks peaks) {
+        AtomicLong peakConnections = new AtomicLong();
+        var sampling = sampler.scheduleAtFixedRate(() -> {
+            if (connections != null) {
+                peakConnections.accumulateAndGet((long) connections.value(), Math::max);
+            }
+        }, 0, 5, TimeUnit.MILLISECONDS);
+        threads.resetPeakThreadCount();
+
+        // Every iteration books a fresh day, so no booking conflicts with an earlier one
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0).plusDays(iteration++);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<CompletableFuture<Void>> responses = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            HttpRequest request = HttpRequest.newBuilder(reserveUri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"slotId\":" + slotIds.get(i)
+                    + ",\"startTime\":\"" + start + ":00\",\"endTime\":\"" + start.plusHours(2) + ":00\""
+                    + ",\"vehicleNumber\":\"KA01AB" + String.format("%04d", i) + "\",\"vehicleType\":\"FOUR_WHEELER\"}"))
+                .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    (failure == null && response.statusCode() == 200 ? booked : refused).incrementAndGet();
+                    return null;
+                }));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+
+        sampling.cancel(false);
+        // The JMX peak counts virtual threads' carriers but not the virtual threads themselves
+        peaks.peakPlatformThreads = threads.getPeakThreadCount();
+        peaks.peakConnections = peakConnections.get();
+        peaks.booked = booked.get();
+        peaks.refused = refused.get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
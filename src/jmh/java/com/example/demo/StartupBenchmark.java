@@ -0,0 +1,58 @@
+package com.example.demo;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Time from a cold JVM to the application being ready, web server included, on H2. Every fork measures one
+ * start. The AOT-processed variant is measured by building with -Pfast-startup and appending
+ * -Dspring.aot.enabled=true (and a -XX:SharedArchiveFile) through -jvmArgsAppend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+
+    @Param({"false", "true"})
+    private boolean lazy;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+            .run("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.main.lazy-initialization=" + lazy,
+                "--logging.level.root=WARN");
+        return context;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
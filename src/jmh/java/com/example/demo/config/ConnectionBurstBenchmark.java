@@ -0,0 +1,102 @@
+package com.example.demo.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Time to serve a burst of 500 requests that each take a connection from a pool of 10 and keep it for a
+ * couple of milliseconds: on 200 platform threads, as Tomcat runs by default; on a virtual thread each;
+ * and on a virtual thread each with PermitLimitedDataSource queueing them in front of the pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConnectionBurstBenchmark {
+
+    private static final int POOL_SIZE = 10;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int BURST = 500;
+    // Stands in for the query: how long a request keeps its connection
+    private static final long HOLD_MILLIS = 2;
+
+    @Param({"platform", "virtual", "virtual-permits"})
+    private String threads;
+
+    private HikariDataSource pool;
+    private DataSource dataSource;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:burst;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setConnectionTimeout(Duration.ofSeconds(30).toMillis());
+        pool = new HikariDataSource(config);
+        dataSource = threads.equals("virtual-permits")
+            ? new PermitLimitedDataSource(pool, POOL_SIZE, Duration.ofSeconds(30))
+            : pool;
+        executor = threads.equals("platform")
+            ? Executors.newFixedThreadPool(PLATFORM_THREADS)
+            : Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<Integer>> requests = new ArrayList<>(BURST);
+        for (int i = 0; i < BURST; i++) {
+            requests.add(executor.submit(this::request));
+        }
+        int served = 0;
+        for (Future<Integer> request : requests) {
+            served += request.get();
+        }
+        return served;
+    }
+
+    private int request() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT 1")) {
+            result.next();
+            Thread.sleep(HOLD_MILLIS);
+            return result.getInt(1);
+        }
+    }
+}
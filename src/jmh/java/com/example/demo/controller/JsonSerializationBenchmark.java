@@ -0,0 +1,66 @@
+package com.example.demo.controller;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.model.VehicleType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Cost of writing the controller's response bodies with an ObjectMapper configured the way Spring Boot
+ * configures the one used by the message converters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private List<SlotAvailabilityDTO> availabilityPage;
+    private ReservationDTO reservation;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        availabilityPage = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            availabilityPage.add(new SlotAvailabilityDTO((long) i + 1, i + 1, 3));
+        }
+        reservation = new ReservationDTO(1L, 1L, LocalDateTime.of(2030, 1, 1, 9, 0), LocalDateTime.of(2030, 1, 1, 11, 0),
+            "KA01AB1234", VehicleType.FOUR_WHEELER, 60.0);
+    }
+
+    @Benchmark
+    public byte[] availabilityResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(availabilityPage);
+    }
+
+    @Benchmark
+    public byte[] reservationResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reservation);
+    }
+}
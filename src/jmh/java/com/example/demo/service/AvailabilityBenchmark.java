@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+
+/**
+ * One page of /api/availability at different garage sizes and occupancy levels, answered by the in-memory
+ * index and by the anti-join query on H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AvailabilityBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime QUERY_START = BASE.plusHours(10);
+    private static final LocalDateTime QUERY_END = BASE.plusHours(12);
+    private static final int PAGE_SIZE = ParkingService.MAX_AVAILABILITY_PAGE_SIZE;
+
+    public enum Backend { INDEX, H2 }
+
+    @Param({"100", "1000", "10000"})
+    private int slotCount;
+
+    // Share of slots booked over the queried window
+    @Param({"0.1", "0.5", "0.9"})
+    private double density;
+
+    @Param({"INDEX", "H2"})
+    private Backend backend;
+
+    private SlotAvailabilityIndex index;
+    private SlotRepository slotRepository;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (backend == Backend.INDEX) {
+            InMemoryRepositories repositories = new InMemoryRepositories();
+            ParkingFloor floor = new ParkingFloor();
+            List<Slot> slots = new ArrayList<>();
+            for (int i = 0; i < slotCount; i++) {
+                slots.add(repositories.addSlot(floor, i + 1));
+            }
+            reservationsFor(slots).forEach(repositories::addReservation);
+            index = new SlotAvailabilityIndex(repositories.slotRepository(), repositories.reservationRepository());
+            index.rebuild();
+        } else {
+            context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:availability;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.hibernate.ddl-auto=create-drop",
+                    "--logging.level.root=WARN");
+            ParkingFloor floor = new ParkingFloor();
+            floor.setFloorNumber(1);
+            context.getBean(FloorRepository.class).save(floor);
+            slotRepository = context.getBean(SlotRepository.class);
+            List<Slot> slots = new ArrayList<>();
+            for (int i = 0; i < slotCount; i++) {
+                Slot slot = new Slot();
+                slot.setSlotNumber(i + 1);
+                slot.setParkingFloor(floor);
+                slots.add(slot);
+            }
+            slots = slotRepository.saveAll(slots);
+            context.getBean(ReservationRepository.class).saveAll(reservationsFor(slots));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public List<SlotAvailabilityDTO> availablePage() {
+        if (backend == Backend.INDEX) {
+            return index.findAvailable(QUERY_START, QUERY_END, null, null, 0, PAGE_SIZE);
+        }
+        return slotRepository.findAvailableSlots(QUERY_START, QUERY_END, null, null, 0, Limit.of(PAGE_SIZE));
+    }
+
+    // Every slot gets two bookings on other days; a density share also overlaps the queried window
+    private List<Reservation> reservationsFor(List<Slot> slots) {
+        Random random = new Random(42);
+        List<Reservation> reservations = new ArrayList<>();
+        for (Slot slot : slots) {
+            reservations.add(reservation(slot, BASE.minusDays(1), BASE.minusDays(1).plusHours(3)));
+            reservations.add(reservation(slot, BASE.plusDays(1), BASE.plusDays(1).plusHours(3)));
+            if (random.nextDouble() < density) {
+                reservations.add(reservation(slot, QUERY_START.minusHours(1), QUERY_START.plusHours(1)));
+            }
+        }
+        return reservations;
+    }
+
+    private static Reservation reservation(Slot slot, LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = new Reservation();
+        reservation.setSlot(slot);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        reservation.setVehicleNumber("KA01AB1234");
+        reservation.setVehicleType(VehicleType.FOUR_WHEELER);
+        return reservation;
+    }
+}
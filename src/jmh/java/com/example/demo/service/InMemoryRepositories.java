@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.dto.SlotSummary;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+
+/**
+ * Map-backed stand-ins for the Spring Data repositories, implementing only the methods the service
+ * hot paths call. Lets benchmarks measure the service's own cost with the database taken out.
+ */
+final class InMemoryRepositories {
+
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, ParkingFloor> floors = new TreeMap<>();
+    private final Map<Long, Slot> slots = new TreeMap<>();
+    private final Map<Long, List<Reservation>> reservationsBySlot = new TreeMap<>();
+
+    Slot addSlot(ParkingFloor floor, int number) {
+        if (floor.getId() == null) {
+            floor.setId(ids.incrementAndGet());
+            floors.put(floor.getId(), floor);
+        }
+        Slot slot = new Slot();
+        slot.setId(ids.incrementAndGet());
+        slot.setSlotNumber(number);
+        slot.setParkingFloor(floor);
+        slots.put(slot.getId(), slot);
+        return slot;
+    }
+
+    Reservation addReservation(Reservation reservation) {
+        reservation.setId(ids.incrementAndGet());
+        reservationsBySlot.computeIfAbsent(reservation.getSlot().getId(), id -> new ArrayList<>()).add(reservation);
+        return reservation;
+    }
+
+    FloorRepository floorRepository() {
+        return proxy(FloorRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(floors.get((Long) args[0]));
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    SlotRepository slotRepository() {
+        return proxy(SlotRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(slots.get((Long) args[0]));
+            case "findWithParkingFloorById" -> Optional.ofNullable(slots.get((Long) args[0]));
+            case "findAllSummaries" -> slots.values().stream().map(SlotSummary::from).toList();
+            case "findAllById" -> ((Collection<?>) args[0]).stream().map(slots::get).filter(slot -> slot != null).toList();
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    ReservationRepository reservationRepository() {
+        return proxy(ReservationRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findOverlappingReservations" -> reservationsBySlot.getOrDefault((Long) args[0], List.of()).stream()
+                .filter(r -> r.getStartTime().isBefore((LocalDateTime) args[2]) && r.getEndTime().isAfter((LocalDateTime) args[1]))
+                .toList();
+            case "findAllWindows" -> reservationsBySlot.values().stream().flatMap(List::stream)
+                .map(r -> new ReservationWindow(r.getId(), r.getSlot().getId(), r.getStartTime(), r.getEndTime()))
+                .toList();
+            case "findWindowsBetween" -> reservationsBySlot.values().stream().flatMap(List::stream)
+                .filter(r -> r.getStartTime().isBefore((LocalDateTime) args[1]) && r.getEndTime().isAfter((LocalDateTime) args[0]))
+                .map(r -> new ReservationWindow(r.getId(), r.getSlot().getId(), r.getStartTime(), r.getEndTime()))
+                .toList();
+            case "save" -> addReservation((Reservation) args[0]);
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    static PlatformTransactionManager noOpTransactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + " stand-in";
+                };
+            }
+            return handler.invoke(proxy, method, args);
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.dto.FreeWindowDTO;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+
+/**
+ * "Next free window" search over one floor's occupancy bitmaps. Every slot is booked back to back with gaps
+ * shorter than the requested duration, except for one slot late in id order that opens up near the end of
+ * the horizon, so each search has to scan every slot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NextFreeWindowBenchmark {
+
+    private static final Duration REQUESTED = Duration.ofHours(2);
+
+    @Param({"100", "1000"})
+    private int slotCount;
+
+    private FloorOccupancyIndex index;
+    private Long floorId;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        InMemoryRepositories repositories = new InMemoryRepositories();
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(1);
+        now = LocalDateTime.now();
+        LocalDateTime horizonEnd = now.plus(FloorOccupancyIndex.HORIZON);
+        Random random = new Random(42);
+        for (int i = 0; i < slotCount; i++) {
+            Slot slot = repositories.addSlot(floor, i + 1);
+            // The chosen slot stops being booked six hours before the horizon ends
+            LocalDateTime stop = i == slotCount * 3 / 4 ? horizonEnd.minusHours(6) : horizonEnd.plusDays(1);
+            LocalDateTime start = now.minusHours(1);
+            while (start.isBefore(stop)) {
+                LocalDateTime end = start.plusMinutes(60 + 15L * random.nextInt(16));
+                repositories.addReservation(reservation(slot, start, end));
+                start = end.plusMinutes(15L * random.nextInt(7));
+            }
+        }
+        floorId = floor.getId();
+        index = new FloorOccupancyIndex(repositories.slotRepository(), repositories.reservationRepository());
+        index.rebuild();
+    }
+
+    @Benchmark
+    public Optional<FreeWindowDTO> nextFree() {
+        return index.findNextFree(floorId, REQUESTED, now, null);
+    }
+
+    private static Reservation reservation(Slot slot, LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = new Reservation();
+        reservation.setSlot(slot);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        reservation.setVehicleNumber("KA01AB1234");
+        reservation.setVehicleType(VehicleType.FOUR_WHEELER);
+        return reservation;
+    }
+}
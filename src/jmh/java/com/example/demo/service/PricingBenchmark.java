@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.model.TariffRule;
+import com.example.demo.model.VehicleType;
+
+/**
+ * Quoting a 23-hour booking against a tariff with hourly bands on every day and overrides for a few floors,
+ * the worst case for anything that walks the interval rather than reading prefix sums.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PricingBenchmark {
+
+    private PricingEngine pricingEngine;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        List<TariffRule> rules = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            for (int hour = 0; hour < 24; hour++) {
+                rules.add(rule(null, day, hour, 20.0 + hour));
+            }
+        }
+        for (long floorId = 1; floorId <= 5; floorId++) {
+            rules.add(rule(floorId, null, 8, 45.0));
+        }
+        pricingEngine = new PricingEngine();
+        pricingEngine.install(TariffTable.compile(rules));
+        start = LocalDateTime.of(2030, 1, 6, 7, 10);
+        end = start.plusHours(23);
+    }
+
+    @Benchmark
+    public double quote() {
+        return pricingEngine.price(3L, VehicleType.FOUR_WHEELER, start, end);
+    }
+
+    private static TariffRule rule(Long floorId, DayOfWeek day, int hour, double rate) {
+        TariffRule rule = new TariffRule();
+        rule.setFloorId(floorId);
+        rule.setDayOfWeek(day);
+        rule.setStartTime(LocalTime.of(hour, 0));
+        rule.setEndTime(LocalTime.of((hour + 1) % 24, 0));
+        rule.setHourlyRate(rate);
+        return rule;
+    }
+}
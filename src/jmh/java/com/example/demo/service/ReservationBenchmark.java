@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.hold.SlotHoldRegistry;
+import com.example.demo.metrics.ParkingMetrics;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+
+/**
+ * reserveSlot end to end against in-memory repositories (validation, slot lock, overlap check, cost, index
+ * update), plus the index's per-slot overlap check on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReservationBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final int HORIZON_HOURS = 30 * 24;
+    private static final int HORIZON_QUARTERS = HORIZON_HOURS * 4;
+
+    @Param({"100", "1000"})
+    private int slotCount;
+
+    @Param({"4", "64"})
+    private int reservationsPerSlot;
+
+    private ParkingService parkingService;
+    private List<Slot> slots;
+    private SlotTimeline busyTimeline;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryRepositories repositories = new InMemoryRepositories();
+        ParkingFloor floor = new ParkingFloor();
+        slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(repositories.addSlot(floor, i + 1));
+        }
+        busyTimeline = new SlotTimeline();
+        for (Slot slot : slots) {
+            for (int i = 0; i < reservationsPerSlot; i++) {
+                // Two-hour bookings spread evenly over the 30-day horizon
+                LocalDateTime start = BASE.plusHours((long) i * HORIZON_HOURS / reservationsPerSlot);
+                Reservation reservation = repositories.addReservation(reservation(slot, start, start.plusHours(2)));
+                if (slot == slots.get(0)) {
+                    busyTimeline.add(new ReservationWindow(reservation.getId(), slot.getId(), start, start.plusHours(2)));
+                }
+            }
+        }
+        SlotAvailabilityIndex index = new SlotAvailabilityIndex(repositories.slotRepository(), repositories.reservationRepository());
+        index.rebuild();
+        ApplicationEventPublisher events = event -> {
+            if (event instanceof ReservationCreatedEvent created) {
+                index.onReservationCreated(created);
+            }
+        };
+        parkingService = new ParkingService(repositories.floorRepository(), repositories.slotRepository(),
+            repositories.reservationRepository(), index, events, new SlotLockRegistry(1024, Duration.ofSeconds(5)),
+            InMemoryRepositories.noOpTransactionManager(), new ParkingMetrics(new SimpleMeterRegistry()),
+            new ParkingTopology(repositories.floorRepository(), repositories.slotRepository()),
+            new FloorOccupancyIndex(repositories.slotRepository(), repositories.reservationRepository()),
+            new PricingEngine(), null,
+            new SlotHoldRegistry(events, new SimpleMeterRegistry(), Duration.ofMinutes(5), Duration.ofMillis(100)), null, null, false);
+    }
+
+    @Benchmark
+    public Object reserveSlot() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Slot slot = slots.get(random.nextInt(slots.size()));
+        LocalDateTime start = BASE.plusMinutes(15L * random.nextInt(HORIZON_QUARTERS));
+        try {
+            return parkingService.reserveSlot(reservation(slot, start, start.plusMinutes(15L * (1 + random.nextInt(16)))));
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public boolean timelineOverlapCheck() {
+        LocalDateTime start = BASE.plusMinutes(15L * ThreadLocalRandom.current().nextInt(HORIZON_QUARTERS));
+        return busyTimeline.overlaps(start, start.plusHours(2));
+    }
+
+    private static Reservation reservation(Slot slot, LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = new Reservation();
+        reservation.setSlot(slot);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        reservation.setVehicleNumber("KA01AB1234");
+        reservation.setVehicleType(VehicleType.FOUR_WHEELER);
+        return reservation;
+    }
+}
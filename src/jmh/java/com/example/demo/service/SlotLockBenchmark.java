@@ -0,0 +1,55 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Booking throughput through SlotLockRegistry from 16 threads spread over many slots, with a single lock
+ * (every booking serialized) against the default striping. The critical section stands in for the overlap
+ * check and insert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SlotLockBenchmark {
+
+    private static final int SLOT_COUNT = 1000;
+
+    @Param({"1", "1024"})
+    private int stripes;
+
+    private SlotLockRegistry locks;
+
+    @Setup
+    public void setUp() {
+        locks = new SlotLockRegistry(stripes, Duration.ofSeconds(30));
+    }
+
+    @Benchmark
+    public Long book() {
+        Long slotId = (long) ThreadLocalRandom.current().nextInt(SLOT_COUNT) + 1;
+        return locks.withSlotLock(slotId, () -> {
+            Blackhole.consumeCPU(500);
+            return slotId;
+        });
+    }
+}
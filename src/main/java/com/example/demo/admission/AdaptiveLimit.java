@@ -0,0 +1,101 @@
+package com.example.demo.admission;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Concurrency limit for one class of endpoints, adjusted by additive increase, multiplicative decrease: every
+ * request that finishes within the latency target while the limit was in use raises it by one over the limit,
+ * about one per round of requests, and a slower one cuts it by the backoff ratio. Only requests admitted after
+ * the last cut can cut it again, so one slow round backs off once rather than once per request.
+ * <p>
+ * Requests over the limit are refused rather than queued, so the ones admitted keep latencies near the target
+ * however much is offered.
+ */
+public class AdaptiveLimit {
+
+    private final String budget;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    // Only written under this object's monitor; read without it when admitting
+    private volatile double limit;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    public AdaptiveLimit(String budget, int initialLimit, int minLimit, int maxLimit, Duration latencyTarget,
+                         double backoffRatio, MeterRegistry meterRegistry) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits of " + budget + " must satisfy 1 <= min <= initial <= max");
+        }
+        this.budget = budget;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+        this.rejected = Counter.builder("parking.admission.rejected")
+            .description("Requests shed because their endpoint class was at its concurrency limit")
+            .tag("budget", budget)
+            .register(meterRegistry);
+        Gauge.builder("parking.admission.limit", this, AdaptiveLimit::limit)
+            .description("Current concurrency limit of the endpoint class")
+            .tag("budget", budget)
+            .register(meterRegistry);
+        Gauge.builder("parking.admission.inflight", inFlight, AtomicInteger::get)
+            .description("Requests of the endpoint class being handled")
+            .tag("budget", budget)
+            .register(meterRegistry);
+    }
+
+    public String budget() {
+        return budget;
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    // Every true must be followed by exactly one release
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Times are System.nanoTime() readings from when the request was admitted and when it finished
+    public void release(long startNanos, long endNanos) {
+        int before = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (endNanos - startNanos > latencyTargetNanos) {
+                if (!decreased || startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    decreased = true;
+                    lastDecreaseNanos = endNanos;
+                }
+            } else if (before * 2 >= limit) {
+                // Growing a limit that is mostly unused would only let a later burst through unchecked
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.admission;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.demo.exception.OverloadedException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admits booking-path requests against an {@link AdaptiveLimit} per endpoint class, reads and writes, so a
+ * slow database backs each class off before requests pile up on Tomcat threads and the connection pool.
+ * Shed requests fail fast with an {@link OverloadedException}, answered with a 503 and a Retry-After.
+ * Endpoints outside the two classes, such as the streams and exports, are not limited.
+ * <p>
+ * Opt-in: a limit that starts low sheds the first burst after startup before it has had a chance to grow.
+ */
+@Component
+@ConditionalOnProperty(name = "parking.admission.enabled", havingValue = "true")
+public class AdmissionControl implements HandlerInterceptor, WebMvcConfigurer {
+
+    private static final String ADMITTED_AT = AdmissionControl.class.getName() + ".admittedAt";
+    private static final String ADMITTED_BY = AdmissionControl.class.getName() + ".admittedBy";
+
+    private final Map<String, AdaptiveLimit> limits = new HashMap<>();
+    private final Duration retryAfter;
+
+    public AdmissionControl(MeterRegistry meterRegistry,
+                            @Value("${parking.admission.reads.initial-limit:50}") int readsInitial,
+                            @Value("${parking.admission.reads.min-limit:4}") int readsMin,
+                            @Value("${parking.admission.reads.max-limit:500}") int readsMax,
+                            @Value("${parking.admission.reads.latency-target:200ms}") Duration readsTarget,
+                            @Value("${parking.admission.writes.initial-limit:20}") int writesInitial,
+                            @Value("${parking.admission.writes.min-limit:2}") int writesMin,
+                            @Value("${parking.admission.writes.max-limit:200}") int writesMax,
+                            @Value("${parking.admission.writes.latency-target:500ms}") Duration writesTarget,
+                            @Value("${parking.admission.backoff-ratio:0.9}") double backoffRatio,
+                            @Value("${parking.admission.retry-after:1s}") Duration retryAfter) {
+        AdaptiveLimit reads = new AdaptiveLimit("reads", readsInitial, readsMin, readsMax, readsTarget, backoffRatio, meterRegistry);
+        AdaptiveLimit writes = new AdaptiveLimit("writes", writesInitial, writesMin, writesMax, writesTarget, backoffRatio, meterRegistry);
+        // Keyed by method and the matched mapping pattern, so path variables do not matter
+        limits.put("GET /api/availability", reads);
+        limits.put("GET /api/reservations/{id}", reads);
+        limits.put("GET /api/floors/{id}/next-free", reads);
+        limits.put("GET /api/quote", reads);
+        limits.put("POST /api/reserve", writes);
+        limits.put("POST /api/reserve/auto", writes);
+        limits.put("POST /api/reservations/batch", writes);
+        limits.put("POST /api/holds", writes);
+        limits.put("POST /api/holds/{token}/confirm", writes);
+        limits.put("DELETE /api/holds/{token}", writes);
+        limits.put("DELETE /api/reservations/{id}", writes);
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AdaptiveLimit limit = limits.get(request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        if (limit == null) {
+            return true;
+        }
+        if (!limit.tryAcquire()) {
+            throw new OverloadedException("Too many " + limit.budget() + " in progress; retry shortly.", retryAfter);
+        }
+        request.setAttribute(ADMITTED_BY, limit);
+        request.setAttribute(ADMITTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_BY) instanceof AdaptiveLimit limit) {
+            request.removeAttribute(ADMITTED_BY);
+            limit.release((Long) request.getAttribute(ADMITTED_AT), System.nanoTime());
+        }
+    }
+
+    AdaptiveLimit limitFor(String methodAndPattern) {
+        return limits.get(methodAndPattern);
+    }
+}
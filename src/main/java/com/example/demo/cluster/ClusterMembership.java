@@ -0,0 +1,132 @@
+package com.example.demo.cluster;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.event.ShardOwnershipChangedEvent;
+import com.example.demo.journal.JournaledReservationWriter;
+import com.example.demo.model.ClusterMember;
+import com.example.demo.repository.ClusterMemberRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sharding mode: every instance holds a lease row in {@code cluster_member}, and slots are split between the
+ * instances with live leases on a {@link HashRing}. Writes for a slot are forwarded to its owner by
+ * {@link ShardRoutingFilter}, so each slot is only ever booked through one instance's locks and in-memory state.
+ * <p>
+ * Lease expiry is compared against each instance's own clock, so clocks must agree to well within the lease
+ * time to live. Until an instance that died without leaving is dropped, requests for its slots are handled
+ * wherever they arrive, with the database's overlap constraint as the backstop.
+ */
+@Component
+@ConditionalOnProperty(name = "parking.cluster.enabled", havingValue = "true")
+public class ClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+
+    private final ClusterMemberRepository memberRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String instanceId;
+    private final String advertisedUrl;
+    private final Duration leaseTtl;
+    private final Clock clock;
+
+    private volatile HashRing ring = HashRing.of(List.of());
+    private volatile Map<String, String> urls = Map.of();
+
+    @Autowired
+    public ClusterMembership(ClusterMemberRepository memberRepository, ApplicationEventPublisher eventPublisher,
+                             @Nullable JournaledReservationWriter journalWriter,
+                             @Value("${parking.cluster.instance-id:${random.uuid}}") String instanceId,
+                             @Value("${parking.cluster.advertised-url}") String advertisedUrl,
+                             @Value("${parking.cluster.lease-ttl:10s}") Duration leaseTtl) {
+        this(memberRepository, eventPublisher, instanceId, advertisedUrl, leaseTtl, Clock.systemDefaultZone());
+        // Write-behind decides bookings from memory, which another instance's undrained journal would not be in
+        if (journalWriter != null) {
+            throw new IllegalStateException("parking.journal.enabled cannot be combined with parking.cluster.enabled");
+        }
+    }
+
+    ClusterMembership(ClusterMemberRepository memberRepository, ApplicationEventPublisher eventPublisher,
+                      String instanceId, String advertisedUrl, Duration leaseTtl, Clock clock) {
+        this.memberRepository = memberRepository;
+        this.eventPublisher = eventPublisher;
+        this.instanceId = instanceId;
+        this.advertisedUrl = advertisedUrl.endsWith("/") ? advertisedUrl.substring(0, advertisedUrl.length() - 1) : advertisedUrl;
+        this.leaseTtl = leaseTtl;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void join() {
+        heartbeat();
+        log.info("Joined the cluster as {} at {}; {} member(s)", instanceId, advertisedUrl, ring.members().size());
+    }
+
+    // Renews this instance's lease and picks up instances that joined or left since the last beat
+    @Scheduled(fixedDelayString = "${parking.cluster.heartbeat-interval:2s}")
+    public synchronized void heartbeat() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        ClusterMember self = new ClusterMember();
+        self.setInstanceId(instanceId);
+        self.setBaseUrl(advertisedUrl);
+        self.setExpiresAt(now.plus(leaseTtl));
+        memberRepository.save(self);
+        // Long-dead rows only; anything recent may just be a slow heartbeat
+        memberRepository.deleteExpiredBefore(now.minus(leaseTtl.multipliedBy(10)));
+
+        Map<String, String> live = new HashMap<>();
+        for (ClusterMember member : memberRepository.findByExpiresAtAfterOrderByInstanceId(now)) {
+            live.put(member.getInstanceId(), member.getBaseUrl());
+        }
+        live.put(instanceId, advertisedUrl);
+        urls = Map.copyOf(live);
+        if (!live.keySet().equals(Set.copyOf(ring.members()))) {
+            ring = HashRing.of(live.keySet());
+            log.info("Cluster membership changed: {}", ring.members());
+            eventPublisher.publishEvent(new ShardOwnershipChangedEvent(ring.members()));
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        // Lets the others take over this instance's slots at their next beat instead of after the lease runs out
+        memberRepository.deleteById(instanceId);
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    public boolean owns(long slotId) {
+        String owner = ring.ownerOf(slotId);
+        return owner == null || owner.equals(instanceId);
+    }
+
+    // The base URL of the instance owning the slot, or empty when that is this one
+    public Optional<String> ownerUrl(long slotId) {
+        String owner = ring.ownerOf(slotId);
+        if (owner == null || owner.equals(instanceId)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(urls.get(owner));
+    }
+}
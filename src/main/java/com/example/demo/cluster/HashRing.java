@@ -0,0 +1,72 @@
+package com.example.demo.cluster;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Consistent hashing of slot ids onto instances. Each instance is placed at many points on a 64-bit ring and
+ * a slot belongs to the first point at or after its hash, so an instance joining or leaving only moves the
+ * slots next to its own points, about 1/n of them, instead of reshuffling everything. Immutable.
+ */
+public final class HashRing {
+
+    // Enough points per instance to keep shard sizes within a few percent of each other
+    private static final int POINTS_PER_MEMBER = 128;
+
+    private final List<String> members;
+    private final long[] points;
+    private final String[] owners;
+
+    private HashRing(List<String> members, long[] points, String[] owners) {
+        this.members = members;
+        this.points = points;
+        this.owners = owners;
+    }
+
+    public static HashRing of(Collection<String> members) {
+        List<String> sorted = members.stream().distinct().sorted().toList();
+        long[][] entries = new long[sorted.size() * POINTS_PER_MEMBER][];
+        int n = 0;
+        for (int m = 0; m < sorted.size(); m++) {
+            long seed = (long) sorted.get(m).hashCode() << 32;
+            for (int i = 0; i < POINTS_PER_MEMBER; i++) {
+                entries[n++] = new long[] {mix(seed | i), m};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        long[] points = new long[entries.length];
+        String[] owners = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = sorted.get((int) entries[i][1]);
+        }
+        return new HashRing(sorted, points, owners);
+    }
+
+    public List<String> members() {
+        return members;
+    }
+
+    // Null only for an empty ring
+    public String ownerOf(long slotId) {
+        if (points.length == 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(points, mix(slotId));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    // MurmurHash3's 64-bit finalizer: sequential ids land all over the ring
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.demo.cluster;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.demo.hold.SlotHold;
+import com.example.demo.idempotency.IdempotentRequests;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sends requests that book or hold a slot to the instance owning it, and relays that instance's status, headers
+ * and body. Everything else, and anything already forwarded once, is handled here.
+ * <p>
+ * Only single-slot writes are routed: a booking, placing a hold, and confirming or releasing one, whose token
+ * starts with its slot id. Batch bookings span shards and stay on the receiving instance.
+ */
+@Component
+@ConditionalOnProperty(name = "parking.cluster.enabled", havingValue = "true")
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+    // Marks a forwarded request, so a receiver whose view of the ring differs handles it instead of bouncing it
+    static final String FORWARDED_HEADER = "X-Parking-Forwarded-By";
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRoutingFilter.class);
+    private static final Pattern HOLD_PATH = Pattern.compile("/api/holds/([^/]+)(/confirm)?");
+    // Describe the connection to the owner rather than the response; the container frames the relayed body itself
+    private static final Set<String> HOP_BY_HOP = Set.of("connection", "keep-alive", "proxy-authenticate",
+        "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "content-length");
+
+    private final ClusterMembership membership;
+    private final ObjectMapper objectMapper;
+    private final RestClient restClient;
+
+    public ShardRoutingFilter(ClusterMembership membership, ObjectMapper objectMapper, RestClient.Builder restClientBuilder) {
+        this.membership = membership;
+        this.objectMapper = objectMapper;
+        this.restClient = restClientBuilder.build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(FORWARDED_HEADER) != null || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        byte[] body = null;
+        Long slotId = null;
+        if ("POST".equals(method) && (path.equals("/api/reserve") || path.equals("/api/holds"))) {
+            body = request.getInputStream().readAllBytes();
+            slotId = slotIdOf(body);
+        } else {
+            Matcher hold = HOLD_PATH.matcher(path);
+            if (hold.matches() && ("DELETE".equals(method) && hold.group(2) == null || "POST".equals(method) && hold.group(2) != null)) {
+                slotId = SlotHold.slotIdOf(hold.group(1));
+            }
+        }
+        Optional<String> owner = slotId != null ? membership.ownerUrl(slotId) : Optional.empty();
+        if (owner.isPresent() && forward(owner.get(), request, body, response)) {
+            return;
+        }
+        chain.doFilter(body != null ? new CachedBodyRequest(request, body) : request, response);
+    }
+
+    // Unparseable bodies are left for the controller to reject
+    private Long slotIdOf(byte[] body) {
+        try {
+            JsonNode slotId = objectMapper.readTree(body).get("slotId");
+            return slotId != null && slotId.canConvertToLong() ? slotId.asLong() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private boolean forward(String ownerUrl, HttpServletRequest request, byte[] body, HttpServletResponse response)
+            throws IOException {
+        String query = request.getQueryString();
+        String uri = ownerUrl + request.getRequestURI() + (query != null ? "?" + query : "");
+        RestClient.RequestBodySpec spec = restClient.method(HttpMethod.valueOf(request.getMethod()))
+            .uri(uri)
+            .header(FORWARDED_HEADER, membership.instanceId());
+        // Retries of a booking land on the same owner, which is where its outcome is remembered
+        String idempotencyKey = request.getHeader(IdempotentRequests.HEADER);
+        if (idempotencyKey != null) {
+            spec.header(IdempotentRequests.HEADER, idempotencyKey);
+        }
+        if (body != null) {
+            spec.contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+        try {
+            spec.exchange((clientRequest, clientResponse) -> {
+                response.setStatus(clientResponse.getStatusCode().value());
+                HttpHeaders headers = clientResponse.getHeaders();
+                headers.forEach((name, values) -> {
+                    if (!HOP_BY_HOP.contains(name.toLowerCase(Locale.ROOT))) {
+                        values.forEach(value -> response.addHeader(name, value));
+                    }
+                });
+                clientResponse.getBody().transferTo(response.getOutputStream());
+                return null;
+            });
+            return true;
+        } catch (ResourceAccessException e) {
+            // The owner is unreachable but still holds its lease; serve the request here rather than fail it
+            log.warn("Could not forward {} {} to {}: {}", request.getMethod(), request.getRequestURI(), ownerUrl, e.getMessage());
+            return false;
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available, and then all read, straight away
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.VehicleType;
+import com.example.demo.service.ParkingService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs the availability search and quotes, and serializes their results, for a while once the indexes have
+ * loaded, so the JIT has compiled the hot path before the first real request. Ready listeners run before the
+ * application reports itself ready, so a readiness probe holds traffic back until this is done.
+ */
+@Component
+@ConditionalOnProperty(name = "parking.startup.prewarm.enabled", havingValue = "true")
+public class AvailabilityPrewarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityPrewarmer.class);
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    private final ParkingService parkingService;
+    private final ObjectMapper objectMapper;
+    private final int iterations;
+    private final Duration budget;
+    private final Clock clock;
+
+    public AvailabilityPrewarmer(ParkingService parkingService, ObjectMapper objectMapper,
+                                 @Value("${parking.startup.prewarm.iterations:2000}") int iterations,
+                                 @Value("${parking.startup.prewarm.budget:5s}") Duration budget) {
+        this.parkingService = parkingService;
+        this.objectMapper = objectMapper;
+        this.iterations = iterations;
+        this.budget = budget;
+        this.clock = Clock.systemDefaultZone();
+    }
+
+    // After every other ready listener, the availability index's rebuild included
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void prewarm() {
+        long started = System.nanoTime();
+        long deadline = started + budget.toNanos();
+        // Tomorrow, so the windows are valid whatever the time of day and no booking is needed
+        LocalDateTime day = LocalDate.now(clock).plusDays(1).atStartOfDay();
+        int done = 0;
+        try {
+            for (; done < iterations && System.nanoTime() < deadline; done++) {
+                LocalDateTime start = day.plusHours(done % 20);
+                LocalDateTime end = start.plusHours(1 + done % 4);
+                VehicleType type = done % 3 == 0 ? null : TYPES[done % TYPES.length];
+                objectMapper.writeValueAsBytes(parkingService.getAvailableSlots(start, end, null, type, 0,
+                    ParkingService.MAX_AVAILABILITY_PAGE_SIZE));
+                objectMapper.writeValueAsBytes(parkingService.quote(null, TYPES[done % TYPES.length], start, end));
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Only ever an optimization; the application is usable without it
+            log.warn("Prewarming the availability path stopped early", e);
+        }
+        log.info("Prewarmed the availability path with {} iterations in {} ms", done,
+            Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+}
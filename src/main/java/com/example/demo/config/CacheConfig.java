@@ -0,0 +1,47 @@
+package com.example.demo.config;
+
+import java.time.Duration;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bounded Caffeine caches for the floor/slot topology, which almost never changes, and for reservation
+ * lookups by id. Hit/miss statistics are recorded and exported as cache.* metrics.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableCaching
+public class CacheConfig {
+
+    public static final String FLOORS = "floors";
+    public static final String SLOTS = "slots";
+    public static final String RESERVATIONS = "reservations";
+
+    @Bean
+    CacheManager cacheManager(Environment environment) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(FLOORS, Caffeine.newBuilder()
+            .maximumSize(environment.getProperty("parking.cache.floors.max-size", Long.class, 1_000L))
+            .expireAfterWrite(environment.getProperty("parking.cache.topology.ttl", Duration.class, Duration.ofHours(1)))
+            .recordStats()
+            .build());
+        cacheManager.registerCustomCache(SLOTS, Caffeine.newBuilder()
+            .maximumSize(environment.getProperty("parking.cache.slots.max-size", Long.class, 50_000L))
+            .expireAfterWrite(environment.getProperty("parking.cache.topology.ttl", Duration.class, Duration.ofHours(1)))
+            .recordStats()
+            .build());
+        cacheManager.registerCustomCache(RESERVATIONS, Caffeine.newBuilder()
+            .maximumSize(environment.getProperty("parking.cache.reservations.max-size", Long.class, 100_000L))
+            .expireAfterWrite(environment.getProperty("parking.cache.reservations.ttl", Duration.class, Duration.ofMinutes(10)))
+            .recordStats()
+            .build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Hands out at most as many connections as the pool holds, queueing callers on a fair semaphore.
+ * With virtual threads thousands of requests can ask for a connection at once; waiting here is cheap and
+ * ordered, instead of every caller racing inside the pool until its acquire timeout fires.
+ */
+public class PermitLimitedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    public PermitLimitedDataSource(DataSource target, int permits, Duration timeout) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("Timed out waiting for a database connection permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection permit", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                    try {
+                        connection.close();
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }
+                if ("unwrap".equals(method.getName()) || "isWrapperFor".equals(method.getName())) {
+                    Class<?> type = (Class<?>) args[0];
+                    if (type.isInstance(proxy)) {
+                        return "unwrap".equals(method.getName()) ? proxy : true;
+                    }
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+}
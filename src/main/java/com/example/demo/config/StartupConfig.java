@@ -0,0 +1,24 @@
+package com.example.demo.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.DemoApplication;
+
+/**
+ * Keeps the application's own beans eager when {@code spring.main.lazy-initialization} is on, as it is in the
+ * prod profile. Only library beans nothing on the booking path needs, such as the OpenAPI documentation, are
+ * then deferred to first use, while the indexes, schedulers and listeners still come up with the context.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StartupConfig {
+
+    private static final String APPLICATION_PACKAGE = DemoApplication.class.getPackageName();
+
+    @Bean
+    static LazyInitializationExcludeFilter applicationBeansEager() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+            && beanType.getPackageName().startsWith(APPLICATION_PACKAGE);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Extra wiring for the virtual-thread profile. Spring Boot already runs Tomcat requests, @Async work and
+ * scheduled tasks on virtual threads when {@code spring.threads.virtual.enabled} is set; this adds the
+ * connection permit limiter sized to the Hikari pool.
+ * <p>
+ * The pool stays a bean of its own, configured from {@code spring.datasource.*} as Spring Boot would, so
+ * it can still be looked up by type and its metrics are bound; the limiter in front of it is the primary
+ * DataSource that JPA and JDBC use.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource hikariDataSource(DataSourceProperties properties) {
+        HikariDataSource hikari = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (properties.getName() != null) {
+            hikari.setPoolName(properties.getName());
+        }
+        return hikari;
+    }
+
+    @Bean
+    @Primary
+    PermitLimitedDataSource dataSource(HikariDataSource hikariDataSource,
+                                       @Value("${parking.datasource.permit-timeout:10s}") Duration timeout) {
+        return new PermitLimitedDataSource(hikariDataSource, hikariDataSource.getMaximumPoolSize(), timeout);
+    }
+}
@@ -1,89 +1,298 @@
 package com.example.demo.controller; 
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity; 
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.example.demo.dto.AutoReservationRequestDTO;
+import com.example.demo.dto.BatchReservationRequestDTO;
+import com.example.demo.dto.BatchReservationResultDTO;
+import com.example.demo.dto.BulkSlotRequestDTO;
+import com.example.demo.dto.BulkSlotResultDTO;
+import com.example.demo.dto.FloorProvisionRequestDTO;
+import com.example.demo.dto.FloorDTO;
+import com.example.demo.dto.FreeWindowDTO;
+import com.example.demo.dto.GateCheckDTO;
+import com.example.demo.dto.HoldDTO;
+import com.example.demo.dto.OccupancyStatDTO;
+import com.example.demo.dto.QuoteDTO;
+import com.example.demo.dto.ReservationDTO;
 import com.example.demo.dto.ReservationRequestDTO;
+import com.example.demo.dto.RevenueStatDTO;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.dto.SlotDTO;
+import com.example.demo.dto.TariffRuleDTO;
+import com.example.demo.dto.TariffScheduleDTO;
+import com.example.demo.idempotency.IdempotentRequests;
 import com.example.demo.model.ParkingFloor;
 import com.example.demo.model.Reservation;
 import com.example.demo.model.Slot;
-import com.example.demo.repository.SlotRepository;
+import com.example.demo.model.TariffRule;
+import com.example.demo.model.VehicleType;
+import com.example.demo.service.AvailabilityFeed;
+import com.example.demo.service.GateService;
 import com.example.demo.service.ParkingService;
+import com.example.demo.service.ReservationExportService;
+import com.example.demo.service.SlotProvisioningService;
+import com.example.demo.service.TariffService;
+import com.example.demo.service.UsageRollupService;
 
 import jakarta.validation.Valid;
 
+// The reactive stack, when built in and selected, serves the same API from its own controller
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api") 
 public class ParkingController {
 
     private final ParkingService parkingService;
-    private final SlotRepository slotRepository; 
+    private final ReservationExportService reservationExportService;
+    private final TariffService tariffService;
+    private final SlotProvisioningService slotProvisioningService;
+    private final AvailabilityFeed availabilityFeed;
+    private final GateService gateService;
+    private final UsageRollupService usageRollupService;
+    private final IdempotentRequests idempotentRequests;
 
-    public ParkingController(ParkingService parkingService, SlotRepository slotRepository) {
+    public ParkingController(ParkingService parkingService, ReservationExportService reservationExportService,
+                             TariffService tariffService, SlotProvisioningService slotProvisioningService,
+                             AvailabilityFeed availabilityFeed, GateService gateService,
+                             UsageRollupService usageRollupService, IdempotentRequests idempotentRequests) {
         this.parkingService = parkingService;
-        this.slotRepository = slotRepository;
+        this.reservationExportService = reservationExportService;
+        this.tariffService = tariffService;
+        this.slotProvisioningService = slotProvisioningService;
+        this.availabilityFeed = availabilityFeed;
+        this.gateService = gateService;
+        this.usageRollupService = usageRollupService;
+        this.idempotentRequests = idempotentRequests;
     }
 
-    // 3.1. POST /floors – Create a parking floor
+    // 3.1. POST /floors – Create a parking floor. Floor numbers are unique, so a number already in use is a 409;
+    // POST /floors/provision reuses the existing floor instead.
     @PostMapping("/floors")
-    public ResponseEntity<ParkingFloor> createFloor(@RequestBody ParkingFloor floor) {
-        return ResponseEntity.ok(parkingService.createFloor(floor));
+    public ResponseEntity<FloorDTO> createFloor(@RequestBody ParkingFloor floor) {
+        return ResponseEntity.ok(FloorDTO.from(parkingService.createFloor(floor)));
     }
 
     // 3.2. POST /slots – Create parking slots for a floor
     @PostMapping("/slots")
-    public ResponseEntity<Slot> createSlot(@RequestParam Long floorId, @RequestBody Slot slot) {
-        return ResponseEntity.ok(parkingService.createSlot(floorId, slot));
+    public ResponseEntity<SlotDTO> createSlot(@RequestParam Long floorId, @RequestBody Slot slot) {
+        return ResponseEntity.ok(SlotDTO.from(parkingService.createSlot(floorId, slot)));
     }
 
-    // 3.4. GET /availability – List available slots for a given time range
+    // POST /floors/provision – Create a floor together with its slots in one transaction
+    @PostMapping("/floors/provision")
+    public ResponseEntity<BulkSlotResultDTO> provisionFloor(@Valid @RequestBody FloorProvisionRequestDTO requestDTO) {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(requestDTO.getFloorNumber());
+        return ResponseEntity.ok(slotProvisioningService.createFloorWithSlots(floor, requestDTO.getSlots().toSlots()));
+    }
+
+    // POST /floors/{id}/slots/bulk – Add many slots to a floor; slot numbers the floor already has are skipped
+    @PostMapping("/floors/{id}/slots/bulk")
+    public ResponseEntity<BulkSlotResultDTO> addSlots(@PathVariable Long id, @Valid @RequestBody BulkSlotRequestDTO requestDTO) {
+        return ResponseEntity.ok(slotProvisioningService.addSlots(id, requestDTO.toSlots()));
+    }
+
+    // GET /floors/{id}/next-free – Earliest window of the given ISO-8601 duration (e.g. PT2H) on a floor
+    @GetMapping("/floors/{id}/next-free")
+    public ResponseEntity<FreeWindowDTO> findNextFreeWindow(
+            @PathVariable Long id,
+            @RequestParam Duration duration,
+            @RequestParam(required = false) LocalDateTime after,
+            @RequestParam(required = false) VehicleType vehicleType) {
+        LocalDateTime from = after != null ? after : LocalDateTime.now();
+        return ResponseEntity.ok(parkingService.findNextFreeWindow(id, duration, from, vehicleType));
+    }
+
+    // 3.4. GET /availability – List available slots for a given time range, one keyset page at a time
     @GetMapping("/availability")
-    public ResponseEntity<List<Slot>> getAvailableSlots(
+    public ResponseEntity<List<SlotAvailabilityDTO>> getAvailableSlots(
             @RequestParam LocalDateTime startTime,
-            @RequestParam LocalDateTime endTime) {
-        return ResponseEntity.ok(parkingService.getAvailableSlots(startTime, endTime));
+            @RequestParam LocalDateTime endTime,
+            @RequestParam(required = false) Long floorId,
+            @RequestParam(required = false) VehicleType vehicleType,
+            @RequestParam(defaultValue = "0") long afterSlotId,
+            @RequestParam(defaultValue = "500") int limit) {
+        List<SlotAvailabilityDTO> slots = parkingService.getAvailableSlots(startTime, endTime, floorId, vehicleType, afterSlotId, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slots.size() == limit) {
+            // A full page may have more behind it, so point the client at the next one
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("afterSlotId", slots.get(slots.size() - 1).slotId())
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(slots);
     }
 
-    // 3.3. POST /reserve – Reserve a slot for a given time range
+    // GET /availability/stream – Server-sent events: a "snapshot" of which slots are occupied right now, then
+    // "slot-occupied" and "slot-freed" deltas as that changes; floorId narrows it to one floor
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@RequestParam(required = false) Long floorId) {
+        return availabilityFeed.subscribe(floorId);
+    }
+
+    // 3.3. POST /reserve – Reserve a slot for a given time range; with an Idempotency-Key header, a retry gets
+    // the first attempt's response instead of booking again
     @PostMapping("/reserve")
-    public ResponseEntity<Reservation> reserveSlot(@Valid @RequestBody ReservationRequestDTO requestDTO) {
-        // Find the actual Slot entity from the database using the ID from the request
-        Slot slot = slotRepository.findById(requestDTO.getSlotId())
-                .orElseThrow(() -> new RuntimeException("Slot not found with id: " + requestDTO.getSlotId()));
+    public ResponseEntity<ReservationDTO> reserveSlot(
+            @Valid @RequestBody ReservationRequestDTO requestDTO,
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return ResponseEntity.ok(idempotentRequests.execute(idempotencyKey, requestDTO, ReservationDTO.class,
+                () -> ReservationDTO.from(parkingService.reserveSlot(toReservation(requestDTO)))));
+        }
+        Reservation createdReservation = parkingService.reserveSlot(toReservation(requestDTO));
+        return ResponseEntity.ok(ReservationDTO.from(createdReservation));
+    }
 
-        // Convert the DTO to a Reservation entity
+    // POST /reserve/auto – Reserve whichever free slot fits the time range best, optionally on a given floor
+    @PostMapping("/reserve/auto")
+    public ResponseEntity<ReservationDTO> reserveAuto(@Valid @RequestBody AutoReservationRequestDTO requestDTO) {
         Reservation reservation = new Reservation();
-        reservation.setSlot(slot);
         reservation.setStartTime(requestDTO.getStartTime());
         reservation.setEndTime(requestDTO.getEndTime());
         reservation.setVehicleNumber(requestDTO.getVehicleNumber());
         reservation.setVehicleType(requestDTO.getVehicleType());
+        return ResponseEntity.ok(ReservationDTO.from(parkingService.reserveAuto(reservation, requestDTO.getFloorId())));
+    }
 
-        // Call the service to perform the reservation logic
-        Reservation createdReservation = parkingService.reserveSlot(reservation);
-        return ResponseEntity.ok(createdReservation);
+    // POST /reservations/batch – Reserve many slots in one transaction
+    @PostMapping("/reservations/batch")
+    public ResponseEntity<BatchReservationResultDTO> reserveBatch(@Valid @RequestBody BatchReservationRequestDTO requestDTO) {
+        List<Reservation> reservations = requestDTO.getReservations().stream()
+                .map(this::toReservation)
+                .toList();
+        return ResponseEntity.ok(parkingService.reserveBatch(reservations, requestDTO.getMode()));
+    }
+
+    // POST /holds – Hold a slot for a few minutes, e.g. while payment completes; returns the lease token
+    @PostMapping("/holds")
+    public ResponseEntity<HoldDTO> placeHold(@Valid @RequestBody ReservationRequestDTO requestDTO) {
+        return ResponseEntity.ok(HoldDTO.from(parkingService.placeHold(toReservation(requestDTO))));
+    }
+
+    // POST /holds/{token}/confirm – Turn a live hold into a reservation at the price it was held at
+    @PostMapping("/holds/{token}/confirm")
+    public ResponseEntity<ReservationDTO> confirmHold(@PathVariable String token) {
+        return ResponseEntity.ok(ReservationDTO.from(parkingService.confirmHold(token)));
+    }
+
+    // DELETE /holds/{token} – Let a hold go before it expires
+    @DeleteMapping("/holds/{token}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String token) {
+        parkingService.releaseHold(token);
+        return ResponseEntity.noContent().build();
     }
 
     // 3.5. GET /reservations/{id} – Fetch reservation details
     @GetMapping("/reservations/{id}")
-    public ResponseEntity<Reservation> getReservationDetails(@PathVariable Long id) {
+    public ResponseEntity<ReservationDTO> getReservationDetails(@PathVariable Long id) {
         return ResponseEntity.ok(parkingService.getReservationDetails(id));
     }
 
+    // GET /reservations/export – Stream reservations starting in [from, to) as NDJSON; pass the last id seen as afterId to resume
+    @GetMapping(value = "/reservations/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportReservations(
+            @RequestParam LocalDateTime from,
+            @RequestParam LocalDateTime to,
+            @RequestParam(defaultValue = "0") long afterId) {
+        // Checked up front, since once streaming has started the status can no longer change
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("From must be before to.");
+        }
+        StreamingResponseBody body = out -> reservationExportService.export(from, to, afterId, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // GET /gate/check – Whether the plate has a reservation in force right now, and which ones are still to come
+    @GetMapping("/gate/check")
+    public ResponseEntity<GateCheckDTO> checkGate(@RequestParam String plate) {
+        return ResponseEntity.ok(gateService.check(plate));
+    }
+
+    // GET /stats/occupancy – Hourly occupancy per floor and vehicle type for hours in [from, to); empty hours are left out
+    @GetMapping("/stats/occupancy")
+    public ResponseEntity<List<OccupancyStatDTO>> getOccupancyStats(
+            @RequestParam LocalDateTime from,
+            @RequestParam LocalDateTime to,
+            @RequestParam(required = false) Long floorId) {
+        return ResponseEntity.ok(usageRollupService.occupancy(from, to, floorId));
+    }
+
+    // GET /stats/revenue – Hourly reservations and revenue per floor and vehicle type, by the hour each reservation starts
+    @GetMapping("/stats/revenue")
+    public ResponseEntity<List<RevenueStatDTO>> getRevenueStats(
+            @RequestParam LocalDateTime from,
+            @RequestParam LocalDateTime to,
+            @RequestParam(required = false) Long floorId) {
+        return ResponseEntity.ok(usageRollupService.revenue(from, to, floorId));
+    }
+
+    // GET /quote – Price a booking without making it; floorId is optional and only selects floor-specific tariffs
+    @GetMapping("/quote")
+    public ResponseEntity<QuoteDTO> quote(
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime,
+            @RequestParam VehicleType vehicleType,
+            @RequestParam(required = false) Long floorId) {
+        return ResponseEntity.ok(parkingService.quote(floorId, vehicleType, startTime, endTime));
+    }
+
+    // GET /tariffs – The current tariff rules, in the order they are applied
+    @GetMapping("/tariffs")
+    public ResponseEntity<TariffScheduleDTO> getTariffs() {
+        return ResponseEntity.ok(toSchedule(tariffService.getRules()));
+    }
+
+    // PUT /tariffs – Replace the whole tariff; it applies to bookings and quotes as soon as it is stored
+    @PutMapping("/tariffs")
+    public ResponseEntity<TariffScheduleDTO> replaceTariffs(@Valid @RequestBody TariffScheduleDTO schedule) {
+        List<TariffRule> rules = schedule.rules().stream().map(TariffRuleDTO::toEntity).toList();
+        return ResponseEntity.ok(toSchedule(tariffService.replaceRules(rules)));
+    }
+
     // 3.6. DELETE /reservations/{id} – Cancel a reservation
     @DeleteMapping("/reservations/{id}")
     public ResponseEntity<Void> cancelReservation(@PathVariable Long id) {
         parkingService.cancelReservation(id);
         return ResponseEntity.noContent().build(); // Return 204 No Content on successful deletion
     }
+
+    private static TariffScheduleDTO toSchedule(List<TariffRule> rules) {
+        return new TariffScheduleDTO(rules.stream().map(TariffRuleDTO::from).toList());
+    }
+
+    // Only the slot id is set; the service resolves the slot itself
+    private Reservation toReservation(ReservationRequestDTO requestDTO) {
+        Slot slot = new Slot();
+        slot.setId(requestDTO.getSlotId());
+        Reservation reservation = new Reservation();
+        reservation.setSlot(slot);
+        reservation.setStartTime(requestDTO.getStartTime());
+        reservation.setEndTime(requestDTO.getEndTime());
+        reservation.setVehicleNumber(requestDTO.getVehicleNumber());
+        reservation.setVehicleType(requestDTO.getVehicleType());
+        return reservation;
+    }
 }
\ No newline at end of file
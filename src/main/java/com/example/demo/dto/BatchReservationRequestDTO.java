@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BatchReservationRequestDTO {
+
+    public enum Mode {
+        // Any rejected entry rolls back the whole batch
+        ALL_OR_NOTHING,
+        // Conflicting or invalid entries are skipped and reported; the rest are booked
+        BEST_EFFORT
+    }
+
+    @NotNull(message = "Mode cannot be null")
+    private Mode mode = Mode.ALL_OR_NOTHING;
+
+    @NotEmpty(message = "Reservations cannot be empty")
+    @Size(max = 1000, message = "A batch cannot contain more than 1000 reservations")
+    private List<@Valid ReservationRequestDTO> reservations;
+}
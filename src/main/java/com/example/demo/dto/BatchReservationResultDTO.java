@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public record BatchReservationResultDTO(List<ReservationDTO> reserved, List<Rejection> rejected) {
+
+    // index is the entry's position in the submitted batch
+    public record Rejection(int index, Long slotId, String reason) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Slots to add to a floor, either as a count numbered upwards from {@code firstNumber} by {@code step},
+ * all of {@code vehicleType}, or as an explicit list.
+ */
+@Data
+public class BulkSlotRequestDTO {
+
+    public static final int MAX_SLOTS = 20_000;
+
+    @Min(value = 1, message = "Count must be at least 1")
+    @Max(value = MAX_SLOTS, message = "Count cannot exceed " + MAX_SLOTS)
+    private Integer count;
+
+    private int firstNumber = 1;
+
+    @Min(value = 1, message = "Step must be at least 1")
+    private int step = 1;
+
+    // Restricts generated slots to one vehicle type; null means any vehicle fits
+    private VehicleType vehicleType;
+
+    @Size(max = MAX_SLOTS, message = "A request cannot contain more than " + MAX_SLOTS + " slots")
+    private List<@Valid SlotSpec> slots;
+
+    public record SlotSpec(@NotNull(message = "Slot number cannot be null") Integer slotNumber, VehicleType vehicleType) {
+    }
+
+    @AssertTrue(message = "Give either a count or a list of slots, not both")
+    public boolean isCountOrList() {
+        return (count == null) != (slots == null);
+    }
+
+    public List<Slot> toSlots() {
+        List<Slot> result = new ArrayList<>(count != null ? count : slots.size());
+        if (count != null) {
+            if ((long) firstNumber + (long) (count - 1) * step > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Slot numbers would run past " + Integer.MAX_VALUE + ".");
+            }
+            for (int i = 0; i < count; i++) {
+                result.add(slot(firstNumber + i * step, vehicleType));
+            }
+        } else {
+            slots.forEach(spec -> result.add(slot(spec.slotNumber(), spec.vehicleType())));
+        }
+        return result;
+    }
+
+    private static Slot slot(int slotNumber, VehicleType vehicleType) {
+        Slot slot = new Slot();
+        slot.setSlotNumber(slotNumber);
+        slot.setVehicleType(vehicleType);
+        return slot;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.demo.dto;
+
+// existing counts requested slot numbers the floor already had, which were left as they were
+public record BulkSlotResultDTO(Long floorId, int created, int existing) {
+}
@@ -0,0 +1,5 @@
+package com.example.demo.dto;
+
+// Number of slots on a floor
+public record FloorCapacity(Long floorId, Long slots) {
+}
@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.ParkingFloor;
+
+public record FloorDTO(Long id, int floorNumber) {
+
+    public static FloorDTO from(ParkingFloor floor) {
+        return new FloorDTO(floor.getId(), floor.getFloorNumber());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class FloorProvisionRequestDTO {
+
+    private int floorNumber;
+
+    @NotNull(message = "Slots cannot be null")
+    @Valid
+    private BulkSlotRequestDTO slots;
+}
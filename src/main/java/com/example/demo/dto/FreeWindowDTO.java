@@ -0,0 +1,6 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+public record FreeWindowDTO(Long slotId, int slotNumber, LocalDateTime startTime, LocalDateTime endTime) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+// What a barrier needs about a plate: the reservation it may enter on now, if any, and the ones still to come
+public record GateCheckDTO(String plate, boolean active, ReservationWindow current, List<ReservationWindow> upcoming) {
+}
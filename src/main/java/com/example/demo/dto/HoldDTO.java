@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.hold.SlotHold;
+import com.example.demo.model.VehicleType;
+
+// The token is the only handle on a hold, needed to confirm or release it
+public record HoldDTO(String token, Long slotId, LocalDateTime startTime, LocalDateTime endTime,
+                      String vehicleNumber, VehicleType vehicleType, double cost, LocalDateTime expiresAt) {
+
+    public static HoldDTO from(SlotHold hold) {
+        return new HoldDTO(hold.token(), hold.slotId(), hold.startTime(), hold.endTime(), hold.vehicleNumber(),
+            hold.vehicleType(), hold.cost(), hold.expiresAt());
+    }
+}
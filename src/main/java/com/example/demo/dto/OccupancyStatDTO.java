@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.model.VehicleType;
+
+// Share of the floor's slot-minutes in the hour taken by reservations for the vehicle type
+public record OccupancyStatDTO(LocalDateTime hour, Long floorId, VehicleType vehicleType, long occupiedMinutes,
+                               double occupancyPercent) {
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// A reservation's time range keyed by vehicle, for loading the gate's plate index
+public record PlateWindow(String vehicleNumber, Long reservationId, Long slotId, LocalDateTime startTime, LocalDateTime endTime) {
+
+    public ReservationWindow window() {
+        return new ReservationWindow(reservationId, slotId, startTime, endTime);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.model.VehicleType;
+
+public record QuoteDTO(Long floorId, VehicleType vehicleType, LocalDateTime startTime, LocalDateTime endTime, double cost) {
+}
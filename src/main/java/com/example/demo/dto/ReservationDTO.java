@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Reservation;
+import com.example.demo.model.VehicleType;
+import java.time.LocalDateTime;
+
+// Only the slot id is exposed, which a lazy slot reference can answer without being loaded
+public record ReservationDTO(Long id, Long slotId, LocalDateTime startTime, LocalDateTime endTime,
+                             String vehicleNumber, VehicleType vehicleType, double cost) {
+
+    public static ReservationDTO from(Reservation reservation) {
+        return new ReservationDTO(reservation.getId(), reservation.getSlot().getId(), reservation.getStartTime(),
+            reservation.getEndTime(), reservation.getVehicleNumber(), reservation.getVehicleType(), reservation.getCost());
+    }
+}
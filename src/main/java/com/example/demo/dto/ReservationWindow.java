@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// Lightweight view of a reservation's time range, used to load in-memory indexes without hydrating entities
+public record ReservationWindow(Long reservationId, Long slotId, LocalDateTime startTime, LocalDateTime endTime) {
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return startTime.isBefore(end) && endTime.isAfter(start);
+    }
+}
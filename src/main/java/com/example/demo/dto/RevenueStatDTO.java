@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.model.VehicleType;
+
+// Reservations for the vehicle type starting on the floor in the hour, and what they cost
+public record RevenueStatDTO(LocalDateTime hour, Long floorId, VehicleType vehicleType, long reservations,
+                             double revenue) {
+}
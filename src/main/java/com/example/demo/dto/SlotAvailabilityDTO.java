@@ -0,0 +1,5 @@
+package com.example.demo.dto;
+
+// One entry of an availability page; deliberately just enough for a client to pick and book a slot
+public record SlotAvailabilityDTO(Long slotId, int slotNumber, int floorNumber) {
+}
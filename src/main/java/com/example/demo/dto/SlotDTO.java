@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+
+public record SlotDTO(Long id, int slotNumber, VehicleType vehicleType, Long floorId, int floorNumber) {
+
+    // The slot's floor must be loaded; createSlot always attaches the floor it looked up
+    public static SlotDTO from(Slot slot) {
+        return new SlotDTO(slot.getId(), slot.getSlotNumber(), slot.getVehicleType(),
+            slot.getParkingFloor().getId(), slot.getParkingFloor().getFloorNumber());
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.demo.dto;
+
+// Whether a slot is occupied right now; the unit of the live availability feed, in snapshots and deltas alike
+public record SlotStatusDTO(Long slotId, int slotNumber, Long floorId, int floorNumber, boolean occupied) {
+}
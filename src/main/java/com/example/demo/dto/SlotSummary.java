@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+
+// Flat view of a slot and its floor, loaded in one query and held by the availability index instead of entities
+public record SlotSummary(Long slotId, int slotNumber, VehicleType vehicleType, Long floorId, int floorNumber) {
+
+    public static SlotSummary from(Slot slot) {
+        return new SlotSummary(slot.getId(), slot.getSlotNumber(), slot.getVehicleType(),
+            slot.getParkingFloor().getId(), slot.getParkingFloor().getFloorNumber());
+    }
+
+    public boolean accepts(VehicleType type) {
+        return vehicleType == null || type == null || vehicleType == type;
+    }
+
+    public SlotAvailabilityDTO toAvailability() {
+        return new SlotAvailabilityDTO(slotId, slotNumber, floorNumber);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+import com.example.demo.model.TariffRule;
+import com.example.demo.model.VehicleType;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+public record TariffRuleDTO(
+        Long floorId,
+        VehicleType vehicleType,
+        DayOfWeek dayOfWeek,
+        @NotNull(message = "Start time cannot be null") LocalTime startTime,
+        @NotNull(message = "End time cannot be null") LocalTime endTime,
+        @PositiveOrZero(message = "Hourly rate cannot be negative") double hourlyRate) {
+
+    public static TariffRuleDTO from(TariffRule rule) {
+        return new TariffRuleDTO(rule.getFloorId(), rule.getVehicleType(), rule.getDayOfWeek(),
+            rule.getStartTime(), rule.getEndTime(), rule.getHourlyRate());
+    }
+
+    public TariffRule toEntity() {
+        TariffRule rule = new TariffRule();
+        rule.setFloorId(floorId);
+        rule.setVehicleType(vehicleType);
+        rule.setDayOfWeek(dayOfWeek);
+        rule.setStartTime(startTime);
+        rule.setEndTime(endTime);
+        rule.setHourlyRate(hourlyRate);
+        return rule;
+    }
+}
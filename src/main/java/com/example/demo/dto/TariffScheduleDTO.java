@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+// The whole tariff; rules are applied in list order, so later rules override earlier ones where they overlap
+public record TariffScheduleDTO(
+        @NotNull(message = "Rules cannot be null")
+        @Size(max = 1000, message = "A tariff cannot contain more than 1000 rules")
+        List<@Valid TariffRuleDTO> rules) {
+}
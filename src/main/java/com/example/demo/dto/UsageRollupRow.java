@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.model.VehicleType;
+
+/**
+ * One hourly bucket of the usage rollup: slot-minutes occupied during the hour, and the revenue, in cents, and
+ * number of the reservations starting in it, for one floor and vehicle type.
+ */
+public record UsageRollupRow(LocalDateTime hour, Long floorId, VehicleType vehicleType, long occupiedMinutes,
+                             long revenueCents, long reservations) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.event;
+
+import com.example.demo.model.Reservation;
+
+// Published once a reservation has been deleted; carries the removed row so listeners can release its time range
+public record ReservationCancelledEvent(Reservation reservation) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.event;
+
+import com.example.demo.model.Reservation;
+
+// Published once a reservation has been saved; listeners see it after the transaction commits
+public record ReservationCreatedEvent(Reservation reservation) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.event;
+
+import java.util.List;
+
+import com.example.demo.dto.ReservationWindow;
+
+// Reservations moved out of the live table, so in-memory indexes can drop them in one pass
+public record ReservationsArchivedEvent(List<ReservationWindow> windows) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.event;
+
+import java.util.List;
+
+// Published when instances join or leave in sharding mode, so in-memory views can reload slots they now own
+public record ShardOwnershipChangedEvent(List<String> members) {
+}
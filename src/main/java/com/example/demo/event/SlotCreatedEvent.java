@@ -0,0 +1,6 @@
+package com.example.demo.event;
+
+import com.example.demo.model.Slot;
+
+public record SlotCreatedEvent(Slot slot) {
+}
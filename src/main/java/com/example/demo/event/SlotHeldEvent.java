@@ -0,0 +1,7 @@
+package com.example.demo.event;
+
+import com.example.demo.hold.SlotHold;
+
+// Published once a hold is placed; holds are never written to the database, so listeners see it straight away
+public record SlotHeldEvent(SlotHold hold) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.event;
+
+import com.example.demo.hold.SlotHold;
+
+// Published whether the hold expired, was confirmed into a reservation or was let go
+public record SlotHoldReleasedEvent(SlotHold hold) {
+}
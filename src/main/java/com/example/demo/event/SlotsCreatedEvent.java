@@ -0,0 +1,9 @@
+package com.example.demo.event;
+
+import java.util.List;
+
+import com.example.demo.model.Slot;
+
+// Published once for a bulk insert, so listeners can take all the slots in one pass instead of one event each
+public record SlotsCreatedEvent(List<Slot> slots) {
+}
@@ -3,6 +3,8 @@ package com.example.demo.exception; // Make sure this package name is correct
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -11,9 +13,17 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.example.demo.metrics.ParkingMetrics;
+
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final ParkingMetrics parkingMetrics;
+
+    public GlobalExceptionHandler(ParkingMetrics parkingMetrics) {
+        this.parkingMetrics = parkingMetrics;
+    }
+
     // Handles validation errors from @Valid
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleValidationExceptions(MethodArgumentNotValidException ex) {
@@ -26,9 +36,10 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
-    // Handles slot already booked errors
-    @ExceptionHandler(IllegalStateException.class)
-    public ResponseEntity<Object> handleIllegalStateException(IllegalStateException ex) {
+    // Handles slot already booked, held or busy errors; any other IllegalStateException is a server error
+    @ExceptionHandler(SlotConflictException.class)
+    public ResponseEntity<Object> handleSlotConflict(SlotConflictException ex) {
+        parkingMetrics.recordConflict(ex.getReason());
         Map<String, String> error = new HashMap<>();
         error.put("error", ex.getMessage());
         return new ResponseEntity<>(error, HttpStatus.CONFLICT); // 409 Conflict
@@ -44,11 +55,40 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
 public ResponseEntity<Object> handleConcurrencyFailure(ObjectOptimisticLockingFailureException ex) {
+    parkingMetrics.recordConflict("optimistic_lock");
     Map<String, String> error = new HashMap<>();
     error.put("error", "This slot was just booked by someone else. Please try another slot or time.");
     return new ResponseEntity<>(error, HttpStatus.CONFLICT); // 409 Conflict
 }
 
+    // Handles bookings rejected by database constraints, e.g. the reservation exclusion constraint
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Object> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        parkingMetrics.recordConflict("constraint");
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "The request conflicts with an existing booking or record.");
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT); // 409 Conflict
+    }
+
+    // Handles requests shed by admission control; clients should back off for the given time
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Object> handleOverloaded(OverloadedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE) // 503 Service Unavailable
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+            .body(error);
+    }
+
+    // Handles bookings the write-behind journal could not make durable; nothing was booked
+    @ExceptionHandler(JournalUnavailableException.class)
+    public ResponseEntity<Object> handleJournalUnavailable(JournalUnavailableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Bookings are temporarily unavailable. Please try again later.");
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE); // 503 Service Unavailable
+    }
+
     // Handles resource not found (custom exception)
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<Object> handleResourceNotFoundException(ResourceNotFoundException ex) {
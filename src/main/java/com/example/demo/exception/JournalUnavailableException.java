@@ -0,0 +1,12 @@
+package com.example.demo.exception;
+
+// Thrown when the write-behind journal cannot accept or sync a booking; a server fault, not a conflict
+public class JournalUnavailableException extends RuntimeException {
+    public JournalUnavailableException(String message) {
+        super(message);
+    }
+
+    public JournalUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.exception;
+
+import java.time.Duration;
+
+// Thrown when a request is shed because its endpoint class is already at its concurrency limit
+public class OverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public OverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
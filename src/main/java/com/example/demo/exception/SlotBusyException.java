@@ -0,0 +1,8 @@
+package com.example.demo.exception;
+
+// Thrown when a booking gives up waiting for another booking of the same slot to finish
+public class SlotBusyException extends SlotConflictException {
+    public SlotBusyException(String message) {
+        super("lock_timeout", message);
+    }
+}
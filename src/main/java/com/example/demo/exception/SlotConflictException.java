@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+// Thrown when a booking is refused because the slot is taken; the reason tags the conflict metric
+public class SlotConflictException extends IllegalStateException {
+
+    private final String reason;
+
+    public SlotConflictException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.hold;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+
+/**
+ * A slot and time range set aside for a booking that has not been made yet, priced when it was placed.
+ * {@code seq} is unique per process and only used to tell holds apart in in-memory indexes. The token starts
+ * with the slot id, so a request carrying only the token can still be routed to the slot's owner.
+ */
+public record SlotHold(String token, long seq, Long slotId, LocalDateTime startTime, LocalDateTime endTime,
+                       String vehicleNumber, VehicleType vehicleType, double cost, LocalDateTime expiresAt) {
+
+    static String newToken(Long slotId) {
+        return slotId + "-" + UUID.randomUUID();
+    }
+
+    // Null for a token not in that form
+    public static Long slotIdOf(String token) {
+        int dash = token.indexOf('-');
+        try {
+            return dash > 0 ? Long.valueOf(token.substring(0, dash)) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return startTime.isBefore(end) && endTime.isAfter(start);
+    }
+
+    // Negative ids keep holds apart from reservations sharing a timeline
+    public ReservationWindow window() {
+        return new ReservationWindow(-seq, slotId, startTime, endTime);
+    }
+
+    public Reservation toReservation(Slot slot) {
+        Reservation reservation = new Reservation();
+        reservation.setSlot(slot);
+        reservation.setStartTime(startTime);
+        reservation.setEndTime(endTime);
+        reservation.setVehicleNumber(vehicleNumber);
+        reservation.setVehicleType(vehicleType);
+        reservation.setCost(cost);
+        return reservation;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.hold;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.event.SlotHeldEvent;
+import com.example.demo.event.SlotHoldReleasedEvent;
+import com.example.demo.model.Reservation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Short-lived, in-memory holds on a slot and time range, identified by an unguessable lease token. A hold
+ * blocks bookings and other holds of its range until it is confirmed, released or runs out.
+ * <p>
+ * Nothing is written to the database: expiry runs on a {@link TimingWheel} ticked by the scheduler, with no
+ * timer per hold. Holds do not survive a restart, and are only seen by the instance that placed them.
+ * Callers serialize placing and confirming with the slot lock; expiry only ever frees a range, so needs none.
+ */
+@Component
+public class SlotHoldRegistry {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+    private final Duration ttl;
+    private final TimingWheel<SlotHold> wheel;
+    private final Counter expired;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Lease> byToken = new ConcurrentHashMap<>();
+    // Each slot's holds as an immutable list, replaced on every change, so readers never see one mid-update
+    private final Map<Long, List<SlotHold>> bySlot = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SlotHoldRegistry(ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                            @Value("${parking.holds.ttl:5m}") Duration ttl,
+                            @Value("${parking.holds.tick:100ms}") Duration tick) {
+        this(eventPublisher, meterRegistry, ttl, tick, Clock.systemDefaultZone());
+    }
+
+    SlotHoldRegistry(ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry, Duration ttl,
+                     Duration tick, Clock clock) {
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.wheel = new TimingWheel<>(tick, ttl, clock.millis());
+        this.expired = Counter.builder("parking.holds.expired")
+            .description("Holds that ran out before being confirmed or released")
+            .register(meterRegistry);
+        Gauge.builder("parking.holds.active", byToken, Map::size)
+            .description("Holds currently blocking a slot")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Holds the reservation's slot and range, at its already computed cost, for the configured time to live.
+     * The caller has checked the range is free.
+     */
+    public SlotHold place(Reservation reservation) {
+        long deadline = clock.millis() + ttl.toMillis();
+        SlotHold hold = new SlotHold(SlotHold.newToken(reservation.getSlot().getId()), sequence.incrementAndGet(),
+            reservation.getSlot().getId(), reservation.getStartTime(), reservation.getEndTime(),
+            reservation.getVehicleNumber(), reservation.getVehicleType(), reservation.getCost(),
+            LocalDateTime.now(clock).plus(ttl));
+        add(hold, deadline);
+        return hold;
+    }
+
+    // Whether a live hold covers any of the range
+    public boolean conflicts(Long slotId, LocalDateTime startTime, LocalDateTime endTime) {
+        List<SlotHold> holds = bySlot.get(slotId);
+        if (holds == null) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (SlotHold hold : holds) {
+            if (hold.overlaps(startTime, endTime) && hold.expiresAt().isAfter(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The hold, unless it is unknown or has run out, even if the wheel has not yet got round to it
+    public Optional<SlotHold> find(String token) {
+        Lease lease = byToken.get(token);
+        if (lease == null || !lease.hold.expiresAt().isAfter(LocalDateTime.now(clock))) {
+            return Optional.empty();
+        }
+        return Optional.of(lease.hold);
+    }
+
+    /**
+     * Removes a live hold and returns it, for confirming it into a reservation. Should that fail the hold can
+     * be put back with {@link #restore}.
+     */
+    public Optional<SlotHold> take(String token) {
+        Optional<SlotHold> hold = find(token);
+        hold.ifPresent(this::remove);
+        return hold;
+    }
+
+    // Puts back a hold that was taken, with whatever time it had left
+    public void restore(SlotHold hold) {
+        long remaining = Duration.between(LocalDateTime.now(clock), hold.expiresAt()).toMillis();
+        if (remaining > 0) {
+            add(hold, clock.millis() + remaining);
+        }
+    }
+
+    public boolean release(String token) {
+        return take(token).isPresent();
+    }
+
+    @Scheduled(fixedRateString = "${parking.holds.tick:100ms}")
+    public synchronized void tick() {
+        wheel.advance(clock.millis(), hold -> {
+            if (remove(hold)) {
+                expired.increment();
+            }
+        });
+    }
+
+    private void add(SlotHold hold, long deadlineMillis) {
+        byToken.put(hold.token(), new Lease(hold, wheel.schedule(hold, deadlineMillis)));
+        bySlot.compute(hold.slotId(), (slotId, holds) -> {
+            List<SlotHold> updated = holds == null ? new ArrayList<>(1) : new ArrayList<>(holds);
+            updated.add(hold);
+            return List.copyOf(updated);
+        });
+        eventPublisher.publishEvent(new SlotHeldEvent(hold));
+    }
+
+    // False when the hold was already gone, so confirming and expiring at once release it only once
+    private boolean remove(SlotHold hold) {
+        Lease lease = byToken.get(hold.token());
+        if (lease == null || lease.hold != hold || !byToken.remove(hold.token(), lease)) {
+            return false;
+        }
+        lease.timeout.cancel();
+        bySlot.computeIfPresent(hold.slotId(), (slotId, holds) -> {
+            List<SlotHold> remaining = holds.stream().filter(h -> h != hold).toList();
+            return remaining.isEmpty() ? null : remaining;
+        });
+        eventPublisher.publishEvent(new SlotHoldReleasedEvent(hold));
+        return true;
+    }
+
+    private record Lease(SlotHold hold, TimingWheel.Timeout<SlotHold> timeout) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.hold;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick, each holding the timeouts that fall due in it.
+ * Scheduling and cancelling are O(1) from any thread; {@link #advance} visits only the buckets of the ticks
+ * that have passed, so its cost depends on how many timeouts fall due rather than how many are pending.
+ * <p>
+ * New timeouts are queued and only moved into their bucket by the advancing thread, so the buckets
+ * themselves need no locking. Cancelled timeouts are dropped when their bucket next comes round.
+ */
+final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final ArrayList<Timeout<T>>[] buckets;
+    private final int mask;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private long currentTick;
+
+    // A wheel spanning at least the longest timeout visits every timeout exactly once
+    @SuppressWarnings("unchecked")
+    TimingWheel(Duration tick, Duration span, long startMillis) {
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.startMillis = startMillis;
+        long ticks = Math.ceilDiv(span.toMillis(), tickMillis) + 1;
+        int size = Integer.highestOneBit((int) Math.min(ticks, 1 << 30) - 1) << 1;
+        this.buckets = new ArrayList[Math.max(size, 2)];
+        this.mask = buckets.length - 1;
+    }
+
+    Timeout<T> schedule(T item, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(item, Math.ceilDiv(deadlineMillis - startMillis, tickMillis));
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Expires everything due up to {@code nowMillis}, handing each item to {@code onExpiry}. Must only be
+     * called from one thread at a time.
+     */
+    void advance(long nowMillis, Consumer<T> onExpiry) {
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        while (currentTick <= targetTick) {
+            transferScheduled();
+            expire(currentTick, onExpiry);
+            currentTick++;
+        }
+    }
+
+    int bucketCount() {
+        return buckets.length;
+    }
+
+    private void transferScheduled() {
+        for (Timeout<T> timeout = scheduled.poll(); timeout != null; timeout = scheduled.poll()) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Already due: expire it on this tick instead of a whole rotation later
+            long tick = Math.max(timeout.deadlineTick, currentTick);
+            int index = (int) (tick & mask);
+            if (buckets[index] == null) {
+                buckets[index] = new ArrayList<>();
+            }
+            buckets[index].add(timeout);
+        }
+    }
+
+    private void expire(long tick, Consumer<T> onExpiry) {
+        ArrayList<Timeout<T>> bucket = buckets[(int) (tick & mask)];
+        if (bucket == null) {
+            return;
+        }
+        int i = 0;
+        while (i < bucket.size()) {
+            Timeout<T> timeout = bucket.get(i);
+            boolean due = timeout.deadlineTick <= tick;
+            if (!due && !timeout.cancelled) {
+                // Due in a later rotation
+                i++;
+                continue;
+            }
+            // Swap-remove keeps removal O(1); order within a bucket does not matter
+            Timeout<T> last = bucket.remove(bucket.size() - 1);
+            if (i < bucket.size()) {
+                bucket.set(i, last);
+            }
+            if (!timeout.cancelled) {
+                onExpiry.accept(timeout.item);
+            }
+        }
+    }
+
+    static final class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
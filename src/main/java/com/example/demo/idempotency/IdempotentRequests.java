@@ -0,0 +1,193 @@
+package com.example.demo.idempotency;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.IdempotencyRecord;
+import com.example.demo.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key}, answering retries with the first attempt's
+ * response. Outcomes are kept in a bounded Caffeine cache that expires them after the time to live, and
+ * written to the {@link IdempotencyRecord} table so they outlive a restart; the table is only read when the
+ * cache does not know the key.
+ * <p>
+ * A retry arriving while the first attempt is still running waits for it and gets its result, so concurrent
+ * duplicates run the request once. Failures are not remembered: the key is freed and a later retry runs the
+ * request again. Once the request has succeeded the key is never freed; if its response cannot be stored,
+ * retries are refused rather than run a second time.
+ */
+@Component
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentRequests.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    // Stored in place of a response that could not be serialized; never valid JSON for a real response
+    static final String UNSTORED_RESPONSE = "";
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Cache<String, Outcome> outcomes;
+    private final Counter replays;
+
+    @Autowired
+    public IdempotentRequests(IdempotencyRecordRepository recordRepository, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${parking.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${parking.idempotency.max-keys:100000}") long maxKeys) {
+        this(recordRepository, objectMapper, meterRegistry, ttl, maxKeys, Clock.systemDefaultZone());
+    }
+
+    IdempotentRequests(IdempotencyRecordRepository recordRepository, ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry, Duration ttl, long maxKeys, Clock clock) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.outcomes = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterWrite(ttl)
+            .build();
+        this.replays = Counter.builder("parking.idempotency.replays")
+            .description("Requests answered with the outcome of an earlier one with the same idempotency key")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action}, or returns what it returned for the first request with this key. Reusing a key
+     * for a different request is refused.
+     */
+    public <T> T execute(String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters.");
+        }
+        String fingerprint = fingerprint(request);
+        Outcome outcome = outcomes.getIfPresent(key);
+        if (outcome == null) {
+            // Looked up outside the cache's lock; should two first attempts race, the one cached first runs
+            Outcome loaded = recordRepository.findByIdempotencyKeyAndExpiresAtAfter(key, LocalDateTime.now(clock))
+                .map(record -> Outcome.stored(record.getFingerprint(), record.getResponse()))
+                .orElseGet(() -> new Outcome(fingerprint));
+            Outcome raced = outcomes.asMap().putIfAbsent(key, loaded);
+            outcome = raced != null ? raced : loaded;
+        }
+        if (!outcome.fingerprint.equals(fingerprint)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request.");
+        }
+        if (outcome.started.compareAndSet(false, true)) {
+            return run(key, outcome, action);
+        }
+        replays.increment();
+        return read(outcome.await(), responseType);
+    }
+
+    @Scheduled(fixedDelayString = "${parking.idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        recordRepository.deleteExpiredBefore(LocalDateTime.now(clock));
+    }
+
+    private <T> T run(String key, Outcome outcome, Supplier<T> action) {
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            outcomes.asMap().remove(key, outcome);
+            outcome.response.completeExceptionally(e);
+            throw e;
+        }
+        // The request has taken effect, so from here on the key stays taken whatever happens
+        String response;
+        try {
+            response = objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Could not store the response for idempotency key {}; retries will be refused", key, e);
+            response = UNSTORED_RESPONSE;
+        }
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(key);
+        record.setFingerprint(outcome.fingerprint);
+        record.setResponse(response);
+        record.setExpiresAt(LocalDateTime.now(clock).plus(ttl));
+        try {
+            recordRepository.save(record);
+        } catch (DataAccessException e) {
+            // The request itself succeeded; only a retry after a restart would miss the outcome
+            log.warn("Could not store the outcome for idempotency key {}", key, e);
+        }
+        outcome.response.complete(response);
+        return result;
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint the request", e);
+        }
+    }
+
+    private <T> T read(String response, Class<T> responseType) {
+        if (UNSTORED_RESPONSE.equals(response)) {
+            throw new IllegalStateException("The first request with this " + HEADER + " succeeded, but its response "
+                + "could not be stored; it was not run again.");
+        }
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read the stored response", e);
+        }
+    }
+
+    private static final class Outcome {
+        private final String fingerprint;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CompletableFuture<String> response = new CompletableFuture<>();
+
+        private Outcome(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private static Outcome stored(String fingerprint, String response) {
+            Outcome outcome = new Outcome(fingerprint);
+            outcome.started.set(true);
+            outcome.response.complete(response);
+            return outcome;
+        }
+
+        // The first attempt's failure is rethrown to the retries that waited on it
+        private String await() {
+            try {
+                return response.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+    }
+}
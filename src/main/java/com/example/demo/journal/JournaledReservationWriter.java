@@ -0,0 +1,222 @@
+package com.example.demo.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.exception.JournalUnavailableException;
+import com.example.demo.exception.SlotConflictException;
+import com.example.demo.model.Reservation;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.service.SlotAvailabilityIndex;
+import com.example.demo.service.SlotLockRegistry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind booking: a reservation is checked against the in-memory availability index under its slot lock,
+ * appended to the {@link ReservationJournal}, and acknowledged once the journal has synced it. A background
+ * thread drains the journal into the database in JDBC batches. Anything journaled but not yet drained when the
+ * process stopped is drained on the next start, before the availability index loads.
+ * <p>
+ * The in-memory check is only authoritative when this is the sole instance taking bookings.
+ */
+@Component
+@ConditionalOnProperty(name = "parking.journal.enabled", havingValue = "true")
+public class JournaledReservationWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(JournaledReservationWriter.class);
+
+    private final ReservationRepository reservationRepository;
+    private final SlotAvailabilityIndex availabilityIndex;
+    private final SlotLockRegistry slotLocks;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservationIdAllocator idAllocator;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedOnDrain;
+    private final Path directory;
+    private final int segmentRecords;
+    private final int batchSize;
+    private final Duration drainInterval;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final CountDownLatch stopping = new CountDownLatch(1);
+
+    private ReservationJournal journal;
+    private Thread drainer;
+    private volatile boolean running;
+
+    public JournaledReservationWriter(ReservationRepository reservationRepository, SlotAvailabilityIndex availabilityIndex,
+                                      SlotLockRegistry slotLocks, ApplicationEventPublisher eventPublisher,
+                                      ReservationIdAllocator idAllocator, PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${parking.journal.dir:journal}") Path directory,
+                                      @Value("${parking.journal.segment-records:262144}") int segmentRecords,
+                                      @Value("${parking.journal.drain-batch-size:500}") int batchSize,
+                                      @Value("${parking.journal.drain-interval:100ms}") Duration drainInterval) {
+        this.reservationRepository = reservationRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.slotLocks = slotLocks;
+        this.eventPublisher = eventPublisher;
+        this.idAllocator = idAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Drains must commit on their own, never as part of a caller's transaction that may still roll back
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.rejectedOnDrain = Counter.builder("parking.journal.rejected")
+            .description("Journaled reservations the database refused when they were drained")
+            .register(meterRegistry);
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.batchSize = batchSize;
+        this.drainInterval = drainInterval;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        journal = new ReservationJournal(directory, segmentRecords);
+        long replayed = drainPending();
+        if (replayed > 0) {
+            log.info("Replayed {} journaled reservations into the database", replayed);
+        }
+        Gauge.builder("parking.journal.backlog", journal, ReservationJournal::backlog)
+            .description("Reservations acknowledged from the journal but not yet in the database")
+            .register(meterRegistry);
+        running = true;
+        drainer = Thread.ofPlatform().name("reservation-journal-drainer").daemon().start(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        // Not interrupted, so an insert in flight finishes; only the wait between drains is cut short
+        running = false;
+        stopping.countDown();
+        drainer.join();
+        drainPending();
+        journal.close();
+    }
+
+    /**
+     * Books the reservation, whose slot and cost are already resolved, and returns it with its id once it
+     * is durable in the journal.
+     */
+    public Reservation reserve(Reservation reservation) {
+        Long slotId = reservation.getSlot().getId();
+        long seq = slotLocks.withSlotLock(slotId, () -> {
+            if (!availabilityIndex.isFree(slotId, reservation.getStartTime(), reservation.getEndTime())) {
+                throw new SlotConflictException("overlap", "Slot is already booked for the selected time range.");
+            }
+            reservation.setId(idAllocator.next());
+            long appended = journal.append(reservation);
+            // Puts the booking in the in-memory indexes before the lock is released, so the next check sees it
+            eventPublisher.publishEvent(new ReservationCreatedEvent(reservation));
+            return appended;
+        });
+        try {
+            journal.awaitDurable(seq);
+        } catch (JournalUnavailableException e) {
+            eventPublisher.publishEvent(new ReservationCancelledEvent(reservation));
+            throw e;
+        }
+        return reservation;
+    }
+
+    // Drains everything journaled so far, so a caller reading the database sees every acknowledged booking
+    public long drainPending() {
+        long drained = 0;
+        for (int n = drainOnce(); n > 0; n = drainOnce()) {
+            drained += n;
+        }
+        return drained;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (drainOnce() < batchSize) {
+                    pause();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Draining the reservation journal failed; will retry", e);
+                try {
+                    pause();
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Waits out the drain interval, or less if stop() is called meanwhile
+    private void pause() throws InterruptedException {
+        stopping.await(drainInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private int drainOnce() {
+        drainLock.lock();
+        try {
+            List<ReservationJournal.Entry> entries = journal.read(journal.drainedSeq(), batchSize);
+            if (entries.isEmpty()) {
+                return 0;
+            }
+            List<Reservation> batch = entries.stream().map(ReservationJournal.Entry::reservation).toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertMissing(batch));
+            } catch (DataIntegrityViolationException e) {
+                // One refused row must not hold back the rest, so retry the batch row by row
+                batch.forEach(this::insertOrReject);
+            }
+            journal.markDrained(entries.get(entries.size() - 1).seq() + 1);
+            return entries.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Rows already present were drained before a crash that came ahead of the checkpoint write
+    private void insertMissing(List<Reservation> batch) {
+        Set<Long> existing = reservationRepository.findExistingIds(batch.stream().map(Reservation::getId).toList());
+        List<Reservation> missing = batch.stream().filter(r -> !existing.contains(r.getId())).toList();
+        if (!missing.isEmpty()) {
+            reservationRepository.insertAllWithIds(missing);
+        }
+    }
+
+    private void insertOrReject(Reservation reservation) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertMissing(List.of(reservation)));
+        } catch (DataIntegrityViolationException e) {
+            log.error("Database refused journaled reservation {} for slot {}; dropping it",
+                reservation.getId(), reservation.getSlot().getId(), e);
+            rejectedOnDrain.increment();
+            eventPublisher.publishEvent(new ReservationCancelledEvent(reservation));
+        }
+    }
+}
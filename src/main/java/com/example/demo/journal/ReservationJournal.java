@@ -0,0 +1,405 @@
+package com.example.demo.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.example.demo.exception.JournalUnavailableException;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+
+/**
+ * Append-only log of accepted reservations in memory-mapped segment files of fixed-size records.
+ * <p>
+ * Appends only copy into the mapping. A single flusher thread forces everything appended since its last pass
+ * in one {@code force}, so a burst of bookings shares one disk sync (group commit). {@link #awaitDurable} returns
+ * once a record is covered by a force. Records are numbered by a global sequence; a checkpoint file holds the
+ * sequence up to which records have been written to the database, and segments wholly below it are deleted.
+ * It also holds the sequence up to which records were synced, which is what callers were told: a record past
+ * it was refused even if it reached the disk, so recovery drops it.
+ */
+public class ReservationJournal implements Closeable {
+
+    static final int RECORD_SIZE = 64;
+    private static final int MAX_PLATE_BYTES = 16;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final long SYNCED_OFFSET = Long.BYTES;
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final FileChannel checkpoint;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition unforced = lock.newCondition();
+    private final Condition forcedAdvanced = lock.newCondition();
+    private final Thread flusher;
+
+    private Segment current;
+    private long nextSeq;
+    private long forcedSeq;
+    private long drainedSeq;
+    private RuntimeException failure;
+    private boolean closed;
+
+    /**
+     * Opens the journal in {@code directory}, creating it if needed. Records left by a previous run are kept
+     * for {@link #read}; anything after the last intact, synced record is cleared so it cannot be mistaken for data.
+     */
+    public ReservationJournal(Path directory, int segmentRecords) throws IOException {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        Files.createDirectories(directory);
+        checkpoint = FileChannel.open(directory.resolve("checkpoint"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(2 * Long.BYTES);
+        int headerBytes = checkpoint.read(header, 0);
+        drainedSeq = headerBytes >= Long.BYTES ? header.getLong(0) : 0;
+        // A checkpoint written before the synced sequence was recorded keeps every intact record
+        recover(headerBytes == 2 * Long.BYTES ? header.getLong(Long.BYTES) : Long.MAX_VALUE);
+        flusher = Thread.ofPlatform().name("reservation-journal-flusher").daemon().start(this::flushLoop);
+    }
+
+    /**
+     * Copies the reservation into the journal and returns its sequence number. It is not durable until
+     * {@link #awaitDurable} returns for that number.
+     */
+    public long append(Reservation reservation) {
+        byte[] record = encode(reservation);
+        lock.lock();
+        try {
+            checkUsable();
+            if (nextSeq == current.firstSeq + segmentRecords) {
+                // Rolling is rare, so the full segment is forced here rather than tracked by the flusher
+                current.force(0, segmentRecords);
+                current = openSegment(nextSeq);
+            }
+            current.write(nextSeq, record);
+            unforced.signal();
+            return nextSeq++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // No timeout: a record that has been appended will be synced or the journal fails, and both end the wait
+    public void awaitDurable(long seq) {
+        lock.lock();
+        try {
+            while (forcedSeq <= seq) {
+                if (failure != null) {
+                    checkUsable();
+                }
+                forcedAdvanced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Durable records from {@code fromSeq} on, at most {@code max} of them, each with its journal sequence number.
+     */
+    public List<Entry> read(long fromSeq, int max) {
+        lock.lock();
+        try {
+            long to = Math.min(forcedSeq, fromSeq + max);
+            List<Entry> entries = new ArrayList<>((int) Math.max(0, to - fromSeq));
+            for (long seq = fromSeq; seq < to; seq++) {
+                entries.add(new Entry(seq, decode(segments.floorEntry(seq).getValue().read(seq))));
+            }
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that everything below {@code seq} is in the database, and deletes segments that are now unneeded.
+     */
+    public void markDrained(long seq) throws IOException {
+        checkpoint.write(ByteBuffer.allocate(Long.BYTES).putLong(0, seq), 0);
+        checkpoint.force(false);
+        lock.lock();
+        try {
+            drainedSeq = seq;
+            for (Map.Entry<Long, Segment> entry = segments.firstEntry();
+                 entry != null && entry.getValue() != current && entry.getKey() + segmentRecords <= seq;
+                 entry = segments.firstEntry()) {
+                segments.pollFirstEntry();
+                Files.deleteIfExists(entry.getValue().path);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long drainedSeq() {
+        lock.lock();
+        try {
+            return drainedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Records appended but not yet drained to the database
+    public long backlog() {
+        lock.lock();
+        try {
+            return nextSeq - drainedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            unforced.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint.close();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Segment segment;
+            long from;
+            long target;
+            lock.lock();
+            try {
+                while (forcedSeq == nextSeq && !closed) {
+                    unforced.awaitUninterruptibly();
+                }
+                if (forcedSeq == nextSeq) {
+                    return;
+                }
+                segment = current;
+                target = nextSeq;
+                // Earlier segments were forced in full when the appender rolled past them
+                from = Math.max(forcedSeq, segment.firstSeq);
+            } finally {
+                lock.unlock();
+            }
+            RuntimeException error = null;
+            try {
+                segment.force((int) (from - segment.firstSeq), (int) (target - from));
+                recordSynced(target);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    forcedSeq = target;
+                }
+                forcedAdvanced.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void checkUsable() {
+        if (failure != null) {
+            throw new JournalUnavailableException("The reservation journal failed to sync and no longer accepts writes.", failure);
+        }
+        if (closed) {
+            throw new JournalUnavailableException("The reservation journal is closed.");
+        }
+    }
+
+    // Only records below the recorded sequence were acknowledged, so it must be durable before the callers are told
+    private void recordSynced(long seq) {
+        try {
+            checkpoint.write(ByteBuffer.allocate(Long.BYTES).putLong(0, seq), SYNCED_OFFSET);
+            checkpoint.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recover(long syncedSeq) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = path.getFileName().toString();
+                long firstSeq = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                if (firstSeq + segmentRecords <= drainedSeq) {
+                    Files.delete(path);
+                } else {
+                    segments.put(firstSeq, new Segment(path, firstSeq, segmentRecords));
+                }
+            }
+        }
+        nextSeq = segments.isEmpty() ? drainedSeq : Math.max(drainedSeq, segments.firstKey());
+        while (true) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(nextSeq);
+            if (entry == null || nextSeq >= entry.getKey() + segmentRecords || !isIntact(entry.getValue().read(nextSeq))) {
+                break;
+            }
+            nextSeq++;
+        }
+        // Records after the last recorded sync were refused, or never answered if the process died, even when
+        // they reached the disk; a crash can also leave a torn record. None of them was acknowledged.
+        nextSeq = Math.min(nextSeq, Math.max(syncedSeq, drainedSeq));
+        for (Segment segment : new ArrayList<>(segments.tailMap(nextSeq, false).values())) {
+            segments.remove(segment.firstSeq);
+            Files.delete(segment.path);
+        }
+        // What survived may still be only in the page cache if the process, rather than the machine, went down
+        for (Segment segment : segments.values()) {
+            segment.force(0, segmentRecords);
+        }
+        Map.Entry<Long, Segment> last = segments.floorEntry(nextSeq);
+        if (last == null || nextSeq >= last.getKey() + segmentRecords) {
+            current = openSegment(nextSeq);
+        } else {
+            current = last.getValue();
+            current.clearFrom(nextSeq);
+        }
+        forcedSeq = nextSeq;
+        recordSynced(nextSeq);
+    }
+
+    private Segment openSegment(long firstSeq) {
+        try {
+            Segment segment = new Segment(directory.resolve("%020d%s".formatted(firstSeq, SEGMENT_SUFFIX)), firstSeq, segmentRecords);
+            segments.put(firstSeq, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Layout: id, slot id, start and end in epoch microseconds, cost, vehicle type, plate, then a CRC of all of it
+    static byte[] encode(Reservation reservation) {
+        byte[] plate = reservation.getVehicleNumber().getBytes(StandardCharsets.US_ASCII);
+        if (plate.length > MAX_PLATE_BYTES) {
+            throw new IllegalArgumentException("Vehicle number is too long for the reservation journal.");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.putLong(reservation.getId())
+            .putLong(reservation.getSlot().getId())
+            .putLong(toMicros(reservation.getStartTime()))
+            .putLong(toMicros(reservation.getEndTime()))
+            .putDouble(reservation.getCost())
+            .put((byte) (reservation.getVehicleType().ordinal() + 1))
+            .put((byte) plate.length)
+            .put(plate);
+        buffer.putInt(RECORD_SIZE - Integer.BYTES, checksum(buffer.array()));
+        return buffer.array();
+    }
+
+    static Reservation decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        Slot slot = new Slot();
+        Reservation reservation = new Reservation();
+        reservation.setId(buffer.getLong());
+        slot.setId(buffer.getLong());
+        reservation.setSlot(slot);
+        reservation.setStartTime(fromMicros(buffer.getLong()));
+        reservation.setEndTime(fromMicros(buffer.getLong()));
+        reservation.setCost(buffer.getDouble());
+        reservation.setVehicleType(VehicleType.values()[buffer.get() - 1]);
+        byte[] plate = new byte[buffer.get()];
+        buffer.get(plate);
+        reservation.setVehicleNumber(new String(plate, StandardCharsets.US_ASCII));
+        return reservation;
+    }
+
+    private static boolean isIntact(byte[] record) {
+        // Unused space is zeroed, and a zero vehicle type marks it without computing the CRC
+        return record[40] != 0 && ByteBuffer.wrap(record).getInt(RECORD_SIZE - Integer.BYTES) == checksum(record);
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, RECORD_SIZE - Integer.BYTES);
+        return (int) crc.getValue();
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    public record Entry(long seq, Reservation reservation) {
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long firstSeq;
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path path, long firstSeq, int records) throws IOException {
+            this.path = path;
+            this.firstSeq = firstSeq;
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD_SIZE);
+            }
+        }
+
+        private void write(long seq, byte[] record) {
+            buffer.put(offset(seq), record);
+        }
+
+        private byte[] read(long seq) {
+            byte[] record = new byte[RECORD_SIZE];
+            buffer.get(offset(seq), record);
+            return record;
+        }
+
+        private void force(int fromRecord, int records) {
+            buffer.force(fromRecord * RECORD_SIZE, records * RECORD_SIZE);
+        }
+
+        private void clearFrom(long seq) {
+            byte[] zeros = new byte[RECORD_SIZE];
+            int from = offset(seq);
+            for (int offset = from; offset < buffer.capacity(); offset += RECORD_SIZE) {
+                buffer.put(offset, zeros);
+            }
+            buffer.force(from, buffer.capacity() - from);
+        }
+
+        private int offset(long seq) {
+            return (int) (seq - firstSeq) * RECORD_SIZE;
+        }
+    }
+}
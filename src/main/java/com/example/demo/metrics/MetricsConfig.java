@@ -0,0 +1,59 @@
+package com.example.demo.metrics;
+
+import java.io.IOException;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    QueryCountInspector queryCountInspector() {
+        return new QueryCountInspector();
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer queryCountingHibernateProperties(QueryCountInspector inspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    // Records the number of SQL statements each API request issued, tagged by endpoint
+    @Bean
+    FilterRegistrationBean<OncePerRequestFilter> queryCountFilter(QueryCountInspector inspector, MeterRegistry registry) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                inspector.reset();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    DistributionSummary.builder("parking.http.queries")
+                        .description("SQL statements issued per request")
+                        .tag("method", request.getMethod())
+                        .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                        .publishPercentiles(0.5, 0.99)
+                        .register(registry)
+                        .record(inspector.count());
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
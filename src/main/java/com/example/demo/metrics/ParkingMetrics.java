@@ -0,0 +1,56 @@
+package com.example.demo.metrics;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Booking-path meters. Timers publish percentile histograms so p99 latency can be alerted on from Prometheus.
+ */
+@Component
+public class ParkingMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer reservationTimer;
+    private final Timer batchReservationTimer;
+    private final Timer availabilityTimer;
+
+    public ParkingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.reservationTimer = Timer.builder("parking.reservation")
+            .description("Time to book a single slot")
+            .publishPercentileHistogram()
+            .register(registry);
+        this.batchReservationTimer = Timer.builder("parking.reservation.batch")
+            .description("Time to book a batch of slots")
+            .publishPercentileHistogram()
+            .register(registry);
+        this.availabilityTimer = Timer.builder("parking.availability")
+            .description("Time to compute one page of available slots")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    public Timer reservationTimer() {
+        return reservationTimer;
+    }
+
+    public Timer batchReservationTimer() {
+        return batchReservationTimer;
+    }
+
+    public Timer availabilityTimer() {
+        return availabilityTimer;
+    }
+
+    // cause is one of overlap, hold, no_free_slot, lock_timeout, optimistic_lock or constraint
+    public void recordConflict(String cause) {
+        Counter.builder("parking.reservation.conflicts")
+            .description("Bookings rejected because the slot was taken")
+            .tag("cause", cause)
+            .register(registry)
+            .increment();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so each request can report
+ * how many queries it issued and N+1 regressions show up on the dashboard.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private final ThreadLocal<int[]> counts = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        counts.get()[0]++;
+        return sql;
+    }
+
+    public void reset() {
+        counts.get()[0] = 0;
+    }
+
+    public int count() {
+        return counts.get()[0];
+    }
+}
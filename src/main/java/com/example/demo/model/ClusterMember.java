@@ -0,0 +1,26 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+/**
+ * A running instance in sharding mode, with the address other instances forward its slots' requests to.
+ * The row is a lease: the instance keeps pushing {@code expiresAt} forward, and once it stops the others
+ * drop it from the ring.
+ */
+@Entity
+@Data
+public class ClusterMember {
+    @Id
+    private String instanceId;
+
+    @Column(nullable = false)
+    private String baseUrl;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,33 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * The stored outcome of a request made with an {@code Idempotency-Key}, so a retry arriving after a restart,
+ * or at another instance, is answered the same way instead of being run again.
+ */
+@Entity
+@Data
+@Table(indexes = @Index(name = "idx_idempotency_expires", columnList = "expiresAt"))
+public class IdempotencyRecord {
+    @Id
+    private String idempotencyKey;
+
+    // Hash of the request the key was first used with
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    // Response body as JSON
+    @Column(nullable = false, length = 4000)
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
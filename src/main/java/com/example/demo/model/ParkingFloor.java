@@ -1,11 +1,15 @@
 package com.example.demo.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.util.List;
 
 @Entity
 @Data
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_parking_floor_number", columnNames = "floor_number"))
 public class ParkingFloor {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,5 +18,8 @@ public class ParkingFloor {
     private int floorNumber;
 
     @OneToMany(mappedBy = "parkingFloor", cascade = CascadeType.ALL)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Slot> slots;
 }
\ No newline at end of file
@@ -2,17 +2,34 @@ package com.example.demo.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Entity
 @Data
+@Table(indexes = {
+    @Index(name = "idx_reservation_slot_time", columnList = "slot_id, startTime, endTime"),
+    // Lets the archiver find expired bookings without scanning the table
+    @Index(name = "idx_reservation_end_time", columnList = "endTime"),
+    // Gate lookups by plate when the in-memory plate index is not loaded
+    @Index(name = "idx_reservation_vehicle", columnList = "vehicleNumber, endTime")
+})
 public class Reservation {
+    // Bookings must be strictly shorter than this
+    public static final Duration MAX_DURATION = Duration.ofHours(24);
+
+    // Pooled sequence ids let Hibernate batch inserts, which IDENTITY columns rule out
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "slot_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Slot slot;
 
     @Column(nullable = false)
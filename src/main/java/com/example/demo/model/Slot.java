@@ -1,26 +1,47 @@
 package com.example.demo.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.persistence.Version;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Entity
 @Data
+// Slot numbers are unique within a floor, which is what makes bulk provisioning safe to repeat
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_slot_floor_number", columnNames = {"floor_id", "slot_number"}))
 public class Slot {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "slot_seq")
+    @SequenceGenerator(name = "slot_seq", sequenceName = "slot_seq", allocationSize = 50)
     private Long id;
 
     private int slotNumber;
 
-    @ManyToOne
+    // Restricts the slot to one vehicle type; null means any vehicle fits
+    @Enumerated(EnumType.STRING)
+    private VehicleType vehicleType;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "floor_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private ParkingFloor parkingFloor;
     @Version
     private Long version;
-}
\ No newline at end of file
+
+    public boolean accepts(VehicleType type) {
+        return vehicleType == null || type == null || vehicleType == type;
+    }
+}
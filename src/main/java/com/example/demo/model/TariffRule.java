@@ -0,0 +1,39 @@
+package com.example.demo.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+/**
+ * One line of the tariff: an hourly rate for a daily time band. Null floor, vehicle type or day means every
+ * floor, type or day. Rules are applied in id order, floor-specific rules after the rest, so later ones win.
+ */
+@Entity
+@Data
+public class TariffRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long floorId;
+
+    @Enumerated(EnumType.STRING)
+    private VehicleType vehicleType;
+
+    @Enumerated(EnumType.STRING)
+    private DayOfWeek dayOfWeek;
+
+    private LocalTime startTime;
+
+    // An end at or before the start runs past midnight into the next day
+    private LocalTime endTime;
+
+    private double hourlyRate;
+}
@@ -0,0 +1,20 @@
+package com.example.demo.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+/**
+ * The single row counting tariff replacements. Every replacement bumps it in the transaction that rewrites the
+ * rules, so an instance can tell from one lookup whether the table it compiled is still current.
+ */
+@Entity
+@Data
+public class TariffVersion {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private long version;
+}
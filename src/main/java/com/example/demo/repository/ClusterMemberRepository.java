@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.ClusterMember;
+
+public interface ClusterMemberRepository extends JpaRepository<ClusterMember, String> {
+
+    List<ClusterMember> findByExpiresAtAfterOrderByInstanceId(LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ClusterMember m WHERE m.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") LocalDateTime before);
+}
@@ -1,7 +1,17 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.ParkingFloor;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import java.util.Optional;
 
 public interface FloorRepository extends JpaRepository<ParkingFloor, Long> {
+
+    // Serializes slot provisioning per floor, so concurrent requests cannot both insert the same slot number
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ParkingFloor> findLockedById(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ParkingFloor> findLockedByFloorNumber(int floorNumber);
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.example.demo.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.model.VehicleType;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Reservations that ended long enough ago to be moved out of the live table. Nothing reads them on the booking
+ * path; they stay available for lookups by id and for exports.
+ * <p>
+ * On PostgreSQL the table is range-partitioned by start time into monthly partitions, created here as rows
+ * arrive for them, so queries over a time range only touch the months they cover and old months can be
+ * detached or dropped whole. Other databases get a plain table. Where migrations own the schema the table
+ * is left to them and only the monthly partitions are still created here.
+ */
+@Repository
+public class ReservationArchiveRepository {
+
+    private static final String COLUMNS = "id, slot_id, start_time, end_time, vehicle_number, vehicle_type, cost";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final RowMapper<ReservationDTO> DETAILS = (rs, row) -> new ReservationDTO(
+        rs.getLong("id"), rs.getLong("slot_id"),
+        rs.getTimestamp("start_time").toLocalDateTime(), rs.getTimestamp("end_time").toLocalDateTime(),
+        rs.getString("vehicle_number"), VehicleType.valueOf(rs.getString("vehicle_type")), rs.getDouble("cost"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    // Separate template so only export cursors fetch in pages rather than all at once
+    private final JdbcTemplate exportTemplate;
+    private final Set<YearMonth> partitions = ConcurrentHashMap.newKeySet();
+    private final boolean createTables;
+    // Null until first needed, so nothing connects to the database while the context is built
+    private volatile Boolean partitioned;
+
+    public ReservationArchiveRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${parking.schema.create-tables:true}") boolean createTables) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.createTables = createTables;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.exportTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.exportTemplate.setFetchSize(500);
+    }
+
+    @PostConstruct
+    public void createTable() {
+        if (!createTables) {
+            return;
+        }
+        String columns = "id bigint NOT NULL, slot_id bigint NOT NULL, start_time timestamp(6) NOT NULL, "
+            + "end_time timestamp(6) NOT NULL, vehicle_number varchar(255) NOT NULL, vehicle_type varchar(32) NOT NULL, "
+            + "cost double precision NOT NULL, archived_at timestamp(6) NOT NULL";
+        if (isPartitioned()) {
+            // The partition key has to be part of the primary key
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS reservation_archive (" + columns
+                + ", PRIMARY KEY (id, start_time)) PARTITION BY RANGE (start_time)");
+            // Catches nothing while partitions are created ahead of inserts, but keeps a missed one from failing them
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS reservation_archive_default PARTITION OF reservation_archive DEFAULT");
+        } else {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS reservation_archive (" + columns + ", PRIMARY KEY (id))");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_reservation_archive_start ON reservation_archive (start_time)");
+        }
+    }
+
+    /**
+     * Moves up to {@code limit} reservations that ended before {@code cutoff} from the live table into the
+     * archive, and returns the ones moved. Must run inside a transaction, so a failure leaves both tables as
+     * they were.
+     */
+    public List<ReservationWindow> archiveEndedBefore(LocalDateTime cutoff, int limit, LocalDateTime archivedAt) {
+        List<ReservationWindow> windows = jdbcTemplate.query(
+            "SELECT id, slot_id, start_time, end_time FROM reservation WHERE end_time < ? FETCH FIRST ? ROWS ONLY",
+            (rs, row) -> new ReservationWindow(rs.getLong("id"), rs.getLong("slot_id"),
+                rs.getTimestamp("start_time").toLocalDateTime(), rs.getTimestamp("end_time").toLocalDateTime()),
+            Timestamp.valueOf(cutoff), limit);
+        if (windows.isEmpty()) {
+            return windows;
+        }
+        windows.stream().map(window -> YearMonth.from(window.startTime())).distinct().forEach(this::ensurePartition);
+        Map<String, Object> params = Map.of(
+            "ids", windows.stream().map(ReservationWindow::reservationId).toList(),
+            "archivedAt", Timestamp.valueOf(archivedAt));
+        // A row cancelled since the select is simply not copied, and deleting it again is a no-op
+        namedJdbcTemplate.update("INSERT INTO reservation_archive (" + COLUMNS + ", archived_at) "
+            + "SELECT " + COLUMNS + ", :archivedAt FROM reservation WHERE id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM reservation WHERE id IN (:ids)", params);
+        return windows;
+    }
+
+    public Optional<ReservationDTO> findDetailsById(long id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM reservation_archive WHERE id = ?", DETAILS, id)
+            .stream().findFirst();
+    }
+
+    // Same contract as ReservationRepository.streamForExport; the start time range prunes partitions
+    public Stream<ReservationDTO> streamForExport(LocalDateTime from, LocalDateTime to, long afterId) {
+        return exportTemplate.queryForStream("SELECT " + COLUMNS + " FROM reservation_archive "
+                + "WHERE start_time >= ? AND start_time < ? AND id > ? ORDER BY id",
+            DETAILS, Timestamp.valueOf(from), Timestamp.valueOf(to), afterId);
+    }
+
+    private boolean isPartitioned() {
+        Boolean known = partitioned;
+        if (known == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            known = "PostgreSQL".equals(product);
+            partitioned = known;
+        }
+        return known;
+    }
+
+    private void ensurePartition(YearMonth month) {
+        if (!isPartitioned() || partitions.contains(month)) {
+            return;
+        }
+        LocalDate first = month.atDay(1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS reservation_archive_" + month.format(PARTITION_SUFFIX)
+            + " PARTITION OF reservation_archive FOR VALUES FROM ('" + first + "') TO ('" + first.plusMonths(1) + "')");
+        // DDL rolls back with the transaction on PostgreSQL, so the partition only counts as made once it commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    partitions.add(month);
+                }
+            });
+        } else {
+            partitions.add(month);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.example.demo.model.Reservation;
+
+// Plain JDBC writes for reservations whose ids were assigned before they reach the database
+public interface ReservationBulkRepository {
+
+    Set<Long> findExistingIds(Collection<Long> ids);
+
+    void insertAllWithIds(List<Reservation> reservations);
+}
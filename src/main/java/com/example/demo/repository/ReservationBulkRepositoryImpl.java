@@ -0,0 +1,51 @@
+package com.example.demo.repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.example.demo.model.Reservation;
+
+/**
+ * Inserts pre-identified reservations as one JDBC batch. Going through {@code save} would make Spring Data
+ * treat each of them as detached and merge it, costing a select per row.
+ */
+class ReservationBulkRepositoryImpl implements ReservationBulkRepository {
+
+    private static final String INSERT = "INSERT INTO reservation "
+        + "(id, slot_id, start_time, end_time, vehicle_number, vehicle_type, cost) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ReservationBulkRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(
+            "SELECT id FROM reservation WHERE id IN (:ids)", Map.of("ids", ids), Long.class));
+    }
+
+    @Override
+    public void insertAllWithIds(List<Reservation> reservations) {
+        jdbcTemplate.batchUpdate(INSERT, reservations, reservations.size(), (ps, reservation) -> {
+            ps.setLong(1, reservation.getId());
+            ps.setLong(2, reservation.getSlot().getId());
+            ps.setTimestamp(3, Timestamp.valueOf(reservation.getStartTime()));
+            ps.setTimestamp(4, Timestamp.valueOf(reservation.getEndTime()));
+            ps.setString(5, reservation.getVehicleNumber());
+            ps.setString(6, reservation.getVehicleType().name());
+            ps.setDouble(7, reservation.getCost());
+        });
+    }
+}
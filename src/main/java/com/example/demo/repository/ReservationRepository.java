@@ -1,18 +1,94 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.PlateWindow;
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.ReservationWindow;
 import com.example.demo.model.Reservation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, ReservationBulkRepository {
 
-    @Query("SELECT r FROM Reservation r WHERE r.slot.id = :slotId AND r.startTime < :endTime AND r.endTime > :startTime")
+    // No reservation is as long as MAX_DURATION, so one starting that far back cannot overlap. The lower bound
+    // turns the index scan on (slot_id, startTime) into a range of about a day instead of the slot's whole history.
+    default List<Reservation> findOverlappingReservations(Long slotId, LocalDateTime startTime, LocalDateTime endTime) {
+        return findOverlappingReservations(slotId, startTime.minus(Reservation.MAX_DURATION), startTime, endTime);
+    }
+
+    @Query("SELECT r FROM Reservation r WHERE r.slot.id = :slotId AND r.startTime > :earliestStart "
+        + "AND r.startTime < :endTime AND r.endTime > :startTime")
     List<Reservation> findOverlappingReservations(
         @Param("slotId") Long slotId,
+        @Param("earliestStart") LocalDateTime earliestStart,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+
+    // r.slot.id reads the foreign key column, so neither projection joins the slot table
+    @Query("SELECT new com.example.demo.dto.ReservationDTO(r.id, r.slot.id, r.startTime, r.endTime, r.vehicleNumber, r.vehicleType, r.cost) "
+        + "FROM Reservation r WHERE r.id = :id")
+    Optional<ReservationDTO> findDetailsById(@Param("id") Long id);
+
+    // Forward-only cursor for exports, in id order so a client can resume after the last id it received.
+    // Rows are projected, so nothing accumulates in the persistence context however many are read.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demo.dto.ReservationDTO(r.id, r.slot.id, r.startTime, r.endTime, r.vehicleNumber, r.vehicleType, r.cost) "
+        + "FROM Reservation r WHERE r.startTime >= :from AND r.startTime < :to AND r.id > :afterId ORDER BY r.id")
+    Stream<ReservationDTO> streamForExport(
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        @Param("afterId") long afterId
+    );
+
+    @Query("SELECT new com.example.demo.dto.ReservationWindow(r.id, r.slot.id, r.startTime, r.endTime) FROM Reservation r")
+    List<ReservationWindow> findAllWindows();
+
+    @Query("SELECT new com.example.demo.dto.ReservationWindow(r.id, r.slot.id, r.startTime, r.endTime) FROM Reservation r "
+        + "WHERE r.startTime < :endTime AND r.endTime > :startTime")
+    List<ReservationWindow> findWindowsBetween(
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+
+    @Query("SELECT new com.example.demo.dto.ReservationWindow(r.id, r.slot.id, r.startTime, r.endTime) FROM Reservation r "
+        + "WHERE r.slot.parkingFloor.id = :floorId AND r.startTime < :endTime AND r.endTime > :startTime")
+    List<ReservationWindow> findFloorWindowsBetween(
+        @Param("floorId") Long floorId,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+
+    default List<ReservationWindow> findOverlappingWindows(Collection<Long> slotIds, LocalDateTime startTime, LocalDateTime endTime) {
+        return findOverlappingWindows(slotIds, startTime.minus(Reservation.MAX_DURATION), startTime, endTime);
+    }
+
+    @Query("SELECT new com.example.demo.dto.ReservationWindow(r.id, r.slot.id, r.startTime, r.endTime) FROM Reservation r "
+        + "WHERE r.slot.id IN :slotIds AND r.startTime > :earliestStart AND r.startTime < :endTime AND r.endTime > :startTime")
+    List<ReservationWindow> findOverlappingWindows(
+        @Param("slotIds") Collection<Long> slotIds,
+        @Param("earliestStart") LocalDateTime earliestStart,
         @Param("startTime") LocalDateTime startTime,
         @Param("endTime") LocalDateTime endTime
     );
-}
\ No newline at end of file
+
+    // Served by idx_reservation_vehicle
+    @Query("SELECT new com.example.demo.dto.PlateWindow(r.vehicleNumber, r.id, r.slot.id, r.startTime, r.endTime) "
+        + "FROM Reservation r WHERE r.vehicleNumber = :plate AND r.endTime > :after ORDER BY r.startTime")
+    List<PlateWindow> findPlateWindows(@Param("plate") String plate, @Param("after") LocalDateTime after);
+
+    @Query("SELECT new com.example.demo.dto.PlateWindow(r.vehicleNumber, r.id, r.slot.id, r.startTime, r.endTime) "
+        + "FROM Reservation r WHERE r.endTime > :after")
+    List<PlateWindow> findAllPlateWindowsEndingAfter(@Param("after") LocalDateTime after);
+}
@@ -1,9 +1,67 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.FloorCapacity;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.dto.SlotSummary;
 import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface SlotRepository extends JpaRepository<Slot, Long> {
     List<Slot> findByParkingFloorId(Long floorId);
-}
\ No newline at end of file
+
+    @Query("SELECT s.slotNumber FROM Slot s WHERE s.parkingFloor.id = :floorId")
+    List<Integer> findSlotNumbersByFloorId(@Param("floorId") Long floorId);
+
+    // Loads the floor with the slot, for callers that keep the slot beyond the session (the topology cache)
+    @EntityGraph(attributePaths = "parkingFloor")
+    Optional<Slot> findWithParkingFloorById(Long id);
+
+    // Row locks in id order, so callers locking several slots cannot deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Slot s WHERE s.id IN :ids ORDER BY s.id")
+    List<Slot> lockAllById(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.demo.dto.SlotSummary(s.id, s.slotNumber, s.vehicleType, f.id, f.floorNumber) "
+        + "FROM Slot s JOIN s.parkingFloor f")
+    List<SlotSummary> findAllSummaries();
+
+    @Query("SELECT new com.example.demo.dto.SlotSummary(s.id, s.slotNumber, s.vehicleType, f.id, f.floorNumber) "
+        + "FROM Slot s JOIN s.parkingFloor f WHERE f.id = :floorId ORDER BY s.id")
+    List<SlotSummary> findSummariesByFloorId(@Param("floorId") Long floorId);
+
+    @Query("SELECT new com.example.demo.dto.FloorCapacity(s.parkingFloor.id, COUNT(s)) FROM Slot s GROUP BY s.parkingFloor.id")
+    List<FloorCapacity> countSlotsByFloor();
+
+    // Anti-join against overlapping reservations, paged by slot id so each page is a single index range scan.
+    // Projects straight into the response shape, joining the floor in the same statement.
+    @Query("""
+        SELECT new com.example.demo.dto.SlotAvailabilityDTO(s.id, s.slotNumber, f.floorNumber)
+        FROM Slot s JOIN s.parkingFloor f
+        WHERE s.id > :afterSlotId
+          AND (:floorId IS NULL OR f.id = :floorId)
+          AND (:vehicleType IS NULL OR s.vehicleType IS NULL OR s.vehicleType = :vehicleType)
+          AND NOT EXISTS (
+              SELECT 1 FROM Reservation r
+              WHERE r.slot = s AND r.startTime < :endTime AND r.endTime > :startTime)
+        ORDER BY s.id
+        """)
+    List<SlotAvailabilityDTO> findAvailableSlots(
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime,
+        @Param("floorId") Long floorId,
+        @Param("vehicleType") VehicleType vehicleType,
+        @Param("afterSlotId") long afterSlotId,
+        Limit limit
+    );
+}
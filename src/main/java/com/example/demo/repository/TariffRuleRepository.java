@@ -0,0 +1,12 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.model.TariffRule;
+
+public interface TariffRuleRepository extends JpaRepository<TariffRule, Long> {
+
+    List<TariffRule> findAllByOrderByIdAsc();
+}
@@ -0,0 +1,17 @@
+package com.example.demo.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import com.example.demo.model.TariffVersion;
+
+import jakarta.persistence.LockModeType;
+
+public interface TariffVersionRepository extends JpaRepository<TariffVersion, Integer> {
+
+    // Held until the replacement commits, so replacements on different instances are numbered in commit order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<TariffVersion> findLockedById(Integer id);
+}
@@ -0,0 +1,123 @@
+package com.example.demo.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.dto.UsageRollupRow;
+import com.example.demo.model.VehicleType;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Hourly occupancy and revenue buckets per floor and vehicle type. Rows are only ever adjusted by adding
+ * deltas, so instances that each saw different bookings can write to the same buckets without coordinating.
+ */
+@Repository
+public class UsageRollupRepository {
+
+    private static final String COLUMNS = "bucket_start, floor_id, vehicle_type, occupied_minutes, revenue_cents, reservations";
+    private static final RowMapper<UsageRollupRow> ROW = (rs, row) -> new UsageRollupRow(
+        rs.getTimestamp("bucket_start").toLocalDateTime(), rs.getLong("floor_id"),
+        VehicleType.valueOf(rs.getString("vehicle_type")), rs.getLong("occupied_minutes"),
+        rs.getLong("revenue_cents"), rs.getLong("reservations"));
+
+    private final JdbcTemplate jdbcTemplate;
+    // Separate template so only rebuild scans fetch in pages rather than all at once
+    private final JdbcTemplate scanTemplate;
+    private final boolean createTables;
+
+    public UsageRollupRepository(JdbcTemplate jdbcTemplate,
+                                 @Value("${parking.schema.create-tables:true}") boolean createTables) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.createTables = createTables;
+        this.scanTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.scanTemplate.setFetchSize(500);
+    }
+
+    // Left to the migrations where they own the schema
+    @PostConstruct
+    public void createTable() {
+        if (!createTables) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS usage_rollup (bucket_start timestamp(6) NOT NULL, "
+            + "floor_id bigint NOT NULL, vehicle_type varchar(32) NOT NULL, occupied_minutes bigint NOT NULL, "
+            + "revenue_cents bigint NOT NULL, reservations bigint NOT NULL, "
+            + "PRIMARY KEY (bucket_start, floor_id, vehicle_type))");
+    }
+
+    /**
+     * Adds each row's figures to its bucket, creating buckets that do not exist yet. Must run inside a
+     * transaction; another instance creating the same bucket first fails it with a duplicate key.
+     */
+    public void addAll(List<UsageRollupRow> deltas) {
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE usage_rollup SET occupied_minutes = occupied_minutes + ?, "
+                + "revenue_cents = revenue_cents + ?, reservations = reservations + ? "
+                + "WHERE bucket_start = ? AND floor_id = ? AND vehicle_type = ?",
+            deltas.stream().map(d -> new Object[] {d.occupiedMinutes(), d.revenueCents(), d.reservations(),
+                Timestamp.valueOf(d.hour()), d.floorId(), d.vehicleType().name()}).toList());
+        List<UsageRollupRow> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(deltas.get(i));
+            }
+        }
+        insertAll(missing);
+    }
+
+    // Replaces every bucket from {@code from} on with the given ones; must run inside a transaction
+    public void replaceFrom(LocalDateTime from, List<UsageRollupRow> rows) {
+        jdbcTemplate.update("DELETE FROM usage_rollup WHERE bucket_start >= ?", Timestamp.valueOf(from));
+        insertAll(rows);
+    }
+
+    // Buckets in [from, to), on the floor if one is given, in hour, floor and vehicle type order
+    public List<UsageRollupRow> findBetween(LocalDateTime from, LocalDateTime to, Long floorId) {
+        String sql = "SELECT " + COLUMNS + " FROM usage_rollup WHERE bucket_start >= ? AND bucket_start < ?"
+            + (floorId != null ? " AND floor_id = ?" : "") + " ORDER BY bucket_start, floor_id, vehicle_type";
+        Object[] args = floorId != null
+            ? new Object[] {Timestamp.valueOf(from), Timestamp.valueOf(to), floorId}
+            : new Object[] {Timestamp.valueOf(from), Timestamp.valueOf(to)};
+        return jdbcTemplate.query(sql, ROW, args);
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM usage_rollup FETCH FIRST 1 ROWS ONLY", Integer.class).isEmpty();
+    }
+
+    // Lowest and highest id of the live reservations ending after {@code after}, if there are any
+    public Optional<long[]> findReservationIdRange(LocalDateTime after) {
+        return jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM reservation WHERE end_time > ?",
+            (rs, row) -> rs.getObject(1) == null ? null : new long[] {rs.getLong(1), rs.getLong(2)},
+            Timestamp.valueOf(after)).stream().filter(range -> range != null).findFirst();
+    }
+
+    /**
+     * Feeds the live reservations with ids in [{@code fromId}, {@code toId}] that end after {@code after} to
+     * the handler in id order, as columns id, start_time, end_time, vehicle_type, cost and floor_id.
+     */
+    public void scanReservations(long fromId, long toId, LocalDateTime after, RowCallbackHandler handler) {
+        scanTemplate.query("SELECT r.id, r.start_time, r.end_time, r.vehicle_type, r.cost, s.floor_id "
+                + "FROM reservation r JOIN slot s ON s.id = r.slot_id "
+                + "WHERE r.id BETWEEN ? AND ? AND r.end_time > ? ORDER BY r.id",
+            handler, fromId, toId, Timestamp.valueOf(after));
+    }
+
+    private void insertAll(List<UsageRollupRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO usage_rollup (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)",
+            rows.stream().map(r -> new Object[] {Timestamp.valueOf(r.hour()), r.floorId(), r.vehicleType().name(),
+                r.occupiedMinutes(), r.revenueCents(), r.reservations()}).toList());
+    }
+}
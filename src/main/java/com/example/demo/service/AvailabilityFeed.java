@@ -0,0 +1,287 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.demo.cluster.ClusterMembership;
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.dto.SlotStatusDTO;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.event.SlotCreatedEvent;
+import com.example.demo.event.SlotsCreatedEvent;
+import com.example.demo.repository.ReservationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Live "occupied right now" status of every slot, pushed to server-sent event subscribers as a snapshot followed
+ * by per-slot deltas.
+ * <p>
+ * A sweep compares the availability index at the current instant with what was last published, so bookings,
+ * cancellations and reservations starting or running out all surface the same way. It runs on a fixed delay
+ * and is also requested straight after bookings and cancellations. When slots are sharded across instances the
+ * index only sees this instance's bookings, so each sweep takes what is occupied from the database instead.
+ * <p>
+ * Each subscriber has its own bounded queue and is written to from its own virtual thread, so a slow client
+ * only holds up itself. When its queue overflows the queued deltas are dropped and it is sent a fresh snapshot
+ * instead. Deltas carry absolute status, so one delivered after a snapshot that already includes it is harmless.
+ */
+@Component
+public class AvailabilityFeed {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final SlotAvailabilityIndex availabilityIndex;
+    private final ReservationRepository reservationRepository;
+    private final ClusterMembership cluster;
+    private final Clock clock;
+    private final Executor senders;
+    private final int queueCapacity;
+    private final Duration timeout;
+    private final Counter resyncs;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean sweepRequested = new AtomicBoolean();
+
+    // Only touched by sweeps, which are serialized
+    private Map<Long, SlotStatusDTO> published = Map.of();
+    // Replaced, never modified, so subscribers can read it for a snapshot while a sweep runs
+    private volatile List<SlotStatusDTO> publishedInOrder = List.of();
+    private boolean initialized;
+
+    @Autowired
+    public AvailabilityFeed(SlotAvailabilityIndex availabilityIndex, ReservationRepository reservationRepository,
+                            @Nullable ClusterMembership cluster, MeterRegistry meterRegistry,
+                            @Value("${parking.availability-feed.queue-capacity:256}") int queueCapacity,
+                            @Value("${parking.availability-feed.timeout:30m}") Duration timeout) {
+        this(availabilityIndex, reservationRepository, cluster, meterRegistry, queueCapacity, timeout,
+            Executors.newVirtualThreadPerTaskExecutor(), Clock.systemDefaultZone());
+    }
+
+    AvailabilityFeed(SlotAvailabilityIndex availabilityIndex, ReservationRepository reservationRepository,
+                     ClusterMembership cluster, MeterRegistry meterRegistry, int queueCapacity, Duration timeout,
+                     Executor senders, Clock clock) {
+        this.availabilityIndex = availabilityIndex;
+        this.reservationRepository = reservationRepository;
+        this.cluster = cluster;
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        this.senders = senders;
+        this.clock = clock;
+        this.resyncs = Counter.builder("parking.availability.feed.resyncs")
+            .description("Times a subscriber fell behind and was sent a fresh snapshot instead of its queued deltas")
+            .register(meterRegistry);
+        Gauge.builder("parking.availability.feed.subscribers", subscribers, Set::size)
+            .description("Open availability stream connections")
+            .register(meterRegistry);
+    }
+
+    // Only slots on the floor when floorId is given
+    public SseEmitter subscribe(Long floorId) {
+        SseEmitter emitter = newEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, floorId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.resync();
+        return emitter;
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${parking.availability-feed.sweep-interval:1s}")
+    public synchronized void sweep() {
+        if (!availabilityIndex.isReady()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<SlotStatusDTO> current = cluster == null ? availabilityIndex.statusAt(now) : statusFromDatabase(now);
+        Map<Long, SlotStatusDTO> previous = published;
+        List<SlotStatusDTO> changes = new ArrayList<>();
+        for (SlotStatusDTO status : current) {
+            if (!status.equals(previous.get(status.slotId()))) {
+                changes.add(status);
+            }
+        }
+        if (changes.isEmpty() && current.size() == previous.size()) {
+            return;
+        }
+        Map<Long, SlotStatusDTO> next = new HashMap<>(current.size() * 2);
+        current.forEach(status -> next.put(status.slotId(), status));
+        published = next;
+        publishedInOrder = current;
+        if (!initialized) {
+            // Everyone so far was sent an empty snapshot, and the first sweep's changes are the whole state
+            initialized = true;
+            subscribers.forEach(Subscriber::resync);
+            return;
+        }
+        subscribers.forEach(subscriber -> subscriber.publish(changes));
+    }
+
+    // Keeps idle connections from being closed by proxies and notices clients that have gone away
+    @Scheduled(fixedDelayString = "${parking.availability-feed.heartbeat-interval:15s}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.enqueue(HEARTBEAT));
+    }
+
+    // A sweep is cheap next to a booking, and coalescing keeps bursts of bookings to one extra sweep
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCreated(ReservationCreatedEvent event) {
+        requestSweep();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCancelled(ReservationCancelledEvent event) {
+        requestSweep();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotCreated(SlotCreatedEvent event) {
+        requestSweep();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotsCreated(SlotsCreatedEvent event) {
+        requestSweep();
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        if (senders instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    // The index still lists the slots; only whether each is occupied comes from the database
+    private List<SlotStatusDTO> statusFromDatabase(LocalDateTime now) {
+        Set<Long> occupied = reservationRepository.findWindowsBetween(now, now.plusNanos(1)).stream()
+            .map(ReservationWindow::slotId)
+            .collect(Collectors.toSet());
+        return availabilityIndex.statusAt(now).stream()
+            .map(status -> status.occupied() == occupied.contains(status.slotId()) ? status
+                : new SlotStatusDTO(status.slotId(), status.slotNumber(), status.floorId(), status.floorNumber(),
+                    !status.occupied()))
+            .toList();
+    }
+
+    // Should this sweep run before the index has applied the event, the next scheduled one picks the change up
+    private void requestSweep() {
+        if (sweepRequested.compareAndSet(false, true)) {
+            senders.execute(() -> {
+                sweepRequested.set(false);
+                sweep();
+            });
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long floorId;
+        private final ArrayBlockingQueue<Object> pending = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean resyncNeeded = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, Long floorId) {
+            this.emitter = emitter;
+            this.floorId = floorId;
+        }
+
+        private void publish(List<SlotStatusDTO> changes) {
+            for (SlotStatusDTO change : changes) {
+                if (matches(change) && !pending.offer(change)) {
+                    resyncs.increment();
+                    resync();
+                    return;
+                }
+            }
+            scheduleDrain();
+        }
+
+        private void enqueue(Object item) {
+            if (!pending.offer(item)) {
+                resyncs.increment();
+                resync();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void resync() {
+            resyncNeeded.set(true);
+            pending.clear();
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    if (resyncNeeded.getAndSet(false)) {
+                        pending.clear();
+                        emitter.send(SseEmitter.event().name("snapshot").data(snapshot()));
+                    }
+                    for (Object item = pending.poll(); item != null && !resyncNeeded.get(); item = pending.poll()) {
+                        if (item == HEARTBEAT) {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                        } else {
+                            SlotStatusDTO change = (SlotStatusDTO) item;
+                            emitter.send(SseEmitter.event().name(change.occupied() ? "slot-occupied" : "slot-freed").data(change));
+                        }
+                    }
+                    draining.set(false);
+                    // Work that arrived after the queue looked empty but before the flag was cleared
+                } while ((resyncNeeded.get() || !pending.isEmpty()) && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed
+                closed = true;
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private List<SlotStatusDTO> snapshot() {
+            List<SlotStatusDTO> all = publishedInOrder;
+            return floorId == null ? all : all.stream().filter(this::matches).toList();
+        }
+
+        private boolean matches(SlotStatusDTO status) {
+            return floorId == null || floorId.equals(status.floorId());
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.demo.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.dto.FreeWindowDTO;
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.dto.SlotSummary;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.event.ShardOwnershipChangedEvent;
+import com.example.demo.event.SlotHeldEvent;
+import com.example.demo.event.SlotHoldReleasedEvent;
+import com.example.demo.event.SlotCreatedEvent;
+import com.example.demo.event.SlotsCreatedEvent;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+
+/**
+ * Per-floor occupancy bitmaps at 15-minute granularity, one {@code long[]} per slot, covering a rolling horizon.
+ * A bucket is set when any reservation or hold touches it, so every window found in the bitmaps is really free.
+ * The bitmaps start at midnight of the day they were built and hold one day more than the horizon, so they
+ * are reloaded lazily on the first call after midnight rather than shifted on every call.
+ */
+@Component
+public class FloorOccupancyIndex {
+
+    public static final Duration BUCKET = Duration.ofMinutes(15);
+    public static final Duration HORIZON = Duration.ofDays(7);
+    private static final long BUCKET_SECONDS = BUCKET.toSeconds();
+    private static final int CAPACITY = (int) (HORIZON.plusDays(1).toSeconds() / BUCKET_SECONDS);
+    private static final int WORDS = (CAPACITY + 63) / 64;
+
+    private final SlotRepository slotRepository;
+    private final ReservationRepository reservationRepository;
+    private final Clock clock;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, List<SlotOccupancy>> floors = new HashMap<>();
+    private final Map<Long, SlotOccupancy> slots = new HashMap<>();
+    private volatile LocalDateTime origin;
+
+    @Autowired
+    public FloorOccupancyIndex(SlotRepository slotRepository, ReservationRepository reservationRepository) {
+        this(slotRepository, reservationRepository, Clock.systemDefaultZone());
+    }
+
+    FloorOccupancyIndex(SlotRepository slotRepository, ReservationRepository reservationRepository, Clock clock) {
+        this.slotRepository = slotRepository;
+        this.reservationRepository = reservationRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Earliest window of {@code duration} on the floor that starts at or after {@code after}, on a slot that takes
+     * {@code vehicleType}. Windows start on a bucket boundary; ties go to the lowest slot id.
+     */
+    public Optional<FreeWindowDTO> findNextFree(Long floorId, Duration duration, LocalDateTime after, VehicleType vehicleType) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        ensureCurrent(now);
+        lock.readLock().lock();
+        try {
+            return earliestFree(floors.getOrDefault(floorId, List.of()), now, duration, after, vehicleType);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * As {@link #findNextFree}, but drawn from the floor's slots and reservations in the database rather than the
+     * bitmaps kept up to date by this instance's events. Used when slots are sharded and bookings for slots owned by
+     * other instances never reach this one.
+     */
+    public Optional<FreeWindowDTO> findNextFreeInDatabase(Long floorId, Duration duration, LocalDateTime after,
+                                                          VehicleType vehicleType) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        ensureCurrent(now);
+        List<SlotSummary> summaries = slotRepository.findSummariesByFloorId(floorId);
+        List<ReservationWindow> windows = reservationRepository.findFloorWindowsBetween(floorId, now, now.plus(HORIZON));
+        // The read lock only keeps the origin from moving while the bitmaps are drawn
+        lock.readLock().lock();
+        try {
+            List<SlotOccupancy> floor = new ArrayList<>(summaries.size());
+            Map<Long, SlotOccupancy> byId = new HashMap<>();
+            for (SlotSummary summary : summaries) {
+                SlotOccupancy slot = new SlotOccupancy(summary);
+                floor.add(slot);
+                byId.put(summary.slotId(), slot);
+            }
+            for (ReservationWindow window : windows) {
+                SlotOccupancy slot = byId.get(window.slotId());
+                if (slot != null) {
+                    mark(slot, window);
+                }
+            }
+            // Holds never reach the database; those on this instance's slots are known here
+            for (SlotOccupancy slot : floor) {
+                SlotOccupancy indexed = slots.get(slot.summary.slotId());
+                if (indexed != null) {
+                    indexed.windows.stream().filter(w -> w.reservationId() < 0).forEach(hold -> mark(slot, hold));
+                }
+            }
+            return earliestFree(floor, now, duration, after, vehicleType);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Called with the read lock held, over the floor's slots in id order
+    private Optional<FreeWindowDTO> earliestFree(List<SlotOccupancy> floor, LocalDateTime now, Duration duration,
+                                                 LocalDateTime after, VehicleType vehicleType) {
+        int from = bucketCeil(after.isAfter(now) ? after : now);
+        int limit = Math.min(CAPACITY, bucketFloor(now.plus(HORIZON)));
+        int length = (int) Math.ceilDiv(duration.toSeconds(), BUCKET_SECONDS);
+        SlotOccupancy best = null;
+        int bestStart = Integer.MAX_VALUE;
+        long[] starts = new long[WORDS];
+        for (SlotOccupancy slot : floor) {
+            if (!slot.summary.accepts(vehicleType)) {
+                continue;
+            }
+            // Only a strictly earlier start can beat the best so far, which bounds the scan
+            int start = firstFreeRun(slot.occupied, from, length,
+                best == null ? limit : Math.min(limit, bestStart - 1 + length), starts);
+            if (start >= 0) {
+                best = slot;
+                bestStart = start;
+                if (start == from) {
+                    break;
+                }
+            }
+        }
+        if (best == null) {
+            return Optional.empty();
+        }
+        LocalDateTime startTime = origin.plusSeconds(bestStart * BUCKET_SECONDS);
+        return Optional.of(new FreeWindowDTO(best.summary.slotId(), best.summary.slotNumber(),
+            startTime, startTime.plus(duration)));
+    }
+
+    /**
+     * First bucket in [from, limit - length] that starts {@code length} free buckets, or -1. Works on whole words:
+     * free bits are and-ed with copies of themselves shifted by doubling distances, so after about log2(length)
+     * passes a bit is left set only where a long enough run starts. {@code starts} is scratch space.
+     */
+    static int firstFreeRun(long[] occupied, int from, int length, int limit, long[] starts) {
+        int last = limit - length;
+        if (from > last) {
+            return -1;
+        }
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = ~occupied[i];
+        }
+        for (int covered = 1; covered < length; ) {
+            int shift = Math.min(covered, length - covered);
+            andShiftedDown(starts, shift);
+            covered += shift;
+        }
+        for (int word = from >>> 6; word <= last >>> 6; word++) {
+            long bits = starts[word];
+            if (word == from >>> 6) {
+                bits &= -1L << from;
+            }
+            if (bits != 0) {
+                int start = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return start <= last ? start : -1;
+            }
+        }
+        return -1;
+    }
+
+    // bits[b] &= bits[b + shift] for every bit, treating bits past the end as set
+    private static void andShiftedDown(long[] bits, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int i = 0; i < bits.length; i++) {
+            long low = i + wordShift < bits.length ? bits[i + wordShift] : -1L;
+            long high = i + wordShift + 1 < bits.length ? bits[i + wordShift + 1] : -1L;
+            bits[i] &= bitShift == 0 ? low : (low >>> bitShift) | (high << (64 - bitShift));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        lock.writeLock().lock();
+        try {
+            // Holds exist only in memory, so they are carried over rather than reloaded
+            List<ReservationWindow> holds = new ArrayList<>();
+            slots.values().forEach(slot -> slot.windows.stream().filter(w -> w.reservationId() < 0).forEach(holds::add));
+            floors.clear();
+            slots.clear();
+            origin = now.toLocalDate().atStartOfDay();
+            List<SlotSummary> summaries = new ArrayList<>(slotRepository.findAllSummaries());
+            summaries.sort(Comparator.comparing(SlotSummary::slotId));
+            for (SlotSummary summary : summaries) {
+                addSlot(summary);
+            }
+            LocalDateTime end = origin.plusSeconds(CAPACITY * BUCKET_SECONDS);
+            for (ReservationWindow window : reservationRepository.findWindowsBetween(origin, end)) {
+                addWindow(window);
+            }
+            holds.forEach(this::addWindow);
+        } catch (RuntimeException e) {
+            // Leave the index unbuilt so the next call tries again instead of answering from partial data
+            origin = null;
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onShardOwnershipChanged(ShardOwnershipChangedEvent event) {
+        if (origin != null) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotCreated(SlotCreatedEvent event) {
+        SlotSummary summary = SlotSummary.from(event.slot());
+        lock.writeLock().lock();
+        try {
+            if (origin != null && !slots.containsKey(summary.slotId())) {
+                addSlot(summary);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotsCreated(SlotsCreatedEvent event) {
+        List<SlotSummary> added = event.slots().stream().map(SlotSummary::from).toList();
+        lock.writeLock().lock();
+        try {
+            if (origin != null) {
+                added.stream().filter(summary -> !slots.containsKey(summary.slotId())).forEach(this::addSlot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCreated(ReservationCreatedEvent event) {
+        ReservationWindow window = toWindow(event.reservation());
+        lock.writeLock().lock();
+        try {
+            if (origin != null) {
+                addWindow(window);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCancelled(ReservationCancelledEvent event) {
+        removeWindow(toWindow(event.reservation()));
+    }
+
+    // Holds are drawn like reservations, under negative ids, so a held range is never offered as free
+    @EventListener
+    public void onSlotHeld(SlotHeldEvent event) {
+        ReservationWindow window = event.hold().window();
+        lock.writeLock().lock();
+        try {
+            if (origin != null) {
+                addWindow(window);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onSlotHoldReleased(SlotHoldReleasedEvent event) {
+        removeWindow(event.hold().window());
+    }
+
+    private void ensureCurrent(LocalDateTime now) {
+        LocalDateTime current = origin;
+        if (current == null || !now.isBefore(current.plusDays(1))) {
+            lock.writeLock().lock();
+            try {
+                // Another caller may have rebuilt while this one waited
+                current = origin;
+                if (current == null || !now.isBefore(current.plusDays(1))) {
+                    rebuild();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Called with the write lock held and slots added in id order, except for newly created slots
+    private void addSlot(SlotSummary summary) {
+        SlotOccupancy slot = new SlotOccupancy(summary);
+        List<SlotOccupancy> floor = floors.computeIfAbsent(summary.floorId(), id -> new ArrayList<>());
+        int insertAt = floor.size();
+        while (insertAt > 0 && floor.get(insertAt - 1).summary.slotId() > summary.slotId()) {
+            insertAt--;
+        }
+        floor.add(insertAt, slot);
+        slots.put(summary.slotId(), slot);
+    }
+
+    private void addWindow(ReservationWindow window) {
+        SlotOccupancy slot = slots.get(window.slotId());
+        if (slot == null || slot.windows.stream().anyMatch(w -> w.reservationId().equals(window.reservationId()))) {
+            return;
+        }
+        if (bucketCeil(window.endTime()) > 0 && bucketFloor(window.startTime()) < CAPACITY) {
+            slot.windows.add(window);
+            mark(slot, window);
+        }
+    }
+
+    private void removeWindow(ReservationWindow window) {
+        lock.writeLock().lock();
+        try {
+            SlotOccupancy slot = origin != null ? slots.get(window.slotId()) : null;
+            if (slot != null && slot.windows.removeIf(w -> w.reservationId().equals(window.reservationId()))) {
+                // Neighbouring windows may share an edge bucket, so the slot is redrawn rather than cleared
+                Arrays.fill(slot.occupied, 0L);
+                slot.windows.forEach(w -> mark(slot, w));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void mark(SlotOccupancy slot, ReservationWindow window) {
+        int from = Math.max(0, bucketFloor(window.startTime()));
+        int to = Math.min(CAPACITY, bucketCeil(window.endTime()));
+        for (int bucket = from; bucket < to; ) {
+            int word = bucket >>> 6;
+            int end = Math.min(to, (word + 1) << 6);
+            // Bits [bucket, end) of this word; a full-width mask when the range covers all 64
+            long mask = (end - bucket == 64 ? -1L : ((1L << (end - bucket)) - 1)) << bucket;
+            slot.occupied[word] |= mask;
+            bucket = end;
+        }
+    }
+
+    private int bucketFloor(LocalDateTime time) {
+        return clamp(Math.floorDiv(Duration.between(origin, time).toSeconds(), BUCKET_SECONDS));
+    }
+
+    private int bucketCeil(LocalDateTime time) {
+        return clamp(Math.ceilDiv(Duration.between(origin, time).toSeconds(), BUCKET_SECONDS));
+    }
+
+    // Times far outside the bitmaps only need to stay outside them, not keep their exact offset
+    private static int clamp(long bucket) {
+        return (int) Math.max(-1, Math.min(CAPACITY + 1, bucket));
+    }
+
+    private static ReservationWindow toWindow(Reservation reservation) {
+        return new ReservationWindow(reservation.getId(), reservation.getSlot().getId(),
+            reservation.getStartTime(), reservation.getEndTime());
+    }
+
+    private static final class SlotOccupancy {
+        private final SlotSummary summary;
+        private final long[] occupied = new long[WORDS];
+        // Reservations and holds touching the bitmaps, kept to redraw the slot when one goes
+        private final List<ReservationWindow> windows = new ArrayList<>(4);
+
+        private SlotOccupancy(SlotSummary summary) {
+            this.summary = summary;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.cluster.ClusterMembership;
+import com.example.demo.dto.GateCheckDTO;
+import com.example.demo.dto.PlateWindow;
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.repository.ReservationRepository;
+
+/**
+ * Answers barrier cameras asking whether a plate may enter. Served from the {@link PlateIndex} once it has
+ * loaded; before that, and when slots are sharded across instances and this one only sees its own bookings,
+ * from the database through the index on vehicle number.
+ */
+@Service
+public class GateService {
+
+    private final PlateIndex plateIndex;
+    private final ReservationRepository reservationRepository;
+    private final ClusterMembership cluster;
+    private final Clock clock;
+
+    @Autowired
+    public GateService(PlateIndex plateIndex, ReservationRepository reservationRepository,
+                       @Nullable ClusterMembership cluster) {
+        this(plateIndex, reservationRepository, cluster, Clock.systemDefaultZone());
+    }
+
+    GateService(PlateIndex plateIndex, ReservationRepository reservationRepository, ClusterMembership cluster,
+                Clock clock) {
+        this.plateIndex = plateIndex;
+        this.reservationRepository = reservationRepository;
+        this.cluster = cluster;
+        this.clock = clock;
+    }
+
+    public GateCheckDTO check(String plate) {
+        if (PlateIndex.pack(plate) < 0) {
+            throw new IllegalArgumentException("Vehicle number must match the format XX00XX0000");
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<ReservationWindow> windows = plateIndex.isReady() && cluster == null
+            ? plateIndex.find(plate, now)
+            : reservationRepository.findPlateWindows(plate, now).stream().map(PlateWindow::window).toList();
+        ReservationWindow current = null;
+        List<ReservationWindow> upcoming = new ArrayList<>();
+        for (ReservationWindow window : windows) {
+            if (window.startTime().isAfter(now)) {
+                upcoming.add(window);
+            } else if (current == null) {
+                current = window;
+            }
+        }
+        return new GateCheckDTO(plate, current != null, current, upcoming);
+    }
+}
@@ -1,85 +1,429 @@
 package com.example.demo.service;
 
+import com.example.demo.cluster.ClusterMembership;
+import com.example.demo.config.CacheConfig;
+import com.example.demo.dto.BatchReservationRequestDTO;
+import com.example.demo.dto.BatchReservationResultDTO;
+import com.example.demo.dto.FreeWindowDTO;
+import com.example.demo.dto.QuoteDTO;
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.event.SlotCreatedEvent;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.exception.SlotConflictException;
+import com.example.demo.hold.SlotHold;
+import com.example.demo.hold.SlotHoldRegistry;
+import com.example.demo.journal.JournaledReservationWriter;
+import com.example.demo.metrics.ParkingMetrics;
 import com.example.demo.model.*;
 import com.example.demo.repository.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class ParkingService {
 
+    public static final int MAX_AVAILABILITY_PAGE_SIZE = 1000;
+    // Slots an auto-assigned booking tries, best first, before giving up
+    static final int AUTO_ASSIGN_CANDIDATES = 8;
+
     private final FloorRepository floorRepository;
     private final SlotRepository slotRepository;
     private final ReservationRepository reservationRepository;
+    private final SlotAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SlotLockRegistry slotLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final ParkingMetrics metrics;
+    private final ParkingTopology topology;
+    private final FloorOccupancyIndex occupancyIndex;
+    private final PricingEngine pricingEngine;
+    private final ReservationArchiveRepository archiveRepository;
+    private final SlotHoldRegistry holdRegistry;
+    private final JournaledReservationWriter journalWriter;
+    private final ClusterMembership cluster;
+    private final boolean lockSlotRows;
 
-    public ParkingService(FloorRepository floorRepository, SlotRepository slotRepository, ReservationRepository reservationRepository) {
+    public ParkingService(FloorRepository floorRepository, SlotRepository slotRepository, ReservationRepository reservationRepository,
+                          SlotAvailabilityIndex availabilityIndex, ApplicationEventPublisher eventPublisher,
+                          SlotLockRegistry slotLocks, PlatformTransactionManager transactionManager, ParkingMetrics metrics,
+                          ParkingTopology topology, FloorOccupancyIndex occupancyIndex, PricingEngine pricingEngine,
+                          ReservationArchiveRepository archiveRepository, SlotHoldRegistry holdRegistry, @Nullable JournaledReservationWriter journalWriter,
+                          @Nullable ClusterMembership cluster,
+                          @Value("${parking.reservation.lock-slot-rows:false}") boolean lockSlotRows) {
         this.floorRepository = floorRepository;
         this.slotRepository = slotRepository;
         this.reservationRepository = reservationRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.eventPublisher = eventPublisher;
+        this.slotLocks = slotLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.topology = topology;
+        this.occupancyIndex = occupancyIndex;
+        this.pricingEngine = pricingEngine;
+        this.archiveRepository = archiveRepository;
+        this.holdRegistry = holdRegistry;
+        this.journalWriter = journalWriter;
+        this.cluster = cluster;
+        this.lockSlotRows = lockSlotRows;
     }
 
     public ParkingFloor createFloor(ParkingFloor floor) {
         return floorRepository.save(floor);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.FLOORS, key = "#floorId")
     public Slot createSlot(Long floorId, Slot slot) {
-        ParkingFloor floor = floorRepository.findById(floorId)
-            .orElseThrow(() -> new ResourceNotFoundException("Floor not found with id: " + floorId));
+        ParkingFloor floor = topology.getFloor(floorId);
         slot.setParkingFloor(floor);
-        return slotRepository.save(slot);
+        Slot savedSlot = slotRepository.save(slot);
+        eventPublisher.publishEvent(new SlotCreatedEvent(savedSlot));
+        return savedSlot;
     }
-    @Transactional
+    /**
+     * Books a slot. The slot's lock is held across the whole transaction, including commit, so the
+     * overlap check and insert of concurrent bookings for the same slot can never interleave.
+     */
     public Reservation reserveSlot(Reservation reservation) {
-        if (!reservation.getStartTime().isBefore(reservation.getEndTime())) {
+        return metrics.reservationTimer().record(() -> {
+            validateTimeRange(reservation);
+            // The only topology read on this path, and it is normally served from the slot cache
+            Slot slot = topology.getSlot(reservation.getSlot().getId());
+            checkVehicleType(slot, reservation);
+            reservation.setSlot(slot);
+            reservation.setCost(calculateCost(reservation));
+            return withSlotLock(slot.getId(), () -> book(reservation));
+        });
+    }
+
+    /**
+     * Books whichever slot fits the range best, trying the next candidate whenever a concurrent booking gets to
+     * one first. The reservation's slot is ignored and replaced by the one booked.
+     */
+    public Reservation reserveAuto(Reservation reservation, Long floorId) {
+        validateTimeRange(reservation);
+        for (Long slotId : autoAssignCandidates(reservation, floorId)) {
+            Slot candidate = new Slot();
+            candidate.setId(slotId);
+            reservation.setSlot(candidate);
+            try {
+                return reserveSlot(reservation);
+            } catch (SlotConflictException e) {
+                // Taken or busy since the candidates were picked
+            }
+        }
+        throw new SlotConflictException("no_free_slot", "No slot is free for the selected time range.");
+    }
+
+    private List<Long> autoAssignCandidates(Reservation reservation, Long floorId) {
+        LocalDateTime start = reservation.getStartTime();
+        LocalDateTime end = reservation.getEndTime();
+        VehicleType type = reservation.getVehicleType();
+        if (availabilityIndex.isReady()) {
+            // With sharding the index is only authoritative for this instance's own slots
+            List<Long> candidates = availabilityIndex.findBestFits(start, end, floorId, type,
+                slotId -> cluster == null || cluster.owns(slotId), AUTO_ASSIGN_CANDIDATES, ThreadLocalRandom.current());
+            if (!candidates.isEmpty() || cluster == null) {
+                return candidates;
+            }
+        }
+        // No gap information here, so at least spread callers over the first free slots rather than all take one
+        List<Long> candidates = new ArrayList<>(slotRepository.findAvailableSlots(start, end, floorId, type, 0,
+            Limit.of(AUTO_ASSIGN_CANDIDATES)).stream().map(SlotAvailabilityDTO::slotId).toList());
+        Collections.shuffle(candidates, ThreadLocalRandom.current());
+        return candidates;
+    }
+
+    // Called with the slot lock held
+    private Reservation book(Reservation reservation) {
+        if (writesBehind()) {
+            // Write-behind mode: decided in memory and acknowledged once journaled, inserted later
+            return journalWriter.reserve(reservation);
+        }
+        return transactionTemplate.execute(status -> insertReservation(reservation));
+    }
+
+    private boolean writesBehind() {
+        return journalWriter != null && availabilityIndex.isReady();
+    }
+
+    private Reservation insertReservation(Reservation reservation) {
+        checkFree(reservation.getSlot().getId(), reservation.getStartTime(), reservation.getEndTime());
+        Reservation savedReservation = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(new ReservationCreatedEvent(savedReservation));
+        return savedReservation;
+    }
+
+    // Called with the slot lock held. In write-behind mode the index is authoritative and already covers holds.
+    private void checkFree(Long slotId, LocalDateTime startTime, LocalDateTime endTime) {
+        boolean booked = writesBehind()
+            ? !availabilityIndex.isFree(slotId, startTime, endTime)
+            : !reservationRepository.findOverlappingReservations(slotId, startTime, endTime).isEmpty();
+        if (booked) {
+            throw new SlotConflictException("overlap", "Slot is already booked for the selected time range.");
+        }
+        if (holdRegistry.conflicts(slotId, startTime, endTime)) {
+            throw new SlotConflictException("hold", "Slot is held for the selected time range.");
+        }
+    }
+
+    /**
+     * Sets a slot and time range aside, priced now, until the hold is confirmed, released or expires. Nothing
+     * is written until it is confirmed.
+     */
+    public SlotHold placeHold(Reservation reservation) {
+        validateTimeRange(reservation);
+        Slot slot = topology.getSlot(reservation.getSlot().getId());
+        checkVehicleType(slot, reservation);
+        reservation.setSlot(slot);
+        reservation.setCost(calculateCost(reservation));
+        return withSlotLock(slot.getId(), () -> {
+            checkFree(slot.getId(), reservation.getStartTime(), reservation.getEndTime());
+            return holdRegistry.place(reservation);
+        });
+    }
+
+    // Turns a live hold into a reservation at the price it was held at
+    public Reservation confirmHold(String token) {
+        SlotHold held = holdRegistry.find(token).orElseThrow(() -> holdNotFound(token));
+        return metrics.reservationTimer().record(() -> withSlotLock(held.slotId(), () -> {
+            // Taken under the lock, so it cannot expire between here and the insert, nor be confirmed twice
+            SlotHold hold = holdRegistry.take(token).orElseThrow(() -> holdNotFound(token));
+            try {
+                return book(hold.toReservation(topology.getSlot(hold.slotId())));
+            } catch (RuntimeException e) {
+                holdRegistry.restore(hold);
+                throw e;
+            }
+        }));
+    }
+
+    public void releaseHold(String token) {
+        if (!holdRegistry.release(token)) {
+            throw holdNotFound(token);
+        }
+    }
+
+    private static ResourceNotFoundException holdNotFound(String token) {
+        return new ResourceNotFoundException("Hold not found or expired: " + token);
+    }
+
+    /**
+     * Books many slots in one transaction. Overlaps with stored reservations are found with a single query
+     * and entries are also checked against each other; accepted entries are inserted as one JDBC batch.
+     * In {@link BatchReservationRequestDTO.Mode#ALL_OR_NOTHING} mode the first rejected entry fails the batch.
+     */
+    public BatchReservationResultDTO reserveBatch(List<Reservation> reservations, BatchReservationRequestDTO.Mode mode) {
+        return metrics.batchReservationTimer().record(() -> doReserveBatch(reservations, mode));
+    }
+
+    private BatchReservationResultDTO doReserveBatch(List<Reservation> reservations, BatchReservationRequestDTO.Mode mode) {
+        boolean allOrNothing = mode == BatchReservationRequestDTO.Mode.ALL_OR_NOTHING;
+        List<BatchReservationResultDTO.Rejection> rejected = new ArrayList<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < reservations.size(); i++) {
+            try {
+                validateTimeRange(reservations.get(i));
+                candidates.add(i);
+            } catch (IllegalArgumentException e) {
+                if (allOrNothing) {
+                    throw e;
+                }
+                rejected.add(new BatchReservationResultDTO.Rejection(i, reservations.get(i).getSlot().getId(), e.getMessage()));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return new BatchReservationResultDTO(List.of(), rejected);
+        }
+        Set<Long> slotIds = candidates.stream()
+            .map(i -> reservations.get(i).getSlot().getId())
+            .collect(Collectors.toSet());
+        return slotLocks.withSlotLocks(slotIds, () -> {
+            // Journaled bookings are appended under these locks, so once drained the database is complete for these slots
+            catchUpWithJournal();
+            return transactionTemplate.execute(status -> {
+                if (lockSlotRows) {
+                    slotRepository.lockAllById(slotIds);
+                }
+                return insertBatch(reservations, candidates, slotIds, allOrNothing, rejected);
+            });
+        });
+    }
+
+    /**
+     * Runs a single-slot booking step under the slot's lock. The reactive stack books by locking the slot row
+     * instead, so with {@code parking.reservation.lock-slot-rows} the step also runs in a transaction that
+     * holds that row lock until it commits; the booking transaction inside joins it.
+     */
+    private <T> T withSlotLock(Long slotId, Supplier<T> action) {
+        if (!lockSlotRows) {
+            return slotLocks.withSlotLock(slotId, action);
+        }
+        return slotLocks.withSlotLock(slotId, () -> transactionTemplate.execute(status -> {
+            slotRepository.lockAllById(List.of(slotId));
+            return action.get();
+        }));
+    }
+
+    private BatchReservationResultDTO insertBatch(List<Reservation> reservations, List<Integer> candidates, Set<Long> slotIds,
+                                                  boolean allOrNothing, List<BatchReservationResultDTO.Rejection> rejected) {
+        Map<Long, Slot> slots = slotRepository.findAllById(slotIds).stream()
+            .collect(Collectors.toMap(Slot::getId, Function.identity()));
+        LocalDateTime from = candidates.stream().map(i -> reservations.get(i).getStartTime()).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = candidates.stream().map(i -> reservations.get(i).getEndTime()).max(Comparator.naturalOrder()).orElseThrow();
+        Map<Long, List<ReservationWindow>> taken = reservationRepository.findOverlappingWindows(slotIds, from, to).stream()
+            .collect(Collectors.groupingBy(ReservationWindow::slotId, Collectors.toCollection(ArrayList::new)));
+
+        List<Reservation> accepted = new ArrayList<>();
+        for (int index : candidates) {
+            Reservation reservation = reservations.get(index);
+            Long slotId = reservation.getSlot().getId();
+            try {
+                Slot slot = slots.get(slotId);
+                if (slot == null) {
+                    throw new ResourceNotFoundException("Slot not found with id: " + slotId);
+                }
+                checkVehicleType(slot, reservation);
+                List<ReservationWindow> slotWindows = taken.computeIfAbsent(slotId, id -> new ArrayList<>());
+                if (slotWindows.stream().anyMatch(w -> w.overlaps(reservation.getStartTime(), reservation.getEndTime()))) {
+                    throw new SlotConflictException("overlap", "Slot " + slotId + " is already booked for the selected time range.");
+                }
+                if (holdRegistry.conflicts(slotId, reservation.getStartTime(), reservation.getEndTime())) {
+                    throw new SlotConflictException("hold", "Slot " + slotId + " is held for the selected time range.");
+                }
+                slotWindows.add(new ReservationWindow(null, slotId, reservation.getStartTime(), reservation.getEndTime()));
+                reservation.setSlot(slot);
+                reservation.setCost(calculateCost(reservation));
+                accepted.add(reservation);
+            } catch (IllegalArgumentException | SlotConflictException | ResourceNotFoundException e) {
+                if (allOrNothing) {
+                    throw e;
+                }
+                rejected.add(new BatchReservationResultDTO.Rejection(index, slotId, e.getMessage()));
+            }
+        }
+        List<Reservation> saved = reservationRepository.saveAll(accepted);
+        saved.forEach(reservation -> eventPublisher.publishEvent(new ReservationCreatedEvent(reservation)));
+        rejected.sort(Comparator.comparingInt(BatchReservationResultDTO.Rejection::index));
+        return new BatchReservationResultDTO(saved.stream().map(ReservationDTO::from).toList(), rejected);
+    }
+
+    private void validateTimeRange(Reservation reservation) {
+        validateTimeRange(reservation.getStartTime(), reservation.getEndTime());
+    }
+
+    private void validateTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
+        if (!startTime.isBefore(endTime)) {
             throw new IllegalArgumentException("Start time must be before end time.");
         }
-        if (Duration.between(reservation.getStartTime(), reservation.getEndTime()).toHours() >= 24) {
+        if (Duration.between(startTime, endTime).compareTo(Reservation.MAX_DURATION) >= 0) {
             throw new IllegalArgumentException("Reservation duration cannot exceed 24 hours.");
         }
-        slotRepository.findById(reservation.getSlot().getId())
-            .orElseThrow(() -> new ResourceNotFoundException("Slot not found with id: " + reservation.getSlot().getId()));
-        List<Reservation> overlaps = reservationRepository.findOverlappingReservations(
-            reservation.getSlot().getId(),
-            reservation.getStartTime(),
-            reservation.getEndTime()
-        );
-        if (!overlaps.isEmpty()) {
-            throw new IllegalStateException("Slot is already booked for the selected time range.");
-        }
-        double durationInMinutes = Duration.between(reservation.getStartTime(), reservation.getEndTime()).toMinutes();
-        long roundedHours = (long) Math.ceil(durationInMinutes / 60.0);
-        double cost = roundedHours * reservation.getVehicleType().getHourlyRate();
-        reservation.setCost(cost);
-        return reservationRepository.save(reservation);
-    }
-
-    public Reservation getReservationDetails(Long reservationId) {
-        return reservationRepository.findById(reservationId)
+    }
+
+    private void checkVehicleType(Slot slot, Reservation reservation) {
+        if (!slot.accepts(reservation.getVehicleType())) {
+            throw new IllegalArgumentException("Slot " + slot.getId() + " is reserved for " + slot.getVehicleType() + " vehicles.");
+        }
+    }
+
+    // The reservation's slot must already be resolved, so its floor is known
+    private double calculateCost(Reservation reservation) {
+        return pricingEngine.price(reservation.getSlot().getParkingFloor().getId(), reservation.getVehicleType(),
+            reservation.getStartTime(), reservation.getEndTime());
+    }
+
+    // What a booking would cost right now; priced entirely in memory, so the floor is not checked to exist
+    public QuoteDTO quote(Long floorId, VehicleType vehicleType, LocalDateTime startTime, LocalDateTime endTime) {
+        validateTimeRange(startTime, endTime);
+        return new QuoteDTO(floorId, vehicleType, startTime, endTime,
+            pricingEngine.price(floorId, vehicleType, startTime, endTime));
+    }
+
+    @Cacheable(cacheNames = CacheConfig.RESERVATIONS, condition = "#root.target.cachesReservations()")
+    public ReservationDTO getReservationDetails(Long reservationId) {
+        catchUpWithJournal();
+        return reservationRepository.findDetailsById(reservationId)
+            .or(() -> archiveRepository.findDetailsById(reservationId))
             .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId));
     }
 
+    // With sharding, a cancellation through another instance could not evict this instance's copy
+    public boolean cachesReservations() {
+        return cluster == null;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.RESERVATIONS, key = "#reservationId")
     public void cancelReservation(Long reservationId) {
-        if (!reservationRepository.existsById(reservationId)) {
-            throw new ResourceNotFoundException("Reservation not found with id: " + reservationId);
-        }
-        reservationRepository.deleteById(reservationId);
-    }
-
-    public List<Slot> getAvailableSlots(LocalDateTime startTime, LocalDateTime endTime) {
-        List<Slot> allSlots = slotRepository.findAll();
-        List<Reservation> allOverlappingReservations = allSlots.parallelStream()
-            .flatMap(slot -> reservationRepository.findOverlappingReservations(slot.getId(), startTime, endTime).stream())
-            .collect(Collectors.toList());
-        List<Long> occupiedSlotIds = allOverlappingReservations.stream()
-            .map(reservation -> reservation.getSlot().getId())
-            .collect(Collectors.toList());
-        return allSlots.stream()
-            .filter(slot -> !occupiedSlotIds.contains(slot.getId()))
-            .collect(Collectors.toList());
+        catchUpWithJournal();
+        Reservation reservation = reservationRepository.findById(reservationId)
+            .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId));
+        reservationRepository.delete(reservation);
+        eventPublisher.publishEvent(new ReservationCancelledEvent(reservation));
+    }
+
+    // With write-behind on, an acknowledged booking may not have reached the database yet
+    private void catchUpWithJournal() {
+        if (journalWriter != null) {
+            journalWriter.drainPending();
+        }
+    }
+
+    public FreeWindowDTO findNextFreeWindow(Long floorId, Duration duration, LocalDateTime after, VehicleType vehicleType) {
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(FloorOccupancyIndex.HORIZON) > 0) {
+            throw new IllegalArgumentException("Duration must be positive and at most " + FloorOccupancyIndex.HORIZON.toDays() + " days.");
+        }
+        topology.getFloor(floorId);
+        // With sharding, only the database sees bookings made through other instances
+        Optional<FreeWindowDTO> window = cluster == null
+            ? occupancyIndex.findNextFree(floorId, duration, after, vehicleType)
+            : occupancyIndex.findNextFreeInDatabase(floorId, duration, after, vehicleType);
+        return window
+            .orElseThrow(() -> new ResourceNotFoundException("No free window of " + duration + " on floor " + floorId
+                + " within the next " + FloorOccupancyIndex.HORIZON.toDays() + " days."));
+    }
+
+    public List<SlotAvailabilityDTO> getAvailableSlots(LocalDateTime startTime, LocalDateTime endTime, Long floorId,
+                                                       VehicleType vehicleType, long afterSlotId, int limit) {
+        if (!startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("Start time must be before end time.");
+        }
+        if (limit < 1 || limit > MAX_AVAILABILITY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_AVAILABILITY_PAGE_SIZE + ".");
+        }
+        return metrics.availabilityTimer().record(() -> {
+            // The index is loaded once the application is ready; until then fall back to the database. With
+            // sharding, only the database sees bookings made through other instances.
+            if (availabilityIndex.isReady() && cluster == null) {
+                return availabilityIndex.findAvailable(startTime, endTime, floorId, vehicleType, afterSlotId, limit);
+            }
+            return slotRepository.findAvailableSlots(startTime, endTime, floorId, vehicleType, afterSlotId, Limit.of(limit));
+        });
     }
 }
@@ -0,0 +1,39 @@
+package com.example.demo.service;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Slot;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.SlotRepository;
+
+/**
+ * Cached reads of floors and slots. Callers get detached entities, which is all the booking paths need
+ * to check a slot and reference it from a new reservation.
+ */
+@Component
+public class ParkingTopology {
+
+    private final FloorRepository floorRepository;
+    private final SlotRepository slotRepository;
+
+    public ParkingTopology(FloorRepository floorRepository, SlotRepository slotRepository) {
+        this.floorRepository = floorRepository;
+        this.slotRepository = slotRepository;
+    }
+
+    @Cacheable(CacheConfig.FLOORS)
+    public ParkingFloor getFloor(Long floorId) {
+        return floorRepository.findById(floorId)
+            .orElseThrow(() -> new ResourceNotFoundException("Floor not found with id: " + floorId));
+    }
+
+    @Cacheable(CacheConfig.SLOTS)
+    public Slot getSlot(Long slotId) {
+        return slotRepository.findWithParkingFloorById(slotId)
+            .orElseThrow(() -> new ResourceNotFoundException("Slot not found with id: " + slotId));
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.demo.service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.dto.PlateWindow;
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.model.Reservation;
+import com.example.demo.repository.ReservationRepository;
+
+/**
+ * Current and upcoming reservations by vehicle plate, for gate checks. Plates have a fixed format, two
+ * letters, two digits, two letters, four digits, so each packs losslessly into 41 bits of a {@code long}. The
+ * packed plates are the keys of an open-addressing hash table with linear probing, with no boxing and no
+ * per-entry objects besides each plate's small, immutable array of reservations in start order.
+ * <p>
+ * Reservations that have ended are pruned on a schedule; lookups skip any not yet pruned.
+ */
+@Component
+public class PlateIndex {
+
+    private static final ReservationWindow[] NONE = new ReservationWindow[0];
+    private static final Comparator<ReservationWindow> BY_START = Comparator
+        .comparing(ReservationWindow::startTime)
+        .thenComparing(ReservationWindow::reservationId);
+
+    private final ReservationRepository reservationRepository;
+    private final Clock clock;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // keys[i] is a packed plate plus one, so that zero can mark an empty bucket
+    private long[] keys = new long[1024];
+    private ReservationWindow[][] values = new ReservationWindow[1024][];
+    private int shift = 64 - 10;
+    private int size;
+    private volatile boolean ready;
+
+    @Autowired
+    public PlateIndex(ReservationRepository reservationRepository) {
+        this(reservationRepository, Clock.systemDefaultZone());
+    }
+
+    PlateIndex(ReservationRepository reservationRepository, Clock clock) {
+        this.reservationRepository = reservationRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * The plate packed into a {@code long}: each letter in 5 bits, each pair of digits in 7 and the last four
+     * digits in 14. Returns -1 for anything not in the plate format.
+     */
+    public static long pack(String plate) {
+        if (plate == null || plate.length() != 10) {
+            return -1;
+        }
+        for (int i = 0; i < 10; i++) {
+            char c = plate.charAt(i);
+            boolean letter = i < 2 || i == 4 || i == 5;
+            if (letter ? c < 'A' || c > 'Z' : c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        return letter(plate, 0) << 36 | letter(plate, 1) << 31 | digits(plate, 2, 4) << 24
+            | letter(plate, 4) << 19 | letter(plate, 5) << 14 | digits(plate, 6, 10);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<PlateWindow> windows = reservationRepository.findAllPlateWindowsEndingAfter(LocalDateTime.now(clock));
+        lock.writeLock().lock();
+        try {
+            int capacity = Integer.highestOneBit(Math.max(512, windows.size()) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new ReservationWindow[capacity][];
+            shift = 64 - Integer.numberOfTrailingZeros(capacity);
+            size = 0;
+            for (PlateWindow window : windows) {
+                add(pack(window.vehicleNumber()), window.window());
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // The plate's reservations that have not ended by {@code now}, in start order
+    public List<ReservationWindow> find(String plate, LocalDateTime now) {
+        long packed = pack(plate);
+        if (packed < 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int slot = find(packed + 1);
+            if (slot < 0) {
+                return List.of();
+            }
+            List<ReservationWindow> live = new ArrayList<>(values[slot].length);
+            for (ReservationWindow window : values[slot]) {
+                if (window.endTime().isAfter(now)) {
+                    live.add(window);
+                }
+            }
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCreated(ReservationCreatedEvent event) {
+        Reservation reservation = event.reservation();
+        long packed = pack(reservation.getVehicleNumber());
+        if (packed < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            add(packed, toWindow(reservation));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCancelled(ReservationCancelledEvent event) {
+        Reservation reservation = event.reservation();
+        long packed = pack(reservation.getVehicleNumber());
+        if (packed < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = find(packed + 1);
+            if (slot >= 0) {
+                replace(slot, Arrays.stream(values[slot]).filter(w -> !w.reservationId().equals(reservation.getId()))
+                    .toArray(ReservationWindow[]::new));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drops reservations that have ended, and plates left with none
+    @Scheduled(fixedDelayString = "${parking.gate.prune-interval:10m}")
+    public void prune() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                // Deleting shifts a later entry back into this bucket, so look at it again
+                while (keys[i] != 0) {
+                    ReservationWindow[] live = Arrays.stream(values[i]).filter(w -> w.endTime().isAfter(now))
+                        .toArray(ReservationWindow[]::new);
+                    if (live.length > 0) {
+                        values[i] = live.length < values[i].length ? live : values[i];
+                        break;
+                    }
+                    delete(i);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void add(long packed, ReservationWindow window) {
+        long key = packed + 1;
+        int slot = find(key);
+        if (slot >= 0) {
+            ReservationWindow[] current = values[slot];
+            ReservationWindow[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = window;
+            Arrays.sort(updated, BY_START);
+            values[slot] = updated;
+            return;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int i = bucketOf(key);
+        while (keys[i] != 0) {
+            i = (i + 1) & (keys.length - 1);
+        }
+        keys[i] = key;
+        values[i] = new ReservationWindow[] {window};
+        size++;
+    }
+
+    private void replace(int slot, ReservationWindow[] windows) {
+        if (windows.length == 0) {
+            delete(slot);
+        } else {
+            values[slot] = windows;
+        }
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int i = bucketOf(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Backward-shift deletion: later entries of the probe run move up, so no tombstones are ever needed
+    private void delete(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int i = (slot + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            int home = bucketOf(keys[i]);
+            // Move the entry into the hole unless its home lies cyclically after the hole and at or before i
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size--;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        ReservationWindow[][] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new ReservationWindow[oldKeys.length * 2][];
+        shift--;
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = bucketOf(oldKeys[j]);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    // Fibonacci hashing, as in SlotLockRegistry: neighbouring plates land far apart
+    private int bucketOf(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private static long letter(String plate, int index) {
+        return plate.charAt(index) - 'A';
+    }
+
+    private static long digits(String plate, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (plate.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static ReservationWindow toWindow(Reservation reservation) {
+        return new ReservationWindow(reservation.getId(), reservation.getSlot().getId(),
+            reservation.getStartTime(), reservation.getEndTime());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.VehicleType;
+
+/**
+ * Prices bookings from the current {@link TariffTable}. Quoting never touches the database; a new tariff is
+ * compiled off to the side and swapped in whole, so a quote sees either the old tariff or the new one.
+ */
+@Component
+public class PricingEngine {
+
+    private volatile TariffTable tariffs = TariffTable.defaults();
+
+    public double price(Long floorId, VehicleType vehicleType, LocalDateTime start, LocalDateTime end) {
+        return tariffs.price(floorId, vehicleType, start, end);
+    }
+
+    public void install(TariffTable tariffs) {
+        this.tariffs = tariffs;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.event.ReservationsArchivedEvent;
+import com.example.demo.repository.ReservationArchiveRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Moves reservations that ended more than the retention period ago into the archive, so the live table, and
+ * the indexes built from it at startup, hold only recent and upcoming bookings however much history piles up.
+ * Each batch commits on its own, keeping locks short and letting a stopped run pick up where it left off.
+ */
+@Component
+@ConditionalOnProperty(name = "parking.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReservationArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationArchiver.class);
+
+    private final ReservationArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter archived;
+    private final Duration retention;
+    private final int batchSize;
+    private final Clock clock;
+
+    @Autowired
+    public ReservationArchiver(ReservationArchiveRepository archiveRepository, PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                               @Value("${parking.archive.retention:30d}") Duration retention,
+                               @Value("${parking.archive.batch-size:1000}") int batchSize) {
+        this(archiveRepository, transactionManager, eventPublisher, meterRegistry, retention, batchSize,
+            Clock.systemDefaultZone());
+    }
+
+    ReservationArchiver(ReservationArchiveRepository archiveRepository, PlatformTransactionManager transactionManager,
+                        ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry, Duration retention,
+                        int batchSize, Clock clock) {
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.archived = Counter.builder("parking.archive.archived")
+            .description("Reservations moved from the live table into the archive")
+            .register(meterRegistry);
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Archives every reservation that ended before now minus the retention period.
+     *
+     * @return the number of reservations archived
+     */
+    @Scheduled(fixedDelayString = "${parking.archive.interval:1h}", initialDelayString = "${parking.archive.initial-delay:5m}")
+    public synchronized long archiveExpired() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime cutoff = now.minus(retention);
+        long total = 0;
+        int moved;
+        do {
+            List<ReservationWindow> windows = transactionTemplate.execute(status -> {
+                List<ReservationWindow> batch = archiveRepository.archiveEndedBefore(cutoff, batchSize, now);
+                if (!batch.isEmpty()) {
+                    // Delivered once the batch commits
+                    eventPublisher.publishEvent(new ReservationsArchivedEvent(batch));
+                }
+                return batch;
+            });
+            moved = windows.size();
+            total += moved;
+            archived.increment(moved);
+        } while (moved == batchSize);
+        if (total > 0) {
+            log.info("Archived {} reservations that ended before {}", total, cutoff);
+        }
+        return total;
+    }
+}
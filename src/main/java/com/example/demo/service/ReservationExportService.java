@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.repository.ReservationArchiveRepository;
+import com.example.demo.repository.ReservationRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+/**
+ * Writes reservations as newline-delimited JSON straight from a database cursor, so memory use does not
+ * grow with the number of rows exported. Archived reservations are merged in, so an export covers a range
+ * whether or not its bookings have been archived yet.
+ */
+@Service
+public class ReservationExportService {
+
+    // Rows written between flushes, so the client sees progress without a flush per row
+    private static final int FLUSH_EVERY = 1_000;
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationArchiveRepository archiveRepository;
+    private final ObjectMapper objectMapper;
+
+    public ReservationExportService(ReservationRepository reservationRepository,
+                                    ReservationArchiveRepository archiveRepository, ObjectMapper objectMapper) {
+        this.reservationRepository = reservationRepository;
+        this.archiveRepository = archiveRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every reservation starting in [{@code from}, {@code to}) with an id above {@code afterId}, in id order.
+     * The cursor needs an open transaction for its whole life, which is why the write happens in here.
+     *
+     * @return the number of reservations written
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime from, LocalDateTime to, long afterId, OutputStream out) {
+        long written = 0;
+        try (Stream<ReservationDTO> live = reservationRepository.streamForExport(from, to, afterId);
+             Stream<ReservationDTO> archived = archiveRepository.streamForExport(from, to, afterId);
+             SequenceWriter writer = objectMapper.writer()
+                 .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                 .withRootValueSeparator("\n")
+                 .writeValues(out)) {
+            for (Iterator<ReservationDTO> it = mergeById(live.iterator(), archived.iterator()); it.hasNext(); ) {
+                writer.write(it.next());
+                if (++written % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            if (written > 0) {
+                // NDJSON wants every record terminated, including the last one
+                writer.flush();
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return written;
+    }
+
+    // Both cursors are in id order. A row archived between the two queries starting can show up in both; it is
+    // written once.
+    private static Iterator<ReservationDTO> mergeById(Iterator<ReservationDTO> left, Iterator<ReservationDTO> right) {
+        return new Iterator<>() {
+            private ReservationDTO nextLeft = advance(left);
+            private ReservationDTO nextRight = advance(right);
+
+            @Override
+            public boolean hasNext() {
+                return nextLeft != null || nextRight != null;
+            }
+
+            @Override
+            public ReservationDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ReservationDTO result;
+                if (nextRight == null || (nextLeft != null && nextLeft.id() <= nextRight.id())) {
+                    result = nextLeft;
+                    if (nextRight != null && nextRight.id().equals(nextLeft.id())) {
+                        nextRight = advance(right);
+                    }
+                    nextLeft = advance(left);
+                } else {
+                    result = nextRight;
+                    nextRight = advance(right);
+                }
+                return result;
+            }
+        };
+    }
+
+    private static ReservationDTO advance(Iterator<ReservationDTO> it) {
+        return it.hasNext() ? it.next() : null;
+    }
+}
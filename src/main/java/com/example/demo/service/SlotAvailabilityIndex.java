@@ -0,0 +1,371 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.random.RandomGenerator;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.dto.SlotStatusDTO;
+import com.example.demo.dto.SlotSummary;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.event.ReservationsArchivedEvent;
+import com.example.demo.event.ShardOwnershipChangedEvent;
+import com.example.demo.event.SlotCreatedEvent;
+import com.example.demo.event.SlotHeldEvent;
+import com.example.demo.event.SlotHoldReleasedEvent;
+import com.example.demo.event.SlotsCreatedEvent;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+
+/**
+ * In-memory view of every slot and its reservations, so availability can be answered without a database round trip.
+ * Slots are kept in ascending id order and a slot's position is its bit in the free-slot {@link BitSet}.
+ */
+@Component
+public class SlotAvailabilityIndex {
+
+    private final SlotRepository slotRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] slotIds = new long[0];
+    private SlotSummary[] slots = new SlotSummary[0];
+    private SlotTimeline[] timelines = new SlotTimeline[0];
+    private volatile boolean ready;
+
+    public SlotAvailabilityIndex(SlotRepository slotRepository, ReservationRepository reservationRepository) {
+        this.slotRepository = slotRepository;
+        this.reservationRepository = reservationRepository;
+    }
+
+    // Ahead of other ready listeners, which may read availability
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            // Holds exist only in memory, so they are carried over rather than reloaded
+            List<ReservationWindow> holds = new ArrayList<>();
+            for (SlotTimeline timeline : timelines) {
+                holds.addAll(timeline.holds());
+            }
+            List<SlotSummary> allSlots = new ArrayList<>(slotRepository.findAllSummaries());
+            allSlots.sort(Comparator.comparing(SlotSummary::slotId));
+            int size = allSlots.size();
+            slotIds = new long[size];
+            slots = new SlotSummary[size];
+            timelines = new SlotTimeline[size];
+            for (int i = 0; i < size; i++) {
+                slotIds[i] = allSlots.get(i).slotId();
+                slots[i] = allSlots.get(i);
+                timelines[i] = new SlotTimeline();
+            }
+            for (ReservationWindow window : reservationRepository.findAllWindows()) {
+                int position = positionOf(window.slotId());
+                if (position >= 0) {
+                    timelines[position].add(window);
+                }
+            }
+            for (ReservationWindow hold : holds) {
+                int position = positionOf(hold.slotId());
+                if (position >= 0) {
+                    timelines[position].add(hold);
+                }
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Free slots matching the optional floor and vehicle type filters, in id order, starting after {@code afterSlotId}.
+     * Stops scanning as soon as {@code limit} slots have been found.
+     */
+    public List<SlotAvailabilityDTO> findAvailable(LocalDateTime startTime, LocalDateTime endTime, Long floorId,
+                                    VehicleType vehicleType, long afterSlotId, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = positionOf(afterSlotId);
+            from = from >= 0 ? from + 1 : -from - 1;
+            BitSet free = new BitSet(slots.length);
+            int found = 0;
+            for (int i = from; i < slots.length && found < limit; i++) {
+                SlotSummary slot = slots[i];
+                if (floorId != null && !floorId.equals(slot.floorId())) {
+                    continue;
+                }
+                if (!slot.accepts(vehicleType) || timelines[i].overlaps(startTime, endTime)) {
+                    continue;
+                }
+                free.set(i);
+                found++;
+            }
+            List<SlotAvailabilityDTO> available = new ArrayList<>(found);
+            for (int i = free.nextSetBit(from); i >= 0; i = free.nextSetBit(i + 1)) {
+                available.add(slots[i].toAvailability());
+            }
+            return available;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} free slots for the range, best fit first: the slot whose bookings would leave the least
+     * idle time either side of it, so free time stays in long stretches that later bookings can use. Slots made
+     * for the vehicle type come before ones taking any vehicle. Equal fits are ordered at random, so concurrent
+     * callers asking for the same range spread over them instead of all trying the same slot.
+     */
+    public List<Long> findBestFits(LocalDateTime startTime, LocalDateTime endTime, Long floorId, VehicleType vehicleType,
+                                   LongPredicate eligible, int limit, RandomGenerator random) {
+        // Gaps longer than a day are as good as open, and anything past it only adds noise to the ranking
+        long capMinutes = Reservation.MAX_DURATION.toMinutes();
+        // Largest score on top, so the worst candidate kept is the one evicted
+        PriorityQueue<long[]> best = new PriorityQueue<>(limit + 1,
+            Comparator.<long[]>comparingLong(c -> c[0]).thenComparingLong(c -> c[1]).reversed());
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < slots.length; i++) {
+                SlotSummary slot = slots[i];
+                if (floorId != null && !floorId.equals(slot.floorId())) {
+                    continue;
+                }
+                if (!slot.accepts(vehicleType) || !eligible.test(slot.slotId()) || timelines[i].overlaps(startTime, endTime)) {
+                    continue;
+                }
+                long score = timelines[i].gapMinutes(startTime, endTime, capMinutes);
+                if (vehicleType != null && slot.vehicleType() == null) {
+                    score += 2 * capMinutes + 1;
+                }
+                best.add(new long[] {score, random.nextLong(), slot.slotId()});
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Long[] ids = new Long[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = best.poll()[2];
+        }
+        return List.of(ids);
+    }
+
+    // Every slot in id order with whether a reservation covers the given instant
+    public List<SlotStatusDTO> statusAt(LocalDateTime time) {
+        LocalDateTime justAfter = time.plusNanos(1);
+        lock.readLock().lock();
+        try {
+            List<SlotStatusDTO> statuses = new ArrayList<>(slots.length);
+            for (int i = 0; i < slots.length; i++) {
+                SlotSummary slot = slots[i];
+                statuses.add(new SlotStatusDTO(slot.slotId(), slot.slotNumber(), slot.floorId(), slot.floorNumber(),
+                    timelines[i].overlaps(time, justAfter)));
+            }
+            return statuses;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Slots the index does not know yet are reported as taken, which sends the caller away rather than double booking
+    public boolean isFree(Long slotId, LocalDateTime startTime, LocalDateTime endTime) {
+        lock.readLock().lock();
+        try {
+            int position = positionOf(slotId);
+            return position >= 0 && !timelines[position].overlaps(startTime, endTime);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotCreated(SlotCreatedEvent event) {
+        SlotSummary slot = SlotSummary.from(event.slot());
+        lock.writeLock().lock();
+        try {
+            int position = positionOf(slot.slotId());
+            if (position >= 0) {
+                slots[position] = slot;
+                return;
+            }
+            int insertAt = -position - 1;
+            slotIds = insert(slotIds, insertAt, slot.slotId());
+            slots = insert(slots, insertAt, slot);
+            timelines = insert(timelines, insertAt, new SlotTimeline());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Merges the new slots in one pass rather than copying the arrays once per slot
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotsCreated(SlotsCreatedEvent event) {
+        List<SlotSummary> added = event.slots().stream()
+            .map(SlotSummary::from)
+            .sorted(Comparator.comparing(SlotSummary::slotId))
+            .toList();
+        lock.writeLock().lock();
+        try {
+            int size = slotIds.length + added.size();
+            long[] mergedIds = new long[size];
+            SlotSummary[] mergedSlots = new SlotSummary[size];
+            SlotTimeline[] mergedTimelines = new SlotTimeline[size];
+            int merged = 0;
+            int existing = 0;
+            for (SlotSummary slot : added) {
+                while (existing < slotIds.length && slotIds[existing] < slot.slotId()) {
+                    mergedIds[merged] = slotIds[existing];
+                    mergedSlots[merged] = slots[existing];
+                    mergedTimelines[merged++] = timelines[existing++];
+                }
+                if (existing < slotIds.length && slotIds[existing] == slot.slotId()) {
+                    // Already known, e.g. through a rebuild that ran after the insert committed
+                    continue;
+                }
+                mergedIds[merged] = slot.slotId();
+                mergedSlots[merged] = slot;
+                mergedTimelines[merged++] = new SlotTimeline();
+            }
+            int rest = slotIds.length - existing;
+            System.arraycopy(slotIds, existing, mergedIds, merged, rest);
+            System.arraycopy(slots, existing, mergedSlots, merged, rest);
+            System.arraycopy(timelines, existing, mergedTimelines, merged, rest);
+            merged += rest;
+            slotIds = Arrays.copyOf(mergedIds, merged);
+            slots = Arrays.copyOf(mergedSlots, merged);
+            timelines = Arrays.copyOf(mergedTimelines, merged);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCreated(ReservationCreatedEvent event) {
+        ReservationWindow window = toWindow(event.reservation());
+        lock.writeLock().lock();
+        try {
+            int position = positionOf(window.slotId());
+            if (position >= 0) {
+                timelines[position].add(window);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCancelled(ReservationCancelledEvent event) {
+        ReservationWindow window = toWindow(event.reservation());
+        lock.writeLock().lock();
+        try {
+            int position = positionOf(window.slotId());
+            if (position >= 0) {
+                timelines[position].remove(window);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationsArchived(ReservationsArchivedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (ReservationWindow window : event.windows()) {
+                int position = positionOf(window.slotId());
+                if (position >= 0) {
+                    timelines[position].remove(window);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Slots this instance now owns were booked through another until now
+    @EventListener
+    public void onShardOwnershipChanged(ShardOwnershipChangedEvent event) {
+        if (ready) {
+            rebuild();
+        }
+    }
+
+    // Holds share the slot timelines, so availability and the write-behind overlap check both treat them as taken
+    @EventListener
+    public void onSlotHeld(SlotHeldEvent event) {
+        ReservationWindow window = event.hold().window();
+        lock.writeLock().lock();
+        try {
+            int position = positionOf(window.slotId());
+            if (position >= 0) {
+                timelines[position].add(window);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onSlotHoldReleased(SlotHoldReleasedEvent event) {
+        ReservationWindow window = event.hold().window();
+        lock.writeLock().lock();
+        try {
+            int position = positionOf(window.slotId());
+            if (position >= 0) {
+                timelines[position].remove(window);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int positionOf(Long slotId) {
+        return Arrays.binarySearch(slotIds, slotId);
+    }
+
+    private static ReservationWindow toWindow(Reservation reservation) {
+        return new ReservationWindow(reservation.getId(), reservation.getSlot().getId(),
+            reservation.getStartTime(), reservation.getEndTime());
+    }
+
+    private static long[] insert(long[] array, int index, long value) {
+        long[] copy = new long[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, index);
+        copy[index] = value;
+        System.arraycopy(array, index, copy, index + 1, array.length - index);
+        return copy;
+    }
+
+    private static <T> T[] insert(T[] array, int index, T value) {
+        T[] copy = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, index, copy, index + 1, array.length - index);
+        copy[index] = value;
+        return copy;
+    }
+}
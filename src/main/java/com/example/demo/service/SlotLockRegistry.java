@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.exception.SlotBusyException;
+
+/**
+ * Serializes writes per slot with a fixed set of striped locks, so two bookings for the same slot never run
+ * their overlap check and insert concurrently. Locks are taken before a transaction starts, so requests
+ * queued behind a hot slot do not hold database connections while they wait.
+ */
+@Component
+public class SlotLockRegistry {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutNanos;
+
+    public SlotLockRegistry(@Value("${parking.reservation.lock-stripes:1024}") int stripeCount,
+                            @Value("${parking.reservation.lock-timeout:5s}") Duration timeout) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public <T> T withSlotLock(Long slotId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(slotId);
+        acquire(lock);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Locks every stripe the given slots map to, always in ascending stripe order so that
+     * overlapping multi-slot callers cannot deadlock each other.
+     */
+    public <T> T withSlotLocks(Collection<Long> slotIds, Supplier<T> action) {
+        int[] indexes = slotIds.stream().mapToInt(this::stripeIndex).distinct().sorted().toArray();
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                acquire(stripes[index]);
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private ReentrantLock stripeFor(Long slotId) {
+        return stripes[stripeIndex(slotId)];
+    }
+
+    private int stripeIndex(Long slotId) {
+        // Fibonacci hashing spreads sequential ids across stripes
+        long hash = slotId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private void acquire(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SlotBusyException("Slot is busy with other bookings. Please try again.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlotBusyException("Interrupted while waiting for the slot lock.");
+        }
+    }
+}
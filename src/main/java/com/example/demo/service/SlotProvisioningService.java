@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.dto.BulkSlotResultDTO;
+import com.example.demo.event.SlotsCreatedEvent;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Slot;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.SlotRepository;
+
+/**
+ * Adds many slots to a floor in one transaction. Slot ids come from a pooled sequence, so Hibernate sends the
+ * inserts as JDBC batches. Slot numbers the floor already has are skipped, and floors are matched by number,
+ * so a provisioning request can be repeated safely after a timeout or partial failure.
+ */
+@Service
+public class SlotProvisioningService {
+
+    private final FloorRepository floorRepository;
+    private final SlotRepository slotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SlotProvisioningService(FloorRepository floorRepository, SlotRepository slotRepository,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.floorRepository = floorRepository;
+        this.slotRepository = slotRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.FLOORS, key = "#floorId")
+    public BulkSlotResultDTO addSlots(Long floorId, List<Slot> slots) {
+        ParkingFloor floor = floorRepository.findLockedById(floorId)
+            .orElseThrow(() -> new ResourceNotFoundException("Floor not found with id: " + floorId));
+        return insertMissing(floor, slots, new HashSet<>(slotRepository.findSlotNumbersByFloorId(floorId)));
+    }
+
+    /**
+     * Creates the floor with its slots, or adds the missing slots if a floor with that number already exists,
+     * so a retried request does not create a second floor. Two first requests racing each other are settled
+     * by the unique floor number: the loser is refused with a conflict and its retry finds the floor.
+     */
+    @Transactional
+    public BulkSlotResultDTO createFloorWithSlots(ParkingFloor floor, List<Slot> slots) {
+        return floorRepository.findLockedByFloorNumber(floor.getFloorNumber())
+            .map(existing -> insertMissing(existing, slots, new HashSet<>(slotRepository.findSlotNumbersByFloorId(existing.getId()))))
+            .orElseGet(() -> insertMissing(floorRepository.saveAndFlush(floor), slots, Set.of()));
+    }
+
+    private BulkSlotResultDTO insertMissing(ParkingFloor floor, List<Slot> slots, Set<Integer> existing) {
+        Set<Integer> requested = new HashSet<>();
+        for (Slot slot : slots) {
+            if (!requested.add(slot.getSlotNumber())) {
+                throw new IllegalArgumentException("Slot number " + slot.getSlotNumber() + " is listed more than once.");
+            }
+        }
+        List<Slot> missing = new ArrayList<>(slots.size());
+        for (Slot slot : slots) {
+            if (!existing.contains(slot.getSlotNumber())) {
+                slot.setParkingFloor(floor);
+                missing.add(slot);
+            }
+        }
+        List<Slot> saved = slotRepository.saveAll(missing);
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(new SlotsCreatedEvent(saved));
+        }
+        return new BulkSlotResultDTO(floor.getId(), saved.size(), slots.size() - saved.size());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import com.example.demo.dto.ReservationWindow;
+
+/**
+ * Reservations of a single slot ordered by start time.
+ * Overlap checks only look at windows starting within the longest span ever stored before the
+ * requested range, so they stay logarithmic even though windows are not merged.
+ */
+class SlotTimeline {
+
+    private static final Comparator<ReservationWindow> BY_START = Comparator
+        .comparing(ReservationWindow::startTime)
+        .thenComparing(ReservationWindow::reservationId);
+
+    private final NavigableSet<ReservationWindow> windows = new TreeSet<>(BY_START);
+    private Duration longestSpan = Duration.ZERO;
+
+    void add(ReservationWindow window) {
+        windows.add(window);
+        Duration span = Duration.between(window.startTime(), window.endTime());
+        if (span.compareTo(longestSpan) > 0) {
+            longestSpan = span;
+        }
+    }
+
+    void remove(ReservationWindow window) {
+        windows.remove(window);
+    }
+
+    boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        if (windows.isEmpty()) {
+            return false;
+        }
+        ReservationWindow from = new ReservationWindow(Long.MIN_VALUE, null, start.minus(longestSpan), null);
+        ReservationWindow to = new ReservationWindow(Long.MIN_VALUE, null, end, null);
+        for (ReservationWindow window : windows.subSet(from, true, to, false)) {
+            if (window.overlaps(start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Minutes left idle either side of a booking from {@code start} to {@code end}, which must not overlap
+     * anything here. An open side counts as {@code capMinutes}, as does any gap longer than that.
+     */
+    long gapMinutes(LocalDateTime start, LocalDateTime end, long capMinutes) {
+        LocalDateTime previousEnd = null;
+        // The latest earlier end may belong to a window starting up to the longest span before the cap
+        LocalDateTime earliest = start.minus(longestSpan).minusMinutes(capMinutes);
+        ReservationWindow from = new ReservationWindow(Long.MIN_VALUE, null, earliest, null);
+        ReservationWindow to = new ReservationWindow(Long.MIN_VALUE, null, start, null);
+        for (ReservationWindow window : windows.subSet(from, true, to, false)) {
+            if (previousEnd == null || window.endTime().isAfter(previousEnd)) {
+                previousEnd = window.endTime();
+            }
+        }
+        ReservationWindow next = windows.ceiling(new ReservationWindow(Long.MIN_VALUE, null, end, null));
+        long before = previousEnd == null ? capMinutes : Math.min(capMinutes, Duration.between(previousEnd, start).toMinutes());
+        long after = next == null ? capMinutes : Math.min(capMinutes, Duration.between(end, next.startTime()).toMinutes());
+        return before + after;
+    }
+
+    // Holds are stored with negative ids
+    List<ReservationWindow> holds() {
+        return windows.stream().filter(window -> window.reservationId() < 0).toList();
+    }
+
+    boolean isEmpty() {
+        return windows.isEmpty();
+    }
+}
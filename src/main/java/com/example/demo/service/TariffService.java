@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.TariffRule;
+import com.example.demo.model.TariffVersion;
+import com.example.demo.repository.TariffRuleRepository;
+import com.example.demo.repository.TariffVersionRepository;
+
+/**
+ * Keeps the stored tariff and the {@link PricingEngine} in step. The rules are loaded when the context starts,
+ * ahead of the web server, so the application never takes traffic without them while a context that is only
+ * refreshed, never started, does not read the database. A replacement takes effect as soon as it is committed,
+ * without a restart. Every replacement also bumps the stored {@link TariffVersion}, which each instance polls,
+ * so the others reload the rules within one refresh interval.
+ */
+@Service
+public class TariffService implements SmartLifecycle {
+
+    private final TariffRuleRepository tariffRuleRepository;
+    private final TariffVersionRepository tariffVersionRepository;
+    private final PricingEngine pricingEngine;
+    private final TransactionTemplate transactionTemplate;
+    private volatile boolean running;
+    // The version of the rules the engine has installed
+    private long installedVersion = -1;
+
+    public TariffService(TariffRuleRepository tariffRuleRepository, TariffVersionRepository tariffVersionRepository,
+                         PricingEngine pricingEngine, PlatformTransactionManager transactionManager) {
+        this.tariffRuleRepository = tariffRuleRepository;
+        this.tariffVersionRepository = tariffVersionRepository;
+        this.pricingEngine = pricingEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public synchronized void load() {
+        // The version is read before the rules, so a replacement committed in between is loaded again next time
+        // rather than missed
+        long version = storedVersion();
+        pricingEngine.install(TariffTable.compile(tariffRuleRepository.findAllByOrderByIdAsc()));
+        installedVersion = version;
+    }
+
+    // Picks up replacements made through other instances
+    @Scheduled(fixedDelayString = "${parking.tariff.refresh-interval:5s}")
+    public synchronized void refresh() {
+        if (running && storedVersion() != installedVersion) {
+            load();
+        }
+    }
+
+    @Override
+    public void start() {
+        load();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Well ahead of the web server's phase
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    public List<TariffRule> getRules() {
+        return tariffRuleRepository.findAllByOrderByIdAsc();
+    }
+
+    // Synchronized so two replacements cannot commit in one order and be installed in the other
+    public synchronized List<TariffRule> replaceRules(List<TariffRule> rules) {
+        TariffTable compiled = TariffTable.compile(rules);
+        long[] version = new long[1];
+        List<TariffRule> saved = transactionTemplate.execute(status -> {
+            TariffVersion stored = tariffVersionRepository.findLockedById(TariffVersion.ID).orElseGet(() -> {
+                TariffVersion first = new TariffVersion();
+                first.setId(TariffVersion.ID);
+                return first;
+            });
+            stored.setVersion(stored.getVersion() + 1);
+            version[0] = tariffVersionRepository.save(stored).getVersion();
+            tariffRuleRepository.deleteAllInBatch();
+            return tariffRuleRepository.saveAll(rules);
+        });
+        pricingEngine.install(compiled);
+        installedVersion = version[0];
+        return saved;
+    }
+
+    // Zero until the first replacement on a schema created without the migration's row
+    private long storedVersion() {
+        return tariffVersionRepository.findById(TariffVersion.ID).map(TariffVersion::getVersion).orElse(0L);
+    }
+}
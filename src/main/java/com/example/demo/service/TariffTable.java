@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.model.TariffRule;
+import com.example.demo.model.VehicleType;
+
+/**
+ * A tariff compiled for pricing: for every vehicle type, and for every floor with rules of its own, the hourly
+ * rate in cents of each minute of the week, stored as running totals. The price of any interval is then two
+ * array reads whatever rules it crosses. Immutable once compiled, so it can be swapped in while being read.
+ * <p>
+ * Billing is unchanged from a flat rate: the duration is rounded up to whole hours from the start, and each
+ * minute of that is charged at the rate in force at that minute of the week.
+ */
+public final class TariffTable {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    // [vehicle type ordinal][minute of week + 1], each entry the sum of hourly rates in cents of the minutes before it
+    private final long[][] defaults;
+    private final Map<Long, long[][]> floors;
+
+    private TariffTable(long[][] defaults, Map<Long, long[][]> floors) {
+        this.defaults = defaults;
+        this.floors = floors;
+    }
+
+    // Each vehicle type's built-in hourly rate, around the clock
+    public static TariffTable defaults() {
+        return compile(List.of());
+    }
+
+    public static TariffTable compile(List<TariffRule> rules) {
+        long[][] base = new long[TYPES.length][MINUTES_PER_WEEK];
+        for (VehicleType type : TYPES) {
+            Arrays.fill(base[type.ordinal()], toCents(type.getHourlyRate()));
+        }
+        Map<Long, long[][]> floorRates = new HashMap<>();
+        for (TariffRule rule : rules) {
+            if (rule.getFloorId() == null) {
+                apply(base, rule);
+            }
+        }
+        for (TariffRule rule : rules) {
+            if (rule.getFloorId() != null) {
+                apply(floorRates.computeIfAbsent(rule.getFloorId(), id -> copyOf(base)), rule);
+            }
+        }
+        Map<Long, long[][]> floors = new HashMap<>();
+        floorRates.forEach((floorId, rates) -> floors.put(floorId, prefixSums(rates)));
+        return new TariffTable(prefixSums(base), Map.copyOf(floors));
+    }
+
+    /**
+     * Price of a booking from {@code start} to {@code end} on the floor; floors without rules of their own
+     * use the general tariff.
+     */
+    public double price(Long floorId, VehicleType vehicleType, LocalDateTime start, LocalDateTime end) {
+        long[][] table = floorId != null ? floors.getOrDefault(floorId, defaults) : defaults;
+        long[] sums = table[vehicleType.ordinal()];
+        long minutes = Duration.between(start, end).toMinutes();
+        long billed = Math.ceilDiv(minutes, 60) * 60;
+        int from = minuteOfWeek(start);
+        long total = (billed / MINUTES_PER_WEEK) * sums[MINUTES_PER_WEEK];
+        int to = from + (int) (billed % MINUTES_PER_WEEK);
+        if (to <= MINUTES_PER_WEEK) {
+            total += sums[to] - sums[from];
+        } else {
+            total += sums[MINUTES_PER_WEEK] - sums[from] + sums[to - MINUTES_PER_WEEK];
+        }
+        // Totals are in cent-minutes at hourly rates, so a whole hour at one rate divides exactly
+        return Math.round(total / 60.0) / 100.0;
+    }
+
+    static int minuteOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    private static void apply(long[][] rates, TariffRule rule) {
+        long cents = toCents(rule.getHourlyRate());
+        int start = minuteOfDay(rule.getStartTime());
+        int end = minuteOfDay(rule.getEndTime());
+        int length = end > start ? end - start : MINUTES_PER_DAY - start + end;
+        for (VehicleType type : TYPES) {
+            if (rule.getVehicleType() != null && rule.getVehicleType() != type) {
+                continue;
+            }
+            for (int day = 0; day < 7; day++) {
+                if (rule.getDayOfWeek() != null && rule.getDayOfWeek().getValue() - 1 != day) {
+                    continue;
+                }
+                int from = day * MINUTES_PER_DAY + start;
+                for (int i = 0; i < length; i++) {
+                    // A band running past Sunday midnight continues on Monday
+                    rates[type.ordinal()][(from + i) % MINUTES_PER_WEEK] = cents;
+                }
+            }
+        }
+    }
+
+    private static long[][] prefixSums(long[][] rates) {
+        long[][] sums = new long[rates.length][MINUTES_PER_WEEK + 1];
+        for (int type = 0; type < rates.length; type++) {
+            for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+                sums[type][minute + 1] = sums[type][minute] + rates[type][minute];
+            }
+        }
+        return sums;
+    }
+
+    private static long[][] copyOf(long[][] rates) {
+        long[][] copy = new long[rates.length][];
+        for (int i = 0; i < rates.length; i++) {
+            copy[i] = rates[i].clone();
+        }
+        return copy;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static long toCents(double rate) {
+        return Math.round(rate * 100);
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.demo.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.cluster.ClusterMembership;
+import com.example.demo.dto.FloorCapacity;
+import com.example.demo.dto.OccupancyStatDTO;
+import com.example.demo.dto.RevenueStatDTO;
+import com.example.demo.dto.UsageRollupRow;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.SlotRepository;
+import com.example.demo.repository.UsageRollupRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hourly occupancy and revenue per floor and vehicle type for the operations dashboard, kept up to date as
+ * bookings are made and cancelled rather than aggregated from the reservation table on every read.
+ * <p>
+ * Each booking or cancellation adds its slot-minutes per hour, and its cost and count to the hour it starts
+ * in, to deltas held in memory; these are flushed to the rollup table in one batch every few seconds, and
+ * reads add whatever has not been flushed yet. A rebuild recomputes the recent buckets from the reservations
+ * themselves, scanning id ranges in parallel, to repair drift such as deltas lost when the process died.
+ * Bookings and cancellations made while it scans are reconciled against what the scan saw, so none is
+ * counted twice or missed.
+ * <p>
+ * With sharding on every instance flushes the deltas of its own bookings into the shared buckets, but
+ * rebuilds are left out, since one instance cannot account for what the others have not flushed yet.
+ */
+@Service
+public class UsageRollupService {
+
+    // Longest range a stats request may cover
+    public static final Duration MAX_RANGE = Duration.ofDays(31);
+
+    private static final Logger log = LoggerFactory.getLogger(UsageRollupService.class);
+    private static final int MIN_CHUNK_IDS = 10_000;
+    private static final Comparator<UsageRollupRow> BUCKET_ORDER = Comparator
+        .comparing(UsageRollupRow::hour)
+        .thenComparing(UsageRollupRow::floorId)
+        .thenComparing(UsageRollupRow::vehicleType);
+
+    private final UsageRollupRepository rollupRepository;
+    private final SlotRepository slotRepository;
+    private final ParkingTopology topology;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterMembership cluster;
+    private final Duration rebuildWindow;
+    private final int parallelism;
+    private final Clock clock;
+    private final ConcurrentHashMap<Key, Totals> pending = new ConcurrentHashMap<>();
+    // Held shared while recording a change, exclusively while a rebuild starts or stops tracking them
+    private final ReadWriteLock trackingLock = new ReentrantReadWriteLock();
+    private Tracking tracking;
+
+    @Autowired
+    public UsageRollupService(UsageRollupRepository rollupRepository, SlotRepository slotRepository,
+                              ParkingTopology topology, PlatformTransactionManager transactionManager,
+                              @Nullable ClusterMembership cluster,
+                              @Value("${parking.rollups.rebuild-window:30d}") Duration rebuildWindow,
+                              @Value("${parking.rollups.rebuild-parallelism:4}") int parallelism) {
+        this(rollupRepository, slotRepository, topology, transactionManager, cluster, rebuildWindow, parallelism,
+            Clock.systemDefaultZone());
+    }
+
+    UsageRollupService(UsageRollupRepository rollupRepository, SlotRepository slotRepository, ParkingTopology topology,
+                       PlatformTransactionManager transactionManager, ClusterMembership cluster, Duration rebuildWindow,
+                       int parallelism, Clock clock) {
+        this.rollupRepository = rollupRepository;
+        this.slotRepository = slotRepository;
+        this.topology = topology;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cluster = cluster;
+        this.rebuildWindow = rebuildWindow;
+        this.parallelism = parallelism;
+        this.clock = clock;
+    }
+
+    public List<OccupancyStatDTO> occupancy(LocalDateTime from, LocalDateTime to, Long floorId) {
+        List<UsageRollupRow> buckets = buckets(from, to, floorId);
+        Map<Long, Long> slots = new HashMap<>();
+        for (FloorCapacity capacity : slotRepository.countSlotsByFloor()) {
+            slots.put(capacity.floorId(), capacity.slots());
+        }
+        List<OccupancyStatDTO> stats = new ArrayList<>();
+        for (UsageRollupRow bucket : buckets) {
+            if (bucket.occupiedMinutes() != 0) {
+                long capacity = slots.getOrDefault(bucket.floorId(), 0L) * 60;
+                double percent = capacity == 0 ? 0 : Math.round(bucket.occupiedMinutes() * 10_000.0 / capacity) / 100.0;
+                stats.add(new OccupancyStatDTO(bucket.hour(), bucket.floorId(), bucket.vehicleType(),
+                    bucket.occupiedMinutes(), percent));
+            }
+        }
+        return stats;
+    }
+
+    public List<RevenueStatDTO> revenue(LocalDateTime from, LocalDateTime to, Long floorId) {
+        return buckets(from, to, floorId).stream()
+            .filter(bucket -> bucket.reservations() != 0 || bucket.revenueCents() != 0)
+            .map(bucket -> new RevenueStatDTO(bucket.hour(), bucket.floorId(), bucket.vehicleType(),
+                bucket.reservations(), bucket.revenueCents() / 100.0))
+            .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCreated(ReservationCreatedEvent event) {
+        apply(event.reservation(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCancelled(ReservationCancelledEvent event) {
+        apply(event.reservation(), -1);
+    }
+
+    @Scheduled(fixedDelayString = "${parking.rollups.flush-interval:5s}")
+    public synchronized void flush() {
+        List<UsageRollupRow> deltas = new ArrayList<>();
+        for (Key key : pending.keySet()) {
+            Totals totals = pending.remove(key);
+            if (totals != null && !totals.isZero()) {
+                deltas.add(key.row(totals));
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> rollupRepository.addAll(deltas));
+        } catch (RuntimeException e) {
+            // Typically another instance creating one of the buckets first; the retry finds it there
+            log.warn("Flushing {} usage rollup buckets failed; will retry", deltas.size(), e);
+            deltas.forEach(delta -> pending.merge(Key.of(delta), Totals.of(delta), Totals::plus));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    // First start: nothing has been rolled up yet
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (cluster == null && rollupRepository.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${parking.rollups.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        if (cluster == null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes every bucket from the start of the hour one rebuild window ago onwards, upcoming hours
+     * included, from the live reservations. Earlier buckets are left as they are, since the reservations
+     * behind them may have been archived.
+     */
+    public synchronized void rebuild() {
+        LocalDateTime from = LocalDateTime.now(clock).minus(rebuildWindow).truncatedTo(ChronoUnit.HOURS);
+        Predicate<LocalDateTime> rebuilt = hour -> !hour.isBefore(from);
+        Tracking started = new Tracking(from);
+        trackingLock.writeLock().lock();
+        try {
+            tracking = started;
+        } finally {
+            trackingLock.writeLock().unlock();
+        }
+        Scan scan;
+        try {
+            // Anything recorded before tracking started is in the table now; the buckets the scan replaces lose it
+            flush();
+            scan = scan(from);
+        } catch (RuntimeException e) {
+            stopTracking().values().forEach(change -> change.contribute(1, rebuilt, this::addPending));
+            throw e;
+        }
+        Map<Long, Change> changes = stopTracking();
+        // Brings each changed reservation from what the scan saw of it to whether it exists now
+        changes.forEach((id, change) -> {
+            int correction = (change.sign() > 0 ? 1 : 0) - (scan.saw(id) ? 1 : 0);
+            if (correction != 0) {
+                change.contribute(correction, rebuilt, (key, totals) -> scan.totals().merge(key, totals, Totals::plus));
+            }
+        });
+        List<UsageRollupRow> rows = scan.totals().entrySet().stream()
+            .filter(entry -> !entry.getValue().isZero())
+            .map(entry -> entry.getKey().row(entry.getValue()))
+            .toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> rollupRepository.replaceFrom(from, rows));
+        } catch (RuntimeException e) {
+            changes.values().forEach(change -> change.contribute(1, rebuilt, this::addPending));
+            throw e;
+        }
+        log.info("Rebuilt {} usage rollup buckets from {} from {} reservations", rows.size(), from, scan.ids().length);
+    }
+
+    private void apply(Reservation reservation, int sign) {
+        Change change = new Change(topology.getSlot(reservation.getSlot().getId()).getParkingFloor().getId(),
+            reservation.getVehicleType(), reservation.getStartTime(), reservation.getEndTime(), reservation.getCost(), sign);
+        trackingLock.readLock().lock();
+        try {
+            if (tracking == null) {
+                change.contribute(sign, hour -> true, this::addPending);
+                return;
+            }
+            LocalDateTime from = tracking.from();
+            // The rebuild leaves the earlier buckets alone, and settles the rest once its scan is done
+            change.contribute(sign, hour -> hour.isBefore(from), this::addPending);
+            // A cancellation is final, even when it is delivered ahead of its booking
+            tracking.changes().merge(reservation.getId(), change, (earlier, later) -> earlier.sign() < 0 ? earlier : later);
+        } finally {
+            trackingLock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Change> stopTracking() {
+        trackingLock.writeLock().lock();
+        try {
+            Map<Long, Change> changes = tracking.changes();
+            tracking = null;
+            return changes;
+        } finally {
+            trackingLock.writeLock().unlock();
+        }
+    }
+
+    private void addPending(Key key, Totals totals) {
+        pending.merge(key, totals, Totals::plus);
+    }
+
+    private List<UsageRollupRow> buckets(LocalDateTime from, LocalDateTime to, Long floorId) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("From must be before to.");
+        }
+        if (Duration.between(from, to).compareTo(MAX_RANGE) > 0) {
+            throw new IllegalArgumentException("Range must not exceed " + MAX_RANGE.toDays() + " days.");
+        }
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        List<UsageRollupRow> stored = rollupRepository.findBetween(start, to, floorId);
+        Map<Key, Totals> merged = new HashMap<>(stored.size() * 2);
+        stored.forEach(row -> merged.put(Key.of(row), Totals.of(row)));
+        pending.forEach((key, totals) -> {
+            if (!key.hour().isBefore(start) && key.hour().isBefore(to) && (floorId == null || floorId.equals(key.floorId()))) {
+                merged.merge(key, totals, Totals::plus);
+            }
+        });
+        return merged.entrySet().stream().map(entry -> entry.getKey().row(entry.getValue())).sorted(BUCKET_ORDER).toList();
+    }
+
+    // Splits the live reservations ending after from into id ranges and aggregates them on parallel connections
+    private Scan scan(LocalDateTime from) {
+        long[] range = rollupRepository.findReservationIdRange(from).orElse(null);
+        if (range == null) {
+            return new Scan(new HashMap<>(), new long[0]);
+        }
+        long chunkSize = Math.max(MIN_CHUNK_IDS, Math.ceilDiv(range[1] - range[0] + 1, parallelism * 4L));
+        List<Future<Scan>> chunks = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            for (long first = range[0]; first <= range[1]; first += chunkSize) {
+                long chunkFirst = first;
+                long chunkLast = Math.min(range[1], first + chunkSize - 1);
+                chunks.add(executor.submit(() -> scanChunk(chunkFirst, chunkLast, from)));
+            }
+            Map<Key, Totals> totals = new HashMap<>();
+            LongStream.Builder ids = LongStream.builder();
+            // Chunks are in id order and each is scanned in id order, so the ids come out sorted
+            for (Future<Scan> chunk : chunks) {
+                Scan scanned = chunk.get();
+                scanned.totals().forEach((key, value) -> totals.merge(key, value, Totals::plus));
+                Arrays.stream(scanned.ids()).forEach(ids);
+            }
+            return new Scan(totals, ids.build().toArray());
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding usage rollups", e);
+        }
+    }
+
+    private Scan scanChunk(long firstId, long lastId, LocalDateTime from) {
+        Map<Key, Totals> totals = new HashMap<>();
+        LongStream.Builder ids = LongStream.builder();
+        rollupRepository.scanReservations(firstId, lastId, from, (ResultSet rs) -> {
+            ids.add(rs.getLong("id"));
+            changeOf(rs).contribute(1, hour -> !hour.isBefore(from), (key, value) -> totals.merge(key, value, Totals::plus));
+        });
+        return new Scan(totals, ids.build().toArray());
+    }
+
+    private static Change changeOf(ResultSet rs) throws SQLException {
+        return new Change(rs.getLong("floor_id"), VehicleType.valueOf(rs.getString("vehicle_type")),
+            rs.getTimestamp("start_time").toLocalDateTime(), rs.getTimestamp("end_time").toLocalDateTime(),
+            rs.getDouble("cost"), 1);
+    }
+
+    private record Key(LocalDateTime hour, Long floorId, VehicleType vehicleType) {
+
+        static Key of(UsageRollupRow row) {
+            return new Key(row.hour(), row.floorId(), row.vehicleType());
+        }
+
+        UsageRollupRow row(Totals totals) {
+            return new UsageRollupRow(hour, floorId, vehicleType, totals.occupiedMinutes(), totals.revenueCents(),
+                totals.reservations());
+        }
+    }
+
+    private record Totals(long occupiedMinutes, long revenueCents, long reservations) {
+
+        static Totals of(UsageRollupRow row) {
+            return new Totals(row.occupiedMinutes(), row.revenueCents(), row.reservations());
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(occupiedMinutes + other.occupiedMinutes, revenueCents + other.revenueCents,
+                reservations + other.reservations);
+        }
+
+        boolean isZero() {
+            return occupiedMinutes == 0 && revenueCents == 0 && reservations == 0;
+        }
+    }
+
+    // A reservation as the rollups see it, with whether it was booked (1) or cancelled (-1)
+    private record Change(Long floorId, VehicleType vehicleType, LocalDateTime start, LocalDateTime end, double cost,
+                          int sign) {
+
+        // Adds factor times the reservation's figures for each hour the filter lets through
+        void contribute(int factor, Predicate<LocalDateTime> hours, BiConsumer<Key, Totals> sink) {
+            LocalDateTime first = start.truncatedTo(ChronoUnit.HOURS);
+            if (hours.test(first)) {
+                sink.accept(new Key(first, floorId, vehicleType), new Totals(0, factor * Math.round(cost * 100), factor));
+            }
+            for (LocalDateTime hour = first; hour.isBefore(end); hour = hour.plusHours(1)) {
+                if (hours.test(hour)) {
+                    LocalDateTime next = hour.plusHours(1);
+                    long minutes = Duration.between(start.isAfter(hour) ? start : hour, end.isBefore(next) ? end : next).toMinutes();
+                    sink.accept(new Key(hour, floorId, vehicleType), new Totals(factor * minutes, 0, 0));
+                }
+            }
+        }
+    }
+
+    private record Tracking(LocalDateTime from, Map<Long, Change> changes) {
+
+        Tracking(LocalDateTime from) {
+            this(from, new ConcurrentHashMap<>());
+        }
+    }
+
+    private record Scan(Map<Key, Totals> totals, long[] ids) {
+
+        boolean saw(long id) {
+            return Arrays.binarySearch(ids, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+-- Schema as Hibernate's ddl-auto=update left it, for PostgreSQL. Databases that already hold these tables are
+-- baselined at this version instead (spring.flyway.baseline-on-migrate), so this only runs on empty ones.
+-- The reservation_no_overlap exclusion constraint is still added by PostgresSchemaInitializer.
+
+CREATE SEQUENCE slot_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE reservation_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE parking_floor (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    floor_number integer NOT NULL
+);
+
+CREATE TABLE slot (
+    id bigint PRIMARY KEY,
+    slot_number integer NOT NULL,
+    vehicle_type varchar(255),
+    floor_id bigint NOT NULL REFERENCES parking_floor (id),
+    version bigint,
+    CONSTRAINT uk_slot_floor_number UNIQUE (floor_id, slot_number)
+);
+
+CREATE TABLE reservation (
+    id bigint PRIMARY KEY,
+    slot_id bigint NOT NULL REFERENCES slot (id),
+    start_time timestamp(6) NOT NULL,
+    end_time timestamp(6) NOT NULL,
+    vehicle_number varchar(255) NOT NULL,
+    vehicle_type varchar(255) NOT NULL,
+    cost double precision NOT NULL
+);
+CREATE INDEX idx_reservation_slot_time ON reservation (slot_id, start_time, end_time);
+CREATE INDEX idx_reservation_end_time ON reservation (end_time);
+CREATE INDEX idx_reservation_vehicle ON reservation (vehicle_number, end_time);
+
+CREATE TABLE tariff_rule (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    floor_id bigint,
+    vehicle_type varchar(255),
+    day_of_week varchar(255),
+    start_time time(6),
+    end_time time(6),
+    hourly_rate double precision NOT NULL
+);
+
+CREATE TABLE cluster_member (
+    instance_id varchar(255) PRIMARY KEY,
+    base_url varchar(255) NOT NULL,
+    expires_at timestamp(6) NOT NULL
+);
+
+CREATE TABLE idempotency_record (
+    idempotency_key varchar(255) PRIMARY KEY,
+    fingerprint varchar(64) NOT NULL,
+    response varchar(4000) NOT NULL,
+    expires_at timestamp(6) NOT NULL
+);
+CREATE INDEX idx_idempotency_expires ON idempotency_record (expires_at);
+
+-- Monthly partitions are created by ReservationArchiveRepository as rows arrive for them
+CREATE TABLE reservation_archive (
+    id bigint NOT NULL,
+    slot_id bigint NOT NULL,
+    start_time timestamp(6) NOT NULL,
+    end_time timestamp(6) NOT NULL,
+    vehicle_number varchar(255) NOT NULL,
+    vehicle_type varchar(32) NOT NULL,
+    cost double precision NOT NULL,
+    archived_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id, start_time)
+) PARTITION BY RANGE (start_time);
+CREATE TABLE reservation_archive_default PARTITION OF reservation_archive DEFAULT;
+
+CREATE TABLE usage_rollup (
+    bucket_start timestamp(6) NOT NULL,
+    floor_id bigint NOT NULL,
+    vehicle_type varchar(32) NOT NULL,
+    occupied_minutes bigint NOT NULL,
+    revenue_cents bigint NOT NULL,
+    reservations bigint NOT NULL,
+    PRIMARY KEY (bucket_start, floor_id, vehicle_type)
+);
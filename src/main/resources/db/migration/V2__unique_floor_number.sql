@@ -0,0 +1,53 @@
+-- Floor provisioning looks floors up by number so that retries reuse them; numbers must therefore be unique.
+-- Floors already sharing a number are first merged into the oldest of them. Slots keep their ids, so their
+-- reservations follow them; a slot whose number is already taken on the merged floor is numbered after its
+-- last slot instead.
+
+CREATE TEMPORARY TABLE floor_merge ON COMMIT DROP AS
+SELECT id AS floor_id, min(id) OVER (PARTITION BY floor_number) AS keeper_id
+FROM parking_floor
+WHERE floor_number IN (SELECT floor_number FROM parking_floor GROUP BY floor_number HAVING count(*) > 1);
+
+WITH ranked AS (
+    SELECT s.id, m.keeper_id, s.floor_id, s.slot_number,
+           row_number() OVER (PARTITION BY m.keeper_id, s.slot_number ORDER BY s.floor_id) AS claim,
+           max(s.slot_number) OVER (PARTITION BY m.keeper_id) AS last_number
+    FROM slot s
+    JOIN floor_merge m ON m.floor_id = s.floor_id
+), renumbered AS (
+    SELECT id, last_number + row_number() OVER (PARTITION BY keeper_id ORDER BY floor_id, slot_number) AS slot_number
+    FROM ranked
+    WHERE claim > 1
+)
+UPDATE slot s SET slot_number = r.slot_number FROM renumbered r WHERE s.id = r.id;
+
+UPDATE slot s SET floor_id = m.keeper_id
+FROM floor_merge m
+WHERE s.floor_id = m.floor_id AND m.floor_id <> m.keeper_id;
+
+UPDATE tariff_rule t SET floor_id = m.keeper_id
+FROM floor_merge m
+WHERE t.floor_id = m.floor_id AND m.floor_id <> m.keeper_id;
+
+-- Databases baselined at V1 only have the rollups if the application created them at startup
+DO $$
+BEGIN
+    IF to_regclass('usage_rollup') IS NOT NULL THEN
+        INSERT INTO usage_rollup (bucket_start, floor_id, vehicle_type, occupied_minutes, revenue_cents, reservations)
+        SELECT u.bucket_start, m.keeper_id, u.vehicle_type, sum(u.occupied_minutes), sum(u.revenue_cents), sum(u.reservations)
+        FROM usage_rollup u
+        JOIN floor_merge m ON u.floor_id = m.floor_id AND m.floor_id <> m.keeper_id
+        GROUP BY u.bucket_start, m.keeper_id, u.vehicle_type
+        ON CONFLICT (bucket_start, floor_id, vehicle_type) DO UPDATE SET
+            occupied_minutes = usage_rollup.occupied_minutes + EXCLUDED.occupied_minutes,
+            revenue_cents = usage_rollup.revenue_cents + EXCLUDED.revenue_cents,
+            reservations = usage_rollup.reservations + EXCLUDED.reservations;
+
+        DELETE FROM usage_rollup u USING floor_merge m WHERE u.floor_id = m.floor_id AND m.floor_id <> m.keeper_id;
+    END IF;
+END
+$$;
+
+DELETE FROM parking_floor f USING floor_merge m WHERE f.id = m.floor_id AND m.floor_id <> m.keeper_id;
+
+ALTER TABLE parking_floor ADD CONSTRAINT uk_parking_floor_number UNIQUE (floor_number);
@@ -0,0 +1,12 @@
+-- Durable backstop behind SlotLockRegistry: the database itself refuses overlapping bookings of a slot.
+-- Before this migration PostgresSchemaInitializer added the constraint at startup, so it may already exist.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'reservation_no_overlap') THEN
+        ALTER TABLE reservation ADD CONSTRAINT reservation_no_overlap
+            EXCLUDE USING gist (slot_id WITH =, tsrange(start_time, end_time) WITH &&);
+    END IF;
+END
+$$;
@@ -0,0 +1,7 @@
+-- Bumped with every tariff replacement; instances poll it and reload the rules when it moves.
+CREATE TABLE tariff_version (
+    id integer PRIMARY KEY,
+    version bigint NOT NULL
+);
+
+INSERT INTO tariff_version (id, version) VALUES (1, 0);
@@ -0,0 +1,271 @@
+package com.example.demo.reactive;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.example.demo.dto.AutoReservationRequestDTO;
+import com.example.demo.dto.BatchReservationRequestDTO;
+import com.example.demo.dto.BatchReservationResultDTO;
+import com.example.demo.dto.BulkSlotRequestDTO;
+import com.example.demo.dto.BulkSlotResultDTO;
+import com.example.demo.dto.FloorDTO;
+import com.example.demo.dto.FloorProvisionRequestDTO;
+import com.example.demo.dto.FreeWindowDTO;
+import com.example.demo.dto.GateCheckDTO;
+import com.example.demo.dto.HoldDTO;
+import com.example.demo.dto.OccupancyStatDTO;
+import com.example.demo.dto.QuoteDTO;
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.ReservationRequestDTO;
+import com.example.demo.dto.RevenueStatDTO;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.dto.SlotDTO;
+import com.example.demo.dto.TariffRuleDTO;
+import com.example.demo.dto.TariffScheduleDTO;
+import com.example.demo.idempotency.IdempotentRequests;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.TariffRule;
+import com.example.demo.model.VehicleType;
+import com.example.demo.service.GateService;
+import com.example.demo.service.ParkingService;
+import com.example.demo.service.SlotProvisioningService;
+import com.example.demo.service.TariffService;
+import com.example.demo.service.UsageRollupService;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The API of ParkingController on WebFlux. Availability, booking, lookups, cancellation and quotes go through
+ * {@link ReactiveParkingService}; the administrative and less frequent endpoints call the blocking services
+ * on the bounded elastic scheduler, so they never hold up the event loop. The availability stream and the
+ * NDJSON export are only served by the servlet stack.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api")
+public class ReactiveParkingController {
+
+    private final ReactiveParkingService reactiveParkingService;
+    private final ParkingService parkingService;
+    private final TariffService tariffService;
+    private final SlotProvisioningService slotProvisioningService;
+    private final GateService gateService;
+    private final UsageRollupService usageRollupService;
+    private final IdempotentRequests idempotentRequests;
+
+    public ReactiveParkingController(ReactiveParkingService reactiveParkingService, ParkingService parkingService,
+                                     TariffService tariffService, SlotProvisioningService slotProvisioningService,
+                                     GateService gateService, UsageRollupService usageRollupService,
+                                     IdempotentRequests idempotentRequests) {
+        this.reactiveParkingService = reactiveParkingService;
+        this.parkingService = parkingService;
+        this.tariffService = tariffService;
+        this.slotProvisioningService = slotProvisioningService;
+        this.gateService = gateService;
+        this.usageRollupService = usageRollupService;
+        this.idempotentRequests = idempotentRequests;
+    }
+
+    @PostMapping("/floors")
+    public Mono<ResponseEntity<FloorDTO>> createFloor(@RequestBody ParkingFloor floor) {
+        return blocking(() -> FloorDTO.from(parkingService.createFloor(floor))).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/slots")
+    public Mono<ResponseEntity<SlotDTO>> createSlot(@RequestParam Long floorId, @RequestBody Slot slot) {
+        return blocking(() -> SlotDTO.from(parkingService.createSlot(floorId, slot))).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/floors/provision")
+    public Mono<ResponseEntity<BulkSlotResultDTO>> provisionFloor(@Valid @RequestBody FloorProvisionRequestDTO requestDTO) {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(requestDTO.getFloorNumber());
+        return blocking(() -> slotProvisioningService.createFloorWithSlots(floor, requestDTO.getSlots().toSlots()))
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/floors/{id}/slots/bulk")
+    public Mono<ResponseEntity<BulkSlotResultDTO>> addSlots(@PathVariable Long id, @Valid @RequestBody BulkSlotRequestDTO requestDTO) {
+        return blocking(() -> slotProvisioningService.addSlots(id, requestDTO.toSlots())).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/floors/{id}/next-free")
+    public Mono<ResponseEntity<FreeWindowDTO>> findNextFreeWindow(
+            @PathVariable Long id,
+            @RequestParam Duration duration,
+            @RequestParam(required = false) LocalDateTime after,
+            @RequestParam(required = false) VehicleType vehicleType) {
+        LocalDateTime from = after != null ? after : LocalDateTime.now();
+        return blocking(() -> parkingService.findNextFreeWindow(id, duration, from, vehicleType)).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/availability")
+    public Mono<ResponseEntity<List<SlotAvailabilityDTO>>> getAvailableSlots(
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime,
+            @RequestParam(required = false) Long floorId,
+            @RequestParam(required = false) VehicleType vehicleType,
+            @RequestParam(defaultValue = "0") long afterSlotId,
+            @RequestParam(defaultValue = "500") int limit,
+            ServerHttpRequest request) {
+        return reactiveParkingService.getAvailableSlots(startTime, endTime, floorId, vehicleType, afterSlotId, limit)
+                .collectList()
+                .map(slots -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (slots.size() == limit) {
+                        // A full page may have more behind it, so point the client at the next one
+                        String next = UriComponentsBuilder.fromUri(request.getURI())
+                                .replaceQueryParam("afterSlotId", slots.get(slots.size() - 1).slotId())
+                                .toUriString();
+                        response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+                    }
+                    return response.body(slots);
+                });
+    }
+
+    // An Idempotency-Key waits for, or replays, the first attempt through the shared blocking coordinator
+    @PostMapping("/reserve")
+    public Mono<ResponseEntity<ReservationDTO>> reserveSlot(
+            @Valid @RequestBody ReservationRequestDTO requestDTO,
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return blocking(() -> idempotentRequests.execute(idempotencyKey, requestDTO, ReservationDTO.class,
+                    () -> ReservationDTO.from(reactiveParkingService.reserveSlot(toReservation(requestDTO)).block())))
+                    .map(ResponseEntity::ok);
+        }
+        return reactiveParkingService.reserveSlot(toReservation(requestDTO))
+                .map(reservation -> ResponseEntity.ok(ReservationDTO.from(reservation)));
+    }
+
+    @PostMapping("/reserve/auto")
+    public Mono<ResponseEntity<ReservationDTO>> reserveAuto(@Valid @RequestBody AutoReservationRequestDTO requestDTO) {
+        Reservation reservation = new Reservation();
+        reservation.setStartTime(requestDTO.getStartTime());
+        reservation.setEndTime(requestDTO.getEndTime());
+        reservation.setVehicleNumber(requestDTO.getVehicleNumber());
+        reservation.setVehicleType(requestDTO.getVehicleType());
+        return blocking(() -> ReservationDTO.from(parkingService.reserveAuto(reservation, requestDTO.getFloorId())))
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/reservations/batch")
+    public Mono<ResponseEntity<BatchReservationResultDTO>> reserveBatch(@Valid @RequestBody BatchReservationRequestDTO requestDTO) {
+        List<Reservation> reservations = requestDTO.getReservations().stream()
+                .map(this::toReservation)
+                .toList();
+        return blocking(() -> parkingService.reserveBatch(reservations, requestDTO.getMode())).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/holds")
+    public Mono<ResponseEntity<HoldDTO>> placeHold(@Valid @RequestBody ReservationRequestDTO requestDTO) {
+        return blocking(() -> HoldDTO.from(parkingService.placeHold(toReservation(requestDTO)))).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/holds/{token}/confirm")
+    public Mono<ResponseEntity<ReservationDTO>> confirmHold(@PathVariable String token) {
+        return blocking(() -> ReservationDTO.from(parkingService.confirmHold(token))).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/holds/{token}")
+    public Mono<ResponseEntity<Void>> releaseHold(@PathVariable String token) {
+        return blocking(() -> {
+            parkingService.releaseHold(token);
+            return ResponseEntity.noContent().<Void>build();
+        });
+    }
+
+    @GetMapping("/reservations/{id}")
+    public Mono<ResponseEntity<ReservationDTO>> getReservationDetails(@PathVariable Long id) {
+        return reactiveParkingService.getReservationDetails(id).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/gate/check")
+    public Mono<ResponseEntity<GateCheckDTO>> checkGate(@RequestParam String plate) {
+        return blocking(() -> gateService.check(plate)).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/stats/occupancy")
+    public Mono<ResponseEntity<List<OccupancyStatDTO>>> getOccupancyStats(
+            @RequestParam LocalDateTime from,
+            @RequestParam LocalDateTime to,
+            @RequestParam(required = false) Long floorId) {
+        return blocking(() -> usageRollupService.occupancy(from, to, floorId)).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/stats/revenue")
+    public Mono<ResponseEntity<List<RevenueStatDTO>>> getRevenueStats(
+            @RequestParam LocalDateTime from,
+            @RequestParam LocalDateTime to,
+            @RequestParam(required = false) Long floorId) {
+        return blocking(() -> usageRollupService.revenue(from, to, floorId)).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/quote")
+    public Mono<ResponseEntity<QuoteDTO>> quote(
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime,
+            @RequestParam VehicleType vehicleType,
+            @RequestParam(required = false) Long floorId) {
+        return reactiveParkingService.quote(floorId, vehicleType, startTime, endTime).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/tariffs")
+    public Mono<ResponseEntity<TariffScheduleDTO>> getTariffs() {
+        return Mono.fromCallable(() -> ResponseEntity.ok(toSchedule(tariffService.getRules())));
+    }
+
+    @PutMapping("/tariffs")
+    public Mono<ResponseEntity<TariffScheduleDTO>> replaceTariffs(@Valid @RequestBody TariffScheduleDTO schedule) {
+        List<TariffRule> rules = schedule.rules().stream().map(TariffRuleDTO::toEntity).toList();
+        return blocking(() -> toSchedule(tariffService.replaceRules(rules))).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/reservations/{id}")
+    public Mono<ResponseEntity<Void>> cancelReservation(@PathVariable Long id) {
+        return reactiveParkingService.cancelReservation(id)
+                .then(Mono.fromCallable(() -> ResponseEntity.noContent().<Void>build()));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static TariffScheduleDTO toSchedule(List<TariffRule> rules) {
+        return new TariffScheduleDTO(rules.stream().map(TariffRuleDTO::from).toList());
+    }
+
+    // Only the slot id is set; the service resolves the slot itself
+    private Reservation toReservation(ReservationRequestDTO requestDTO) {
+        Slot slot = new Slot();
+        slot.setId(requestDTO.getSlotId());
+        Reservation reservation = new Reservation();
+        reservation.setSlot(slot);
+        reservation.setStartTime(requestDTO.getStartTime());
+        reservation.setEndTime(requestDTO.getEndTime());
+        reservation.setVehicleNumber(requestDTO.getVehicleNumber());
+        reservation.setVehicleType(requestDTO.getVehicleType());
+        return reservation;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.demo.reactive;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.example.demo.cluster.ClusterMembership;
+import com.example.demo.config.CacheConfig;
+import com.example.demo.dto.QuoteDTO;
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.exception.SlotConflictException;
+import com.example.demo.hold.SlotHoldRegistry;
+import com.example.demo.journal.JournaledReservationWriter;
+import com.example.demo.metrics.ParkingMetrics;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+import com.example.demo.service.ParkingService;
+import com.example.demo.service.PricingEngine;
+import com.example.demo.service.SlotAvailabilityIndex;
+
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The booking path of {@link ParkingService} composed without blocking: availability, booking, lookups and
+ * cancellation run over R2DBC, so a request waiting on the database holds a pooled connection but no thread.
+ * The in-memory indexes and caches are shared with the rest of the application and kept in step through the
+ * same events.
+ * <p>
+ * A booking locks its slot row instead of taking SlotLockRegistry's in-process lock, and sends the lock, the
+ * overlap check and the id allocation down the connection together rather than waiting on each in turn; the
+ * database still runs them in order, so the check only sees the slot once it is locked. The bookings and holds
+ * this stack leaves to ParkingService take the same row lock, which {@code parking.reservation.lock-slot-rows}
+ * turns on, so the two paths exclude each other.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveParkingService {
+
+    private final ReactiveSlotRepository slotRepository;
+    private final ReactiveReservationRepository reservationRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final SlotAvailabilityIndex availabilityIndex;
+    private final SlotHoldRegistry holdRegistry;
+    private final PricingEngine pricingEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ParkingMetrics metrics;
+    private final Cache reservationCache;
+
+    public ReactiveParkingService(ReactiveSlotRepository slotRepository, ReactiveReservationRepository reservationRepository,
+                                  TransactionalOperator transactionalOperator, SlotAvailabilityIndex availabilityIndex,
+                                  SlotHoldRegistry holdRegistry, PricingEngine pricingEngine,
+                                  ApplicationEventPublisher eventPublisher, ParkingMetrics metrics, CacheManager cacheManager,
+                                  @Nullable JournaledReservationWriter journalWriter, @Nullable ClusterMembership cluster,
+                                  @Value("${parking.reservation.lock-slot-rows:false}") boolean lockSlotRows) {
+        // Both decide bookings through the blocking path, which this stack bypasses
+        if (journalWriter != null || cluster != null) {
+            throw new IllegalStateException("The reactive stack cannot be combined with parking.journal.enabled or parking.cluster.enabled");
+        }
+        // Otherwise ParkingService's bookings only take the in-process lock and miss this stack's uncommitted ones
+        if (!lockSlotRows) {
+            throw new IllegalStateException("The reactive stack needs parking.reservation.lock-slot-rows=true");
+        }
+        this.slotRepository = slotRepository;
+        this.reservationRepository = reservationRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.availabilityIndex = availabilityIndex;
+        this.holdRegistry = holdRegistry;
+        this.pricingEngine = pricingEngine;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.reservationCache = cacheManager.getCache(CacheConfig.RESERVATIONS);
+    }
+
+    public Flux<SlotAvailabilityDTO> getAvailableSlots(LocalDateTime startTime, LocalDateTime endTime, Long floorId,
+                                                       VehicleType vehicleType, long afterSlotId, int limit) {
+        if (!startTime.isBefore(endTime)) {
+            return Flux.error(new IllegalArgumentException("Start time must be before end time."));
+        }
+        if (limit < 1 || limit > ParkingService.MAX_AVAILABILITY_PAGE_SIZE) {
+            return Flux.error(new IllegalArgumentException("Limit must be between 1 and " + ParkingService.MAX_AVAILABILITY_PAGE_SIZE + "."));
+        }
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            // Answering from the index is a bounded in-memory search, cheap enough for the event loop
+            Flux<SlotAvailabilityDTO> slots = availabilityIndex.isReady()
+                ? Flux.fromIterable(availabilityIndex.findAvailable(startTime, endTime, floorId, vehicleType, afterSlotId, limit))
+                : slotRepository.findAvailable(startTime, endTime, floorId, vehicleType, afterSlotId, limit);
+            return slots.doFinally(signal -> sample.stop(metrics.availabilityTimer()));
+        });
+    }
+
+    /**
+     * Books a slot. Refusals match the blocking service: a missing slot is not found, a slot for another vehicle
+     * type or a bad time range is a bad request, and an overlap or a hold is a conflict.
+     */
+    public Mono<Reservation> reserveSlot(Reservation reservation) {
+        try {
+            validateTimeRange(reservation.getStartTime(), reservation.getEndTime());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        Long slotId = reservation.getSlot().getId();
+        Mono<Reservation> booking = Mono.zip(
+                slotRepository.lockById(slotId)
+                    .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Slot not found with id: " + slotId))),
+                reservationRepository.countOverlapping(slotId, reservation.getStartTime(), reservation.getEndTime()),
+                reservationRepository.nextId())
+            .flatMap(locked -> {
+                Slot slot = locked.getT1();
+                if (!slot.accepts(reservation.getVehicleType())) {
+                    return Mono.error(new IllegalArgumentException("Slot " + slotId + " is reserved for " + slot.getVehicleType() + " vehicles."));
+                }
+                if (locked.getT2() > 0) {
+                    return Mono.error(new SlotConflictException("overlap", "Slot is already booked for the selected time range."));
+                }
+                if (holdRegistry.conflicts(slotId, reservation.getStartTime(), reservation.getEndTime())) {
+                    return Mono.error(new SlotConflictException("hold", "Slot is held for the selected time range."));
+                }
+                reservation.setId(locked.getT3());
+                reservation.setSlot(slot);
+                reservation.setCost(pricingEngine.price(slot.getParkingFloor().getId(), reservation.getVehicleType(),
+                    reservation.getStartTime(), reservation.getEndTime()));
+                return reservationRepository.insert(reservation).thenReturn(reservation);
+            })
+            .as(transactionalOperator::transactional);
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return booking
+                .flatMap(booked -> publish(new ReservationCreatedEvent(booked)).thenReturn(booked))
+                .doFinally(signal -> sample.stop(metrics.reservationTimer()));
+        });
+    }
+
+    public Mono<ReservationDTO> getReservationDetails(Long reservationId) {
+        return Mono.defer(() -> {
+            ReservationDTO cached = reservationCache.get(reservationId, ReservationDTO.class);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return reservationRepository.findDetailsById(reservationId)
+                .switchIfEmpty(Mono.defer(() -> reservationRepository.findArchivedDetailsById(reservationId)))
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId)))
+                .doOnNext(details -> reservationCache.put(reservationId, details));
+        });
+    }
+
+    // The row is read and deleted in one round trip; the read runs first, so it still sees what was deleted
+    public Mono<Void> cancelReservation(Long reservationId) {
+        return Mono.zip(reservationRepository.findDetailsById(reservationId), reservationRepository.deleteById(reservationId))
+            .as(transactionalOperator::transactional)
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId)))
+            .flatMap(deleted -> {
+                reservationCache.evict(reservationId);
+                return publish(new ReservationCancelledEvent(toReservation(deleted.getT1())));
+            });
+    }
+
+    public Mono<QuoteDTO> quote(Long floorId, VehicleType vehicleType, LocalDateTime startTime, LocalDateTime endTime) {
+        return Mono.fromCallable(() -> {
+            validateTimeRange(startTime, endTime);
+            return new QuoteDTO(floorId, vehicleType, startTime, endTime, pricingEngine.price(floorId, vehicleType, startTime, endTime));
+        });
+    }
+
+    // Some listeners may read the topology from the database on a cache miss, so they run off the event loop
+    private Mono<Void> publish(Object event) {
+        return Mono.fromRunnable(() -> eventPublisher.publishEvent(event))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    private static void validateTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
+        if (!startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("Start time must be before end time.");
+        }
+        if (Duration.between(startTime, endTime).compareTo(Reservation.MAX_DURATION) >= 0) {
+            throw new IllegalArgumentException("Reservation duration cannot exceed 24 hours.");
+        }
+    }
+
+    private static Reservation toReservation(ReservationDTO details) {
+        Slot slot = new Slot();
+        slot.setId(details.slotId());
+        Reservation reservation = new Reservation();
+        reservation.setId(details.id());
+        reservation.setSlot(slot);
+        reservation.setStartTime(details.startTime());
+        reservation.setEndTime(details.endTime());
+        reservation.setVehicleNumber(details.vehicleNumber());
+        reservation.setVehicleType(details.vehicleType());
+        reservation.setCost(details.cost());
+        return reservation;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.reactive;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.VehicleType;
+
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reservation reads and writes over R2DBC for the reactive stack, on the same tables as the JPA repositories.
+ * Ids come from reservation_seq in blocks, the way Hibernate's pooled optimizer and ReservationIdAllocator
+ * take them, so ids handed out by either stack never collide.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReservationRepository {
+
+    // Must match the allocationSize of the reservation_seq generator on Reservation
+    private static final int BLOCK_SIZE = 50;
+    private static final String DETAIL_COLUMNS = "id, slot_id, start_time, end_time, vehicle_number, vehicle_type, cost";
+    private static final BiFunction<Row, RowMetadata, ReservationDTO> DETAILS = (row, metadata) -> new ReservationDTO(
+        row.get("id", Long.class), row.get("slot_id", Long.class),
+        row.get("start_time", LocalDateTime.class), row.get("end_time", LocalDateTime.class),
+        row.get("vehicle_number", String.class), VehicleType.valueOf(row.get("vehicle_type", String.class)),
+        row.get("cost", Double.class));
+
+    private final DatabaseClient databaseClient;
+    private final String nextValueSql;
+    private final AtomicReference<IdBlock> ids = new AtomicReference<>(new IdBlock(1, 0));
+
+    public ReactiveReservationRepository(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        this.nextValueSql = connectionFactory.getMetadata().getName().startsWith("H2")
+            ? "SELECT NEXT VALUE FOR reservation_seq"
+            : "SELECT nextval('reservation_seq')";
+    }
+
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            long id = ids.get().take();
+            if (id > 0) {
+                return Mono.just(id);
+            }
+            return databaseClient.sql(nextValueSql)
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one()
+                .map(top -> {
+                    // A block fetched concurrently may replace this one; its unused ids are skipped, never reused
+                    IdBlock block = new IdBlock(Math.max(1, top - BLOCK_SIZE + 1), top);
+                    long first = block.take();
+                    ids.set(block);
+                    return first;
+                });
+        });
+    }
+
+    // Same bounds as ReservationRepository.findOverlappingReservations, so the slot and start time index applies
+    public Mono<Long> countOverlapping(Long slotId, LocalDateTime startTime, LocalDateTime endTime) {
+        return databaseClient.sql("SELECT count(*) FROM reservation WHERE slot_id = :slotId "
+                + "AND start_time > :earliestStart AND start_time < :endTime AND end_time > :startTime")
+            .bind("slotId", slotId)
+            .bind("earliestStart", startTime.minus(Reservation.MAX_DURATION))
+            .bind("startTime", startTime)
+            .bind("endTime", endTime)
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one();
+    }
+
+    // The reservation must have its id, resolved slot and cost set. The vehicle type is cast because H2's
+    // driver binds strings as CLOBs, which its ENUM columns do not accept; on PostgreSQL the cast is a no-op
+    public Mono<Void> insert(Reservation reservation) {
+        return databaseClient.sql("INSERT INTO reservation (" + DETAIL_COLUMNS + ") "
+                + "VALUES (:id, :slotId, :startTime, :endTime, :vehicleNumber, CAST(:vehicleType AS VARCHAR(32)), :cost)")
+            .bind("id", reservation.getId())
+            .bind("slotId", reservation.getSlot().getId())
+            .bind("startTime", reservation.getStartTime())
+            .bind("endTime", reservation.getEndTime())
+            .bind("vehicleNumber", reservation.getVehicleNumber())
+            .bind("vehicleType", reservation.getVehicleType().name())
+            .bind("cost", reservation.getCost())
+            .then();
+    }
+
+    public Mono<ReservationDTO> findDetailsById(Long id) {
+        return databaseClient.sql("SELECT " + DETAIL_COLUMNS + " FROM reservation WHERE id = :id")
+            .bind("id", id)
+            .map(DETAILS)
+            .one();
+    }
+
+    public Mono<ReservationDTO> findArchivedDetailsById(Long id) {
+        return databaseClient.sql("SELECT " + DETAIL_COLUMNS + " FROM reservation_archive WHERE id = :id")
+            .bind("id", id)
+            .map(DETAILS)
+            .one();
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM reservation WHERE id = :id")
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    private static final class IdBlock {
+        private final AtomicLong next;
+        private final long last;
+
+        private IdBlock(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        // Zero once the block is used up
+        private long take() {
+            long id = next.getAndIncrement();
+            return id <= last ? id : 0;
+        }
+    }
+}
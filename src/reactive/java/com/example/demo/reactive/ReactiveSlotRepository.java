@@ -0,0 +1,80 @@
+package com.example.demo.reactive;
+
+import java.time.LocalDateTime;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Slot reads over R2DBC for the reactive stack, with the same statements as {@code SlotRepository}.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSlotRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveSlotRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    // Same anti-join and keyset paging as SlotRepository.findAvailableSlots; absent filters are left out of the SQL
+    public Flux<SlotAvailabilityDTO> findAvailable(LocalDateTime startTime, LocalDateTime endTime, Long floorId,
+                                                   VehicleType vehicleType, long afterSlotId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT s.id, s.slot_number, f.floor_number FROM slot s "
+            + "JOIN parking_floor f ON f.id = s.floor_id WHERE s.id > :afterSlotId");
+        if (floorId != null) {
+            sql.append(" AND f.id = :floorId");
+        }
+        if (vehicleType != null) {
+            // Cast as in ReactiveReservationRepository.insert
+            sql.append(" AND (s.vehicle_type IS NULL OR s.vehicle_type = CAST(:vehicleType AS VARCHAR(32)))");
+        }
+        sql.append(" AND NOT EXISTS (SELECT 1 FROM reservation r WHERE r.slot_id = s.id "
+            + "AND r.start_time < :endTime AND r.end_time > :startTime) ORDER BY s.id LIMIT :limit");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+            .bind("afterSlotId", afterSlotId)
+            .bind("startTime", startTime)
+            .bind("endTime", endTime)
+            .bind("limit", limit);
+        if (floorId != null) {
+            spec = spec.bind("floorId", floorId);
+        }
+        if (vehicleType != null) {
+            spec = spec.bind("vehicleType", vehicleType.name());
+        }
+        return spec.map((row, metadata) -> new SlotAvailabilityDTO(row.get("id", Long.class),
+                row.get("slot_number", Integer.class), row.get("floor_number", Integer.class)))
+            .all();
+    }
+
+    /**
+     * The slot with only its id, vehicle type and floor id set, row-locked until the surrounding transaction
+     * ends. Serializes bookings of the slot across instances the way SlotLockRegistry does within one, without
+     * holding a thread while waiting. Only the slot row is locked, never its floor.
+     */
+    public Mono<Slot> lockById(Long slotId) {
+        return databaseClient.sql("SELECT id, vehicle_type, floor_id FROM slot WHERE id = :id FOR UPDATE")
+            .bind("id", slotId)
+            .map((row, metadata) -> {
+                ParkingFloor floor = new ParkingFloor();
+                floor.setId(row.get("floor_id", Long.class));
+                Slot slot = new Slot();
+                slot.setId(row.get("id", Long.class));
+                String vehicleType = row.get("vehicle_type", String.class);
+                slot.setVehicleType(vehicleType != null ? VehicleType.valueOf(vehicleType) : null);
+                slot.setParkingFloor(floor);
+                return slot;
+            })
+            .one();
+    }
+}
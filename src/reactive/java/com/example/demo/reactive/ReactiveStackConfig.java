@@ -0,0 +1,55 @@
+package com.example.demo.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Wiring needed once R2DBC is on the classpath next to JPA.
+ * <p>
+ * Spring Boot's DataSourceAutoConfiguration backs off as soon as an R2DBC ConnectionFactory exists, which
+ * would leave JPA, JdbcTemplate and everything built on them without a DataSource; the Hikari pool is
+ * therefore defined here from {@code spring.datasource.*} as Spring Boot would define it. The virtual-thread
+ * profile defines its own pool. The R2DBC transaction manager is a {@code TransactionManager} too, so Spring
+ * Boot would also skip the JPA one that every blocking {@code @Transactional} method and TransactionTemplate
+ * relies on.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveStackConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "false", matchIfMissing = true)
+    HikariDataSource dataSource(DataSourceProperties properties) {
+        HikariDataSource hikari = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (properties.getName() != null) {
+            hikari.setPoolName(properties.getName());
+        }
+        return hikari;
+    }
+
+    @Bean
+    @Primary
+    JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    // Tomcat is on the classpath as well and would be picked first; the point of this stack is an event loop
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.controller;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.dto.HoldDTO;
+
+/**
+ * The booking API on the reactive stack, booted as a whole under the {@code reactive} profile. JDBC and R2DBC
+ * connect to the same in-memory database, as they would to the same PostgreSQL database.
+ */
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactive-api;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactive-api;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+    "spring.r2dbc.username=sa",
+    "spring.r2dbc.password="
+})
+class ReactiveParkingApiTest extends AbstractParkingApiTest {
+
+    private static final int ROUNDS = 20;
+
+    // Confirming goes through ParkingService, booking through ReactiveParkingService; H2 has no exclusion
+    // constraint to catch what the two let through, so only their shared row lock keeps the hold's range
+    @Test
+    void whenAHoldIsConfirmedWhileItsRangeIsBooked_thenTheHoldWins() throws Exception {
+        long slotId = availableSlots(provisionFloor(1)).get(0).slotId();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime start = START.plusDays(round);
+                LocalDateTime end = END.plusDays(round);
+                String token = restTemplate.postForObject("/api/holds", reservation(slotId, start, end, null), HoldDTO.class).token();
+                CountDownLatch go = new CountDownLatch(1);
+                Future<HttpStatusCode> confirmed = executor.submit(() -> {
+                    go.await();
+                    return restTemplate.postForEntity("/api/holds/{token}/confirm", null, String.class, token).getStatusCode();
+                });
+                Future<HttpStatusCode> booked = executor.submit(() -> {
+                    go.await();
+                    return reserve(slotId, start, end, null, String.class).getStatusCode();
+                });
+                go.countDown();
+
+                assertEquals(HttpStatus.OK, confirmed.get(), "confirm in round " + round);
+                assertEquals(HttpStatus.CONFLICT, booked.get(), "booking in round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.admission;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void whenAtTheLimit_thenFurtherRequestsAreShedUntilOneFinishes() {
+        AdaptiveLimit limit = new AdaptiveLimit("reads", 2, 1, 10, Duration.ofMillis(100), 0.5, meterRegistry);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(1.0, meterRegistry.get("parking.admission.rejected").tag("budget", "reads").counter().count());
+
+        limit.release(0, FAST);
+        assertTrue(limit.tryAcquire());
+        assertEquals(2.0, meterRegistry.get("parking.admission.inflight").tag("budget", "reads").gauge().value());
+    }
+
+    @Test
+    void whenRequestsRunSlow_thenTheLimitBacksOffOncePerRoundAndRegrowsWhenTheyRecover() {
+        AdaptiveLimit limit = new AdaptiveLimit("writes", 8, 2, 16, Duration.ofMillis(100), 0.5, meterRegistry);
+        for (int i = 0; i < 8; i++) {
+            limit.tryAcquire();
+        }
+        // Eight slow requests admitted together back off once, not eight times
+        for (int i = 0; i < 8; i++) {
+            limit.release(0, SLOW);
+        }
+        assertEquals(4, limit.limit());
+        // One admitted after that cut may cut again, but never below the minimum
+        for (int round = 1; round <= 3; round++) {
+            limit.tryAcquire();
+            limit.release(round * SLOW, (round + 1) * SLOW);
+        }
+        assertEquals(2, limit.limit());
+
+        // Fast requests add a fraction each while the limit is in use, but not past twice what is in use
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+            limit.tryAcquire();
+            limit.release(10 * SLOW, 10 * SLOW + FAST);
+            limit.release(10 * SLOW, 10 * SLOW + FAST);
+        }
+        assertEquals(4, limit.limit());
+        assertEquals(4.0, meterRegistry.get("parking.admission.limit").tag("budget", "writes").gauge().value());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.admission;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.demo.exception.GlobalExceptionHandler;
+import com.example.demo.metrics.ParkingMetrics;
+
+class AdmissionControlTest {
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch proceed = new CountDownLatch(1);
+    private AdmissionControl admission;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // One request at a time in each class, so the second one in is over the limit
+        admission = new AdmissionControl(new SimpleMeterRegistry(), 1, 1, 1, Duration.ofSeconds(10),
+            1, 1, 1, Duration.ofSeconds(10), 0.9, Duration.ofSeconds(2));
+        mockMvc = MockMvcBuilders.standaloneSetup(new StubController())
+            .addInterceptors(admission)
+            .setControllerAdvice(new GlobalExceptionHandler(new ParkingMetrics(new SimpleMeterRegistry())))
+            .build();
+    }
+
+    @Test
+    void whenAClassIsAtItsLimit_thenRequestsToAnyOfItsPatternsAreShedUntilTheAdmittedOneCompletes() throws Exception {
+        AdaptiveLimit reads = admission.limitFor("GET /api/reservations/{id}");
+        CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(() -> perform(get("/api/reservations/1")));
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        assertEquals(1, reads.inFlight());
+
+        // Another path, the same pattern and so the same class
+        mockMvc.perform(get("/api/reservations/2"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+        // Another pattern of the same class
+        mockMvc.perform(get("/api/availability")).andExpect(status().isServiceUnavailable());
+        // Writes have a limit of their own, and unlisted endpoints none
+        mockMvc.perform(post("/api/reserve")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/reservations/export")).andExpect(status().isOk());
+
+        proceed.countDown();
+        assertEquals(200, slow.get(10, TimeUnit.SECONDS));
+        assertEquals(0, reads.inFlight());
+        mockMvc.perform(get("/api/reservations/2")).andExpect(status().isOk());
+    }
+
+    @Test
+    void whenTheHandlerFails_thenTheAdmittedRequestIsStillReleased() throws Exception {
+        AdaptiveLimit writes = admission.limitFor("POST /api/reserve");
+        mockMvc.perform(post("/api/reservations/batch")).andExpect(status().isBadRequest());
+        assertEquals(0, writes.inFlight());
+        mockMvc.perform(post("/api/reserve")).andExpect(status().isOk());
+        assertEquals(0, writes.inFlight());
+    }
+
+    private int perform(RequestBuilder request) {
+        try {
+            return mockMvc.perform(request).andReturn().getResponse().getStatus();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @RestController
+    class StubController {
+
+        @GetMapping("/api/reservations/{id}")
+        String reservation(@PathVariable String id) throws InterruptedException {
+            if ("1".equals(id)) {
+                entered.countDown();
+                proceed.await(10, TimeUnit.SECONDS);
+            }
+            return id;
+        }
+
+        @GetMapping("/api/reservations/export")
+        String export() {
+            return "export";
+        }
+
+        @GetMapping("/api/availability")
+        String availability() {
+            return "[]";
+        }
+
+        @PostMapping("/api/reserve")
+        String reserve() {
+            return "reserved";
+        }
+
+        @PostMapping("/api/reservations/batch")
+        String batch() {
+            throw new IllegalArgumentException("Empty batch");
+        }
+    }
+}
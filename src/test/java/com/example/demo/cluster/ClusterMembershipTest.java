@@ -0,0 +1,57 @@
+package com.example.demo.cluster;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.event.ShardOwnershipChangedEvent;
+import com.example.demo.repository.ClusterMemberRepository;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClusterMembershipTest {
+
+    @Autowired
+    private ClusterMemberRepository memberRepository;
+
+    private final List<Object> events = new ArrayList<>();
+
+    @Test
+    void whenInstancesJoinAndLeave_thenEverySlotHasExactlyOneOwnerAtEachStep() {
+        ClusterMembership a = member("a", "http://a:8080/");
+        a.join();
+        ClusterMembership b = member("b", "http://b:8080");
+        b.join();
+        a.heartbeat();
+
+        int ownedByA = 0;
+        for (long slotId = 1; slotId <= 1_000; slotId++) {
+            assertTrue(a.owns(slotId) != b.owns(slotId));
+            if (a.owns(slotId)) {
+                ownedByA++;
+                assertEquals("http://a:8080", b.ownerUrl(slotId).orElseThrow());
+                assertTrue(a.ownerUrl(slotId).isEmpty());
+            }
+        }
+        assertTrue(ownedByA > 300 && ownedByA < 700, "a owns " + ownedByA);
+
+        b.leave();
+        a.heartbeat();
+        assertTrue(a.owns(42));
+        assertEquals(List.of(new ShardOwnershipChangedEvent(List.of("a")), new ShardOwnershipChangedEvent(List.of("a", "b")),
+            new ShardOwnershipChangedEvent(List.of("a", "b")), new ShardOwnershipChangedEvent(List.of("a"))), events);
+    }
+
+    private ClusterMembership member(String id, String url) {
+        return new ClusterMembership(memberRepository, events::add, id, url, Duration.ofSeconds(10), Clock.systemDefaultZone());
+    }
+}
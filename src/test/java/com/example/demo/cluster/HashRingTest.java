@@ -0,0 +1,44 @@
+package com.example.demo.cluster;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class HashRingTest {
+
+    private static final int SLOTS = 100_000;
+
+    @Test
+    void whenSlotsAreSpread_thenEachMemberOwnsRoughlyItsShare() {
+        HashRing ring = HashRing.of(List.of("c", "a", "b", "d"));
+        Map<String, Integer> counts = new HashMap<>();
+        for (long slotId = 1; slotId <= SLOTS; slotId++) {
+            counts.merge(ring.ownerOf(slotId), 1, Integer::sum);
+        }
+        assertEquals(List.of("a", "b", "c", "d"), ring.members());
+        for (int count : counts.values()) {
+            assertTrue(Math.abs(count - SLOTS / 4) < SLOTS / 4 / 4, "shard of " + count);
+        }
+    }
+
+    @Test
+    void whenAMemberJoins_thenOnlySlotsMovingToItChangeOwner() {
+        HashRing before = HashRing.of(List.of("a", "b", "c"));
+        HashRing after = HashRing.of(List.of("a", "b", "c", "d"));
+        int moved = 0;
+        for (long slotId = 1; slotId <= SLOTS; slotId++) {
+            String owner = after.ownerOf(slotId);
+            if (!owner.equals(before.ownerOf(slotId))) {
+                assertEquals("d", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > SLOTS / 8 && moved < SLOTS / 3, "moved " + moved);
+        assertNull(HashRing.of(List.of()).ownerOf(1));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.cluster;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestClient;
+
+import com.example.demo.idempotency.IdempotentRequests;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class ShardRoutingFilterTest {
+
+    private static final String BOOKING = "{\"slotId\":42,\"vehicleNumber\":\"KA01AB1234\"}";
+
+    @Mock
+    private ClusterMembership membership;
+
+    private MockRestServiceServer owner;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder restClient = RestClient.builder();
+        owner = MockRestServiceServer.bindTo(restClient).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(new LocalController())
+            .addFilters(new ShardRoutingFilter(membership, new ObjectMapper(), restClient))
+            .build();
+    }
+
+    @Test
+    void whenAnotherInstanceOwnsTheSlot_thenItsResponseIsRelayedWithItsHeaders() throws Exception {
+        when(membership.ownerUrl(42)).thenReturn(Optional.of("http://owner:8080"));
+        when(membership.instanceId()).thenReturn("here");
+        owner.expect(requestTo("http://owner:8080/api/reserve"))
+            .andExpect(method(HttpMethod.POST))
+            .andExpect(MockRestRequestMatchers.header(ShardRoutingFilter.FORWARDED_HEADER, "here"))
+            .andExpect(MockRestRequestMatchers.header(IdempotentRequests.HEADER, "retry-1"))
+            .andExpect(MockRestRequestMatchers.content().json(BOOKING))
+            .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.RETRY_AFTER, "3")
+                .header(HttpHeaders.CONNECTION, "close")
+                .body("{\"error\":\"overloaded\"}"));
+
+        mockMvc.perform(post("/api/reserve").contentType(MediaType.APPLICATION_JSON).content(BOOKING)
+                .header(IdempotentRequests.HEADER, "retry-1"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+            .andExpect(header().doesNotExist(HttpHeaders.CONNECTION))
+            .andExpect(content().json("{\"error\":\"overloaded\"}"));
+        owner.verify();
+    }
+
+    @Test
+    void whenTheRequestWasAlreadyForwarded_thenItIsHandledHere() throws Exception {
+        mockMvc.perform(post("/api/reserve").contentType(MediaType.APPLICATION_JSON).content(BOOKING)
+                .header(ShardRoutingFilter.FORWARDED_HEADER, "elsewhere"))
+            .andExpect(status().isOk())
+            .andExpect(content().string("local " + BOOKING));
+        verifyNoInteractions(membership);
+        owner.verify();
+    }
+
+    @Test
+    void whenTheOwnerIsUnreachable_thenTheRequestIsHandledHereWithItsBody() throws Exception {
+        when(membership.ownerUrl(42)).thenReturn(Optional.of("http://owner:8080"));
+        when(membership.instanceId()).thenReturn("here");
+        owner.expect(requestTo("http://owner:8080/api/reserve"))
+            .andRespond(withException(new IOException("Connection refused")));
+
+        mockMvc.perform(post("/api/reserve").contentType(MediaType.APPLICATION_JSON).content(BOOKING))
+            .andExpect(status().isOk())
+            .andExpect(content().string("local " + BOOKING));
+        owner.verify();
+    }
+
+    @RestController
+    static class LocalController {
+        @PostMapping("/api/reserve")
+        String reserve(@RequestBody String body) {
+            return "local " + body;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The permit limiter under a burst of virtual threads against a small Hikari pool: every caller is served
+ * without a pool timeout and no more connections than permits are ever in use.
+ */
+class PermitLimitedDataSourceTest {
+
+    private static final int POOL_SIZE = 4;
+    private static final int REQUESTS = 2_000;
+    private static final long QUERY_MILLIS = 2;
+
+    private HikariDataSource hikari;
+
+    @BeforeEach
+    void setUp() {
+        hikari = new HikariDataSource();
+        hikari.setJdbcUrl("jdbc:h2:mem:permits;DB_CLOSE_DELAY=-1");
+        hikari.setMaximumPoolSize(POOL_SIZE);
+        hikari.setConnectionTimeout(10_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hikari.close();
+    }
+
+    @Test
+    void whenConnectionIsClosed_thenPermitIsReturnedOnce() throws SQLException {
+        PermitLimitedDataSource dataSource = new PermitLimitedDataSource(hikari, POOL_SIZE, Duration.ofSeconds(1));
+        Connection connection = dataSource.getConnection();
+        assertEquals(POOL_SIZE - 1, dataSource.getAvailablePermits());
+        connection.close();
+        connection.close();
+        assertEquals(POOL_SIZE, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void whenVirtualThreadsBurst_thenConnectionsInUseNeverExceedPermits() throws InterruptedException {
+        PermitLimitedDataSource dataSource = new PermitLimitedDataSource(hikari, POOL_SIZE, Duration.ofSeconds(30));
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger peakInUse = new AtomicInteger();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < REQUESTS; i++) {
+            executor.submit(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    peakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                    connection.createStatement().execute("SELECT 1");
+                    Thread.sleep(QUERY_MILLIS);
+                    inUse.decrementAndGet();
+                } catch (SQLException e) {
+                    failures.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(0, failures.get());
+        assertTrue(peakInUse.get() <= POOL_SIZE, "Peak of " + peakInUse.get() + " connections exceeds " + POOL_SIZE + " permits");
+        assertEquals(POOL_SIZE, dataSource.getAvailablePermits());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.config;
+
+import java.sql.Connection;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.jdbc.DataSourcePoolMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The virtual-thread wiring puts the permit limiter in front of Hikari without hiding the pool: it can still
+ * be looked up by type and its Micrometer gauges are still registered.
+ */
+class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        // SpringApplication installs this; the runner does not, and @Value Durations need it
+        .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+        .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class, MetricsAutoConfiguration.class,
+            SimpleMetricsExportAutoConfiguration.class, CompositeMeterRegistryAutoConfiguration.class,
+            DataSourcePoolMetricsAutoConfiguration.class))
+        .withUserConfiguration(VirtualThreadConfig.class)
+        .withPropertyValues("spring.datasource.url=jdbc:h2:mem:virtual-threads;DB_CLOSE_DELAY=-1",
+            "spring.datasource.hikari.maximum-pool-size=3");
+
+    @Test
+    void whenVirtualThreadsAreEnabled_thenPrimaryDataSourceIsLimitedAndHikariStaysVisible() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            PermitLimitedDataSource dataSource = assertInstanceOf(PermitLimitedDataSource.class, context.getBean(DataSource.class));
+            HikariDataSource hikari = context.getBean(HikariDataSource.class);
+            assertSame(hikari, dataSource.getTargetDataSource());
+            assertEquals(3, dataSource.getAvailablePermits());
+
+            try (Connection connection = dataSource.getConnection()) {
+                assertEquals(2, dataSource.getAvailablePermits());
+            }
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            assertNotNull(registry.find("hikaricp.connections.max").gauge());
+            assertEquals(3.0, registry.get("hikaricp.connections.max").gauge().value());
+        });
+    }
+
+    @Test
+    void whenVirtualThreadsAreDisabled_thenHikariIsThePlainDataSource() {
+        contextRunner.run(context -> assertInstanceOf(HikariDataSource.class, context.getBean(DataSource.class)));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.demo.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.example.demo.dto.BulkSlotResultDTO;
+import com.example.demo.dto.QuoteDTO;
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.idempotency.IdempotentRequests;
+
+/**
+ * The booking API end to end, over HTTP against the running application and its database. Each subclass
+ * boots one web stack, so the servlet and the reactive controllers are held to the same behaviour.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+abstract class AbstractParkingApiTest {
+
+    static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+    static final LocalDateTime END = START.plusHours(2);
+    private static final ParameterizedTypeReference<List<SlotAvailabilityDTO>> SLOTS = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<Map<String, String>> ERROR = new ParameterizedTypeReference<>() {
+    };
+
+    // Floor numbers are unique, and the context and its database are shared by the tests of a class
+    private static final AtomicInteger floorNumbers = new AtomicInteger();
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Test
+    void whenASlotIsBooked_thenItIsUnavailableUntilCancelled() {
+        long floorId = provisionFloor(2);
+        List<SlotAvailabilityDTO> free = availableSlots(floorId);
+        assertEquals(2, free.size());
+        long slotId = free.get(0).slotId();
+
+        ResponseEntity<ReservationDTO> reserved = reserve(slotId, START, END, null, ReservationDTO.class);
+        assertEquals(HttpStatus.OK, reserved.getStatusCode());
+        ReservationDTO reservation = reserved.getBody();
+        assertNotNull(reservation.id());
+        assertEquals(slotId, reservation.slotId());
+        assertEquals(List.of(free.get(1)), availableSlots(floorId));
+
+        ResponseEntity<ReservationDTO> details = restTemplate.getForEntity("/api/reservations/{id}", ReservationDTO.class,
+            reservation.id());
+        assertEquals(HttpStatus.OK, details.getStatusCode());
+        assertEquals(reservation, details.getBody());
+
+        ResponseEntity<Void> cancelled = restTemplate.exchange("/api/reservations/{id}", HttpMethod.DELETE, null, Void.class,
+            reservation.id());
+        assertEquals(HttpStatus.NO_CONTENT, cancelled.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+            restTemplate.getForEntity("/api/reservations/{id}", String.class, reservation.id()).getStatusCode());
+        assertEquals(free, availableSlots(floorId));
+    }
+
+    @Test
+    void whenTheSlotIsAlreadyBooked_thenAnOverlappingBookingReturns409() {
+        long slotId = availableSlots(provisionFloor(1)).get(0).slotId();
+        assertEquals(HttpStatus.OK, reserve(slotId, START, END, null, ReservationDTO.class).getStatusCode());
+
+        ResponseEntity<Map<String, String>> overlapping = reserve(slotId, START.plusHours(1), END.plusHours(1), null, ERROR);
+
+        assertEquals(HttpStatus.CONFLICT, overlapping.getStatusCode());
+        assertTrue(overlapping.getBody().containsKey("error"));
+        // Back to back is not an overlap
+        assertEquals(HttpStatus.OK, reserve(slotId, END, END.plusHours(1), null, ReservationDTO.class).getStatusCode());
+    }
+
+    @Test
+    void whenReservedWithAnIdempotencyKey_thenARetryReturnsTheFirstReservation() {
+        long slotId = availableSlots(provisionFloor(1)).get(0).slotId();
+        String key = "retry-" + slotId;
+
+        ReservationDTO first = reserve(slotId, START, END, key, ReservationDTO.class).getBody();
+        ResponseEntity<ReservationDTO> retried = reserve(slotId, START, END, key, ReservationDTO.class);
+
+        assertEquals(HttpStatus.OK, retried.getStatusCode());
+        assertEquals(first, retried.getBody());
+        // Only one booking was made, so another one for the same time still conflicts with it
+        assertEquals(HttpStatus.CONFLICT, reserve(slotId, START, END, null, ERROR).getStatusCode());
+    }
+
+    @Test
+    void whenTheVehicleNumberIsInvalid_thenReturns400NamingTheField() {
+        long slotId = availableSlots(provisionFloor(1)).get(0).slotId();
+
+        ResponseEntity<Map<String, String>> response = restTemplate.exchange("/api/reserve", HttpMethod.POST,
+            new HttpEntity<>(Map.of("slotId", slotId, "startTime", START.toString(), "endTime", END.toString(),
+                "vehicleNumber", "INVALID-123", "vehicleType", "FOUR_WHEELER")), ERROR);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(response.getBody().containsKey("vehicleNumber"));
+    }
+
+    @Test
+    void whenTheTimeRangeIsEmpty_thenReturns400() {
+        long slotId = availableSlots(provisionFloor(1)).get(0).slotId();
+
+        assertEquals(HttpStatus.BAD_REQUEST, reserve(slotId, END, START, null, ERROR).getStatusCode());
+    }
+
+    @Test
+    void whenTheSlotDoesNotExist_thenReturns404() {
+        assertEquals(HttpStatus.NOT_FOUND, reserve(Long.MAX_VALUE, START, END, null, ERROR).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+            restTemplate.getForEntity("/api/reservations/{id}", String.class, Long.MAX_VALUE).getStatusCode());
+    }
+
+    @Test
+    void whenABookingIsQuotedFirst_thenItCostsWhatWasQuoted() {
+        long floorId = provisionFloor(1);
+        long slotId = availableSlots(floorId).get(0).slotId();
+
+        QuoteDTO quote = restTemplate.getForObject("/api/quote?startTime={start}&endTime={end}&vehicleType=FOUR_WHEELER&floorId={floorId}",
+            QuoteDTO.class, START, END, floorId);
+        ReservationDTO reservation = reserve(slotId, START, END, null, ReservationDTO.class).getBody();
+
+        assertTrue(quote.cost() > 0);
+        assertEquals(quote.cost(), reservation.cost());
+    }
+
+    @Test
+    void whenAFloorNumberIsTaken_thenCreatingAnotherFloorWithItReturns409WhileProvisioningReusesIt() {
+        long floorId = provisionFloor(1);
+        int floorNumber = floorNumbers.get();
+
+        ResponseEntity<Map<String, String>> created = restTemplate.exchange("/api/floors", HttpMethod.POST,
+            new HttpEntity<>(Map.of("floorNumber", floorNumber)), ERROR);
+        ResponseEntity<BulkSlotResultDTO> provisioned = restTemplate.postForEntity("/api/floors/provision",
+            Map.of("floorNumber", floorNumber, "slots", Map.of("count", 2)), BulkSlotResultDTO.class);
+
+        assertEquals(HttpStatus.CONFLICT, created.getStatusCode());
+        assertEquals(HttpStatus.OK, provisioned.getStatusCode());
+        assertEquals(floorId, provisioned.getBody().floorId());
+        assertEquals(1, provisioned.getBody().created());
+        assertEquals(1, provisioned.getBody().existing());
+    }
+
+    long provisionFloor(int slots) {
+        ResponseEntity<BulkSlotResultDTO> response = restTemplate.postForEntity("/api/floors/provision",
+            Map.of("floorNumber", floorNumbers.incrementAndGet(), "slots", Map.of("count", slots)), BulkSlotResultDTO.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(slots, response.getBody().created());
+        return response.getBody().floorId();
+    }
+
+    List<SlotAvailabilityDTO> availableSlots(long floorId) {
+        ResponseEntity<List<SlotAvailabilityDTO>> response = restTemplate.exchange(
+            "/api/availability?startTime={start}&endTime={end}&floorId={floorId}", HttpMethod.GET, null, SLOTS,
+            START, END, floorId);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+
+    <T> ResponseEntity<T> reserve(long slotId, LocalDateTime start, LocalDateTime end, String idempotencyKey,
+                                  Class<T> type) {
+        return restTemplate.exchange("/api/reserve", HttpMethod.POST, reservation(slotId, start, end, idempotencyKey), type);
+    }
+
+    private <T> ResponseEntity<T> reserve(long slotId, LocalDateTime start, LocalDateTime end, String idempotencyKey,
+                                          ParameterizedTypeReference<T> type) {
+        return restTemplate.exchange("/api/reserve", HttpMethod.POST, reservation(slotId, start, end, idempotencyKey), type);
+    }
+
+    static HttpEntity<Map<String, Object>> reservation(long slotId, LocalDateTime start, LocalDateTime end,
+                                                       String idempotencyKey) {
+        HttpHeaders headers = new HttpHeaders();
+        if (idempotencyKey != null) {
+            headers.set(IdempotentRequests.HEADER, idempotencyKey);
+        }
+        return new HttpEntity<>(Map.of("slotId", slotId, "startTime", start.toString(), "endTime", end.toString(),
+            "vehicleNumber", "KA01AB1234", "vehicleType", "FOUR_WHEELER"), headers);
+    }
+}
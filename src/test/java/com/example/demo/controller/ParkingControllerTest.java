@@ -1,13 +1,24 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.exception.JournalUnavailableException;
+import com.example.demo.exception.OverloadedException;
+import com.example.demo.exception.SlotConflictException;
+import com.example.demo.idempotency.IdempotentRequests;
+import com.example.demo.metrics.ParkingMetrics;
 import com.example.demo.model.ParkingFloor;
-import com.example.demo.model.Reservation;
-import com.example.demo.model.Slot;
 import com.example.demo.model.VehicleType;
-import com.example.demo.repository.SlotRepository;
+import com.example.demo.service.AvailabilityFeed;
+import com.example.demo.service.GateService;
 import com.example.demo.service.ParkingService;
+import com.example.demo.service.ReservationExportService;
+import com.example.demo.service.SlotProvisioningService;
+import com.example.demo.service.TariffService;
+import com.example.demo.service.UsageRollupService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,12 +27,23 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -35,7 +57,28 @@ class ParkingControllerTest {
     private ParkingService parkingService;
 
     @MockBean
-    private SlotRepository slotRepository; // This is also needed by the controller
+    private ReservationExportService reservationExportService;
+
+    @MockBean
+    private TariffService tariffService;
+
+    @MockBean
+    private SlotProvisioningService slotProvisioningService;
+
+    @MockBean
+    private AvailabilityFeed availabilityFeed;
+
+    @MockBean
+    private GateService gateService;
+
+    @MockBean
+    private UsageRollupService usageRollupService;
+
+    @MockBean
+    private IdempotentRequests idempotentRequests;
+
+    @MockBean
+    private ParkingMetrics parkingMetrics; // Needed by GlobalExceptionHandler
 
     private ObjectMapper objectMapper = new ObjectMapper();
 
@@ -61,18 +104,21 @@ class ParkingControllerTest {
                 .andExpect(jsonPath("$.floorNumber").value(1));
     }
 
+    @Test
+    void whenOverloaded_thenReturns503WithRetryAfter() throws Exception {
+        when(parkingService.getReservationDetails(1L))
+                .thenThrow(new OverloadedException("Too many reads in progress; retry shortly.", Duration.ofMillis(1500)));
+
+        mockMvc.perform(get("/api/reservations/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.error").value("Too many reads in progress; retry shortly."));
+    }
+
     @Test
     void whenGetReservationDetails_withValidId_thenReturns200() throws Exception {
-        Slot testSlot = new Slot();
-        testSlot.setId(1L);
-        Reservation sampleReservation = new Reservation();
-        sampleReservation.setId(1L);
-        sampleReservation.setSlot(testSlot);
-        sampleReservation.setVehicleNumber("TS09AB1234");
-        sampleReservation.setVehicleType(VehicleType.TWO_WHEELER);
-        sampleReservation.setStartTime(LocalDateTime.of(2025, 9, 25, 10, 0));
-        sampleReservation.setEndTime(LocalDateTime.of(2025, 9, 25, 11, 0));
-        sampleReservation.setCost(20.0);
+        ReservationDTO sampleReservation = new ReservationDTO(1L, 1L, LocalDateTime.of(2025, 9, 25, 10, 0),
+                LocalDateTime.of(2025, 9, 25, 11, 0), "TS09AB1234", VehicleType.TWO_WHEELER, 20.0);
 
         when(parkingService.getReservationDetails(1L)).thenReturn(sampleReservation);
         
@@ -82,6 +128,18 @@ class ParkingControllerTest {
                 .andExpect(jsonPath("$.vehicleNumber").value("TS09AB1234"));
     }
 
+    @Test
+    void whenGetAvailability_thenOnlySlotAndFloorNumbersAreReturned() throws Exception {
+        when(parkingService.getAvailableSlots(any(), any(), any(), any(), anyLong(), anyInt()))
+                .thenReturn(List.of(new SlotAvailabilityDTO(7L, 101, 2)));
+
+        mockMvc.perform(get("/api/availability")
+                        .param("startTime", "2030-01-01T09:00:00")
+                        .param("endTime", "2030-01-01T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"slotId\":7,\"slotNumber\":101,\"floorNumber\":2}]", true));
+    }
+
     @Test
     void whenReserveSlot_withInvalidVehicleNumber_thenReturns400() throws Exception {
         String invalidReservationJson = "{\"slotId\":1,\"startTime\":\"2025-10-20T10:00:00\",\"endTime\":\"2025-10-20T12:00:00\",\"vehicleNumber\":\"INVALID-123\",\"vehicleType\":\"FOUR_WHEELER\"}";
@@ -92,6 +150,79 @@ class ParkingControllerTest {
                 .andExpect(status().isBadRequest()); // Expect Bad Request due to validation failure
     }
 
+    @Test
+    void whenReserveSlot_overlapsABooking_thenReturns409AndCountsTheOverlap() throws Exception {
+        String reservationJson = "{\"slotId\":1,\"startTime\":\"2030-01-01T10:00:00\",\"endTime\":\"2030-01-01T12:00:00\",\"vehicleNumber\":\"KA01AB1234\",\"vehicleType\":\"FOUR_WHEELER\"}";
+        when(parkingService.reserveSlot(any())).thenThrow(
+                new SlotConflictException("overlap", "Slot is already booked for the selected time range."));
+
+        mockMvc.perform(post("/api/reserve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(reservationJson))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Slot is already booked for the selected time range."));
+        verify(parkingMetrics).recordConflict("overlap");
+    }
+
+    @Test
+    void whenTheJournalCannotSync_thenReturns503AndNoConflictIsCounted() throws Exception {
+        String reservationJson = "{\"slotId\":1,\"startTime\":\"2030-01-01T10:00:00\",\"endTime\":\"2030-01-01T12:00:00\",\"vehicleNumber\":\"KA01AB1234\",\"vehicleType\":\"FOUR_WHEELER\"}";
+        when(parkingService.reserveSlot(any())).thenThrow(
+                new JournalUnavailableException("The reservation journal failed to sync and no longer accepts writes."));
+
+        mockMvc.perform(post("/api/reserve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(reservationJson))
+                .andExpect(status().isServiceUnavailable());
+        verifyNoInteractions(parkingMetrics);
+    }
+
+    @Test
+    void whenAnotherIllegalStateIsThrown_thenItIsNotReportedAsAConflict() {
+        when(parkingService.getReservationDetails(1L)).thenThrow(new IllegalStateException("Could not read the stored response"));
+
+        ServletException exception = assertThrows(ServletException.class, () -> mockMvc.perform(get("/api/reservations/1")));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        verifyNoInteractions(parkingMetrics);
+    }
+
+    @Test
+    void whenReserveSlot_withIdempotencyKey_thenTheStoredOutcomeIsReturned() throws Exception {
+        String reservationJson = "{\"slotId\":1,\"startTime\":\"2030-01-01T10:00:00\",\"endTime\":\"2030-01-01T12:00:00\",\"vehicleNumber\":\"KA01AB1234\",\"vehicleType\":\"FOUR_WHEELER\"}";
+        when(idempotentRequests.execute(eq("retry-1"), any(), eq(ReservationDTO.class), any())).thenReturn(
+                new ReservationDTO(5L, 1L, LocalDateTime.of(2030, 1, 1, 10, 0), LocalDateTime.of(2030, 1, 1, 12, 0),
+                        "KA01AB1234", VehicleType.FOUR_WHEELER, 60.0));
+
+        mockMvc.perform(post("/api/reserve")
+                .header(IdempotentRequests.HEADER, "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(reservationJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(5));
+        verifyNoInteractions(parkingService);
+    }
+
+    @Test
+    void whenReplaceTariffs_withNegativeRate_thenReturns400() throws Exception {
+        String tariffJson = "{\"rules\":[{\"startTime\":\"08:00\",\"endTime\":\"18:00\",\"hourlyRate\":-1}]}";
+
+        mockMvc.perform(put("/api/tariffs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(tariffJson))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(tariffService);
+    }
+
+    @Test
+    void whenBulkSlots_withBothCountAndList_thenReturns400() throws Exception {
+        mockMvc.perform(post("/api/floors/1/slots/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"count\":10,\"slots\":[{\"slotNumber\":1}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.countOrList").exists());
+        verifyNoInteractions(slotProvisioningService);
+    }
+
     @Test
     void whenCancelReservation_thenReturns204() throws Exception {
         doNothing().when(parkingService).cancelReservation(1L);
@@ -0,0 +1,8 @@
+package com.example.demo.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+// The booking API on the default servlet stack
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:servlet-api;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+class ServletParkingApiTest extends AbstractParkingApiTest {
+}
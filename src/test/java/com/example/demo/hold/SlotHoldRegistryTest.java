@@ -0,0 +1,114 @@
+package com.example.demo.hold;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.demo.event.SlotHeldEvent;
+import com.example.demo.event.SlotHoldReleasedEvent;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+
+class SlotHoldRegistryTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    private final List<Object> events = new ArrayList<>();
+    private final MutableClock clock = new MutableClock(Instant.parse("2030-01-01T08:00:00Z"));
+    private SlotHoldRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SlotHoldRegistry(events::add, new SimpleMeterRegistry(), Duration.ofMinutes(5),
+            Duration.ofMillis(100), clock);
+    }
+
+    @Test
+    void whenHoldRunsOut_thenItIsReleasedOnTheNextTick() {
+        SlotHold hold = registry.place(reservation(1L, NINE, NINE.plusHours(2)));
+        assertTrue(registry.conflicts(1L, NINE.plusHours(1), NINE.plusHours(3)));
+        assertFalse(registry.conflicts(1L, NINE.plusHours(2), NINE.plusHours(3)));
+        assertFalse(registry.conflicts(2L, NINE, NINE.plusHours(2)));
+
+        clock.advance(Duration.ofMinutes(4));
+        registry.tick();
+        assertEquals(hold, registry.find(hold.token()).orElseThrow());
+
+        clock.advance(Duration.ofMinutes(1));
+        // Already treated as gone before the wheel gets to it
+        assertFalse(registry.conflicts(1L, NINE, NINE.plusHours(2)));
+        registry.tick();
+        assertEquals(List.of(new SlotHeldEvent(hold), new SlotHoldReleasedEvent(hold)), events);
+        assertTrue(registry.find(hold.token()).isEmpty());
+    }
+
+    @Test
+    void whenTakenAndRestored_thenItKeepsItsExpiryAndIsReleasedOnlyOnce() {
+        SlotHold hold = registry.place(reservation(1L, NINE, NINE.plusHours(2)));
+        clock.advance(Duration.ofMinutes(2));
+        assertEquals(hold, registry.take(hold.token()).orElseThrow());
+        assertFalse(registry.conflicts(1L, NINE, NINE.plusHours(2)));
+        assertTrue(registry.take(hold.token()).isEmpty());
+
+        registry.restore(hold);
+        assertTrue(registry.conflicts(1L, NINE, NINE.plusHours(2)));
+        clock.advance(Duration.ofMinutes(3));
+        registry.tick();
+        assertFalse(registry.release(hold.token()));
+        assertEquals(4, events.size());
+    }
+
+    private static Reservation reservation(Long slotId, LocalDateTime start, LocalDateTime end) {
+        Slot slot = new Slot();
+        slot.setId(slotId);
+        Reservation reservation = new Reservation();
+        reservation.setSlot(slot);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        reservation.setVehicleNumber("KA01AB1234");
+        reservation.setVehicleType(VehicleType.FOUR_WHEELER);
+        reservation.setCost(60.0);
+        return reservation;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.hold;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    @Test
+    void whenAdvanced_thenItemsExpireOnTheirTickAndCancelledOnesNever() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), Duration.ofSeconds(1), 0);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 900);
+        wheel.schedule("c", 250).cancel();
+        // Longer than the wheel spans, so it stays in its bucket for a further rotation
+        wheel.schedule("d", 2_500);
+
+        wheel.advance(200, expired::add);
+        assertEquals(List.of(), expired);
+        wheel.advance(300, expired::add);
+        assertEquals(List.of("a"), expired);
+        wheel.advance(1_000, expired::add);
+        assertEquals(List.of("a", "b"), expired);
+        wheel.advance(2_400, expired::add);
+        assertEquals(List.of("a", "b"), expired);
+        wheel.advance(2_500, expired::add);
+        assertEquals(List.of("a", "b", "d"), expired);
+    }
+
+    @Test
+    void whenScheduledInThePast_thenItExpiresOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), Duration.ofSeconds(1), 0);
+        List<String> expired = new ArrayList<>();
+        wheel.advance(5_000, expired::add);
+        wheel.schedule("late", 1_000);
+        wheel.advance(5_100, expired::add);
+        assertEquals(List.of("late"), expired);
+        assertEquals(16, wheel.bucketCount());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.demo.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.model.IdempotencyRecord;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class IdempotentRequestsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    private final IdempotencyRecordRepository recordRepository = mock(IdempotencyRecordRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final IdempotentRequests requests = new IdempotentRequests(recordRepository, objectMapper,
+        new SimpleMeterRegistry(), Duration.ofHours(24), 1_000, Clock.systemDefaultZone());
+
+    @Test
+    void whenDuplicatesArriveWhileTheFirstRuns_thenItRunsOnceAndAllGetItsResponse() throws Exception {
+        when(recordRepository.findByIdempotencyKeyAndExpiresAtAfter(eq("key-1"), any())).thenReturn(Optional.empty());
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] attempts = new Future<?>[4];
+            for (int i = 0; i < attempts.length; i++) {
+                attempts[i] = executor.submit(() -> requests.execute("key-1", "request", ReservationDTO.class, () -> {
+                    runs.incrementAndGet();
+                    await(release);
+                    return reservation(7L);
+                }));
+            }
+            // Let every attempt reach the key before the one running is allowed to finish
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<?> attempt : attempts) {
+                assertEquals(reservation(7L), attempt.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, runs.get());
+        assertEquals(reservation(7L), requests.execute("key-1", "request", ReservationDTO.class, () -> fail("ran again")));
+        verify(recordRepository, times(1)).save(any(IdempotencyRecord.class));
+        assertThrows(IllegalArgumentException.class,
+            () -> requests.execute("key-1", "another request", ReservationDTO.class, () -> reservation(8L)));
+    }
+
+    @Test
+    void whenTheFirstAttemptFails_thenARetryRunsAgain() {
+        when(recordRepository.findByIdempotencyKeyAndExpiresAtAfter(eq("key-2"), any())).thenReturn(Optional.empty());
+        assertThrows(IllegalStateException.class, () -> requests.execute("key-2", "request", ReservationDTO.class, () -> {
+            throw new IllegalStateException("Slot is already booked for the selected time range.");
+        }));
+        verify(recordRepository, never()).save(any(IdempotencyRecord.class));
+        assertEquals(reservation(9L), requests.execute("key-2", "request", ReservationDTO.class, () -> reservation(9L)));
+    }
+
+    @Test
+    void whenTheResponseCannotBeStored_thenARetryIsRefusedInsteadOfRunAgain() {
+        when(recordRepository.findByIdempotencyKeyAndExpiresAtAfter(eq("key-4"), any())).thenReturn(Optional.empty());
+        Object unserializable = new Object();
+        AtomicInteger runs = new AtomicInteger();
+
+        assertEquals(unserializable, requests.execute("key-4", "request", Object.class, () -> {
+            runs.incrementAndGet();
+            return unserializable;
+        }));
+        assertThrows(IllegalStateException.class, () -> requests.execute("key-4", "request", Object.class, () -> {
+            runs.incrementAndGet();
+            return new Object();
+        }));
+        assertEquals(1, runs.get());
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(recordRepository).save(saved.capture());
+        assertEquals(IdempotentRequests.UNSTORED_RESPONSE, saved.getValue().getResponse());
+    }
+
+    @Test
+    void whenOnlyTheTableKnowsTheKey_thenItsStoredResponseIsReplayed() {
+        when(recordRepository.findByIdempotencyKeyAndExpiresAtAfter(eq("key-3"), any())).thenReturn(Optional.empty());
+        requests.execute("key-3", "request", ReservationDTO.class, () -> reservation(11L));
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(recordRepository).save(saved.capture());
+
+        // A restarted process has nothing cached, only the table
+        IdempotencyRecordRepository afterRestart = mock(IdempotencyRecordRepository.class);
+        when(afterRestart.findByIdempotencyKeyAndExpiresAtAfter(eq("key-3"), any())).thenReturn(Optional.of(saved.getValue()));
+        IdempotentRequests restarted = new IdempotentRequests(afterRestart, objectMapper, new SimpleMeterRegistry(),
+            Duration.ofHours(24), 1_000, Clock.systemDefaultZone());
+        assertEquals(reservation(11L), restarted.execute("key-3", "request", ReservationDTO.class, () -> fail("ran again")));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ReservationDTO reservation(long id) {
+        return new ReservationDTO(id, 3L, START, START.plusHours(2), "KA01AB1234", VehicleType.FOUR_WHEELER, 60.0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.journal;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.demo.model.TestReservations.reservation;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.demo.dto.BatchReservationRequestDTO;
+import com.example.demo.dto.BatchReservationResultDTO;
+import com.example.demo.hold.SlotHoldRegistry;
+import com.example.demo.metrics.ParkingMetrics;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.ReservationArchiveRepository;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+import com.example.demo.service.FloorOccupancyIndex;
+import com.example.demo.service.ParkingService;
+import com.example.demo.service.ParkingTopology;
+import com.example.demo.service.PricingEngine;
+import com.example.demo.service.SlotAvailabilityIndex;
+import com.example.demo.service.SlotLockRegistry;
+
+/**
+ * A batch booked while write-behind is on must see single bookings that are acknowledged but still only in
+ * the journal. The drainer is slowed down so the single booking is certainly undrained when the batch runs.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "parking.journal.enabled=true",
+    "parking.journal.drain-interval=1h"
+})
+@Import({ParkingService.class, ParkingTopology.class, SlotAvailabilityIndex.class, FloorOccupancyIndex.class,
+    PricingEngine.class, ReservationArchiveRepository.class, SlotHoldRegistry.class, SlotLockRegistry.class,
+    ParkingMetrics.class, SimpleMeterRegistry.class, JournaledReservationWriter.class, ReservationIdAllocator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JournaledBatchReservationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @TempDir
+    static Path journalDirectory;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("parking.journal.dir", journalDirectory::toString);
+    }
+
+    @Autowired
+    private ParkingService parkingService;
+    @Autowired
+    private SlotAvailabilityIndex availabilityIndex;
+    @Autowired
+    private FloorRepository floorRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Test
+    void whenABatchOverlapsAnUndrainedJournaledBooking_thenTheBatchEntryIsRejected() {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(1);
+        floorRepository.save(floor);
+        Slot slot = new Slot();
+        slot.setSlotNumber(1);
+        slot.setParkingFloor(floor);
+        slotRepository.save(slot);
+        availabilityIndex.rebuild();
+
+        Reservation journaled = parkingService.reserveSlot(reservation(slot, START, START.plusHours(2)));
+
+        BatchReservationResultDTO result = parkingService.reserveBatch(List.of(
+                reservation(slot, START.plusHours(1), START.plusHours(3)),
+                reservation(slot, START.plusHours(3), START.plusHours(4))),
+            BatchReservationRequestDTO.Mode.BEST_EFFORT);
+
+        assertEquals(1, result.rejected().size());
+        assertEquals(0, result.rejected().get(0).index());
+        assertEquals(1, result.reserved().size());
+        assertEquals(START.plusHours(3), result.reserved().get(0).startTime());
+        // Nothing was refused when the journal drained, so the acknowledged booking is still there
+        assertEquals(2, reservationRepository.count());
+        assertEquals(START.plusHours(2), reservationRepository.findById(journaled.getId()).orElseThrow().getEndTime());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.journal;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static com.example.demo.model.TestReservations.reservation;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+import com.example.demo.service.SlotAvailabilityIndex;
+import com.example.demo.service.SlotLockRegistry;
+
+@DataJpaTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "parking.journal.enabled=true"
+})
+@Import({JournaledReservationWriter.class, ReservationIdAllocator.class, SlotAvailabilityIndex.class,
+    SlotLockRegistry.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JournaledReservationWriterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @TempDir
+    static Path journalDirectory;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("parking.journal.dir", journalDirectory::toString);
+    }
+
+    @Autowired
+    private JournaledReservationWriter writer;
+    @Autowired
+    private SlotAvailabilityIndex availabilityIndex;
+    @Autowired
+    private FloorRepository floorRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Test
+    void whenBookedThroughTheJournal_thenOverlapsAreRefusedAndDrainedRowsKeepTheirIds() {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(1);
+        floorRepository.save(floor);
+        Slot slot = new Slot();
+        slot.setSlotNumber(1);
+        slot.setParkingFloor(floor);
+        slotRepository.save(slot);
+        availabilityIndex.rebuild();
+
+        Reservation first = writer.reserve(reservation(slot, START, START.plusHours(2)));
+        Reservation second = writer.reserve(reservation(slot, START.plusHours(2), START.plusHours(3)));
+        assertThrows(IllegalStateException.class,
+            () -> writer.reserve(reservation(slot, START.plusHours(1), START.plusHours(4))));
+
+        writer.drainPending();
+        assertEquals(START.plusHours(2), reservationRepository.findById(first.getId()).orElseThrow().getEndTime());
+        assertEquals("KA01AB1234", reservationRepository.findDetailsById(second.getId()).orElseThrow().vehicleNumber());
+        assertEquals(2, reservationRepository.count());
+        // Ids come from the shared sequence, so a booking made through JPA cannot collide with them
+        reservationRepository.save(reservation(slot, START.plusDays(1), START.plusDays(1).plusHours(1)));
+        assertEquals(3, reservationRepository.count());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.demo.exception.JournalUnavailableException;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+
+class ReservationJournalTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0, 0, 123_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenAppendedAndSynced_thenRecordsReadBackUnchanged() throws IOException {
+        try (ReservationJournal journal = new ReservationJournal(directory, 4)) {
+            for (long id = 1; id <= 6; id++) {
+                journal.awaitDurable(journal.append(reservation(id)));
+            }
+            List<ReservationJournal.Entry> entries = journal.read(0, 10);
+            assertEquals(6, entries.size());
+            assertEquals(5, entries.get(5).seq());
+            Reservation read = entries.get(2).reservation();
+            assertEquals(3L, read.getId());
+            assertEquals(30L, read.getSlot().getId());
+            assertEquals(START, read.getStartTime());
+            assertEquals(START.plusHours(3), read.getEndTime());
+            assertEquals(VehicleType.TWO_WHEELER, read.getVehicleType());
+            assertEquals("KA01AB0003", read.getVehicleNumber());
+            assertEquals(30.0, read.getCost());
+            assertEquals(List.of(4L, 5L), journal.read(4, 2).stream().map(ReservationJournal.Entry::seq).toList());
+        }
+    }
+
+    @Test
+    void whenClosed_thenAppendsAreRefusedAsUnavailable() throws IOException {
+        ReservationJournal journal = new ReservationJournal(directory, 4);
+        journal.close();
+        assertThrows(JournalUnavailableException.class, () -> journal.append(reservation(1)));
+    }
+
+    @Test
+    void whenReopened_thenUndrainedRecordsSurviveAndNumberingContinues() throws IOException {
+        try (ReservationJournal journal = new ReservationJournal(directory, 4)) {
+            for (long id = 1; id <= 6; id++) {
+                journal.awaitDurable(journal.append(reservation(id)));
+            }
+            journal.markDrained(5);
+        }
+        assertEquals(List.of("00000000000000000004.journal", "checkpoint"), fileNames());
+
+        try (ReservationJournal journal = new ReservationJournal(directory, 4)) {
+            assertEquals(5, journal.drainedSeq());
+            assertEquals(1, journal.backlog());
+            assertEquals(6L, journal.read(5, 10).get(0).reservation().getId());
+            assertEquals(6, journal.append(reservation(7)));
+        }
+    }
+
+    @Test
+    void whenTheLastRecordIsTorn_thenRecoveryStopsBeforeIt() throws IOException {
+        try (ReservationJournal journal = new ReservationJournal(directory, 8)) {
+            for (long id = 1; id <= 3; id++) {
+                journal.awaitDurable(journal.append(reservation(id)));
+            }
+        }
+        try (FileChannel segment = FileChannel.open(directory.resolve("00000000000000000000.journal"), StandardOpenOption.WRITE)) {
+            segment.write(ByteBuffer.wrap(new byte[] {42}), 2L * ReservationJournal.RECORD_SIZE + 20);
+        }
+
+        try (ReservationJournal journal = new ReservationJournal(directory, 8)) {
+            assertEquals(2, journal.backlog());
+            assertEquals(2, journal.read(0, 10).size());
+            // The torn record's slot is reused rather than left between good records
+            journal.awaitDurable(journal.append(reservation(4)));
+            assertEquals(4L, journal.read(2, 1).get(0).reservation().getId());
+        }
+    }
+
+    @Test
+    void whenRecordsWereNotRecordedAsSynced_thenRecoveryDropsThem() throws IOException {
+        try (ReservationJournal journal = new ReservationJournal(directory, 8)) {
+            for (long id = 1; id <= 3; id++) {
+                journal.awaitDurable(journal.append(reservation(id)));
+            }
+        }
+        // As if the syncs after the first record had failed: the records are on disk, but their callers got an error
+        try (FileChannel checkpoint = FileChannel.open(directory.resolve("checkpoint"), StandardOpenOption.WRITE)) {
+            checkpoint.write(ByteBuffer.allocate(Long.BYTES).putLong(0, 1), Long.BYTES);
+        }
+
+        try (ReservationJournal journal = new ReservationJournal(directory, 8)) {
+            assertEquals(1, journal.backlog());
+            assertEquals(List.of(1L), journal.read(0, 10).stream().map(entry -> entry.reservation().getId()).toList());
+            assertEquals(1, journal.append(reservation(4)));
+        }
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static Reservation reservation(long id) {
+        Slot slot = new Slot();
+        slot.setId(id * 10);
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setSlot(slot);
+        reservation.setStartTime(START);
+        reservation.setEndTime(START.plusHours(id));
+        reservation.setVehicleNumber("KA01AB%04d".formatted(id));
+        reservation.setVehicleType(id % 2 == 0 ? VehicleType.FOUR_WHEELER : VehicleType.TWO_WHEELER);
+        reservation.setCost(id * 10.0);
+        return reservation;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reservations for tests that only care about the slot and the time range: a valid plate, a car, and the
+ * price of two hours at the default rate.
+ */
+public final class TestReservations {
+
+    private TestReservations() {
+    }
+
+    public static Reservation reservation(Slot slot, LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = new Reservation();
+        reservation.setSlot(slot);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        reservation.setVehicleNumber("KA01AB1234");
+        reservation.setVehicleType(VehicleType.FOUR_WHEELER);
+        reservation.setCost(60.0);
+        return reservation;
+    }
+}
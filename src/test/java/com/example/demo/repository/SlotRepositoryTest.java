@@ -0,0 +1,88 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.demo.model.TestReservations.reservation;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.dto.SlotSummary;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class SlotRepositoryTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Autowired
+    private FloorRepository floorRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private ParkingFloor ground;
+    private ParkingFloor first;
+    private List<Slot> slots;
+
+    @BeforeEach
+    void setUp() {
+        ground = floorRepository.save(floor(0));
+        first = floorRepository.save(floor(1));
+        slots = slotRepository.saveAll(List.of(
+            slot(ground, 1, null), slot(ground, 2, VehicleType.TWO_WHEELER), slot(first, 1, null), slot(first, 2, null)));
+        reservationRepository.save(reservation(slots.get(0), NINE, NINE.plusHours(2)));
+        reservationRepository.save(reservation(slots.get(3), NINE.minusHours(3), NINE));
+    }
+
+    @Test
+    void whenFindingAvailableSlots_thenOverlappingOnesAreExcluded() {
+        List<SlotAvailabilityDTO> available = slotRepository.findAvailableSlots(NINE, NINE.plusHours(1), null, null, 0, Limit.of(10));
+        assertEquals(List.of(slots.get(1).getId(), slots.get(2).getId(), slots.get(3).getId()), ids(available));
+    }
+
+    @Test
+    void whenFindingAvailableSlots_thenSlotAndFloorNumbersAreProjected() {
+        assertEquals(List.of(new SlotAvailabilityDTO(slots.get(3).getId(), 2, 1)),
+            slotRepository.findAvailableSlots(NINE, NINE.plusHours(1), first.getId(), null, slots.get(2).getId(), Limit.of(10)));
+        assertTrue(slotRepository.findAllSummaries().contains(
+            new SlotSummary(slots.get(1).getId(), 2, VehicleType.TWO_WHEELER, ground.getId(), 0)));
+    }
+
+    @Test
+    void whenFilteringAndPaging_thenOnlyTheRequestedPageIsReturned() {
+        assertEquals(List.of(slots.get(1).getId()),
+            ids(slotRepository.findAvailableSlots(NINE, NINE.plusHours(1), ground.getId(), null, 0, Limit.of(10))));
+        assertEquals(List.of(slots.get(2).getId()),
+            ids(slotRepository.findAvailableSlots(NINE, NINE.plusHours(1), null, VehicleType.FOUR_WHEELER, 0, Limit.of(1))));
+        assertEquals(List.of(slots.get(3).getId()),
+            ids(slotRepository.findAvailableSlots(NINE, NINE.plusHours(1), null, null, slots.get(2).getId(), Limit.of(10))));
+    }
+
+    private static ParkingFloor floor(int number) {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(number);
+        return floor;
+    }
+
+    private static Slot slot(ParkingFloor floor, int number, VehicleType vehicleType) {
+        Slot slot = new Slot();
+        slot.setParkingFloor(floor);
+        slot.setSlotNumber(number);
+        slot.setVehicleType(vehicleType);
+        return slot;
+    }
+
+    private static List<Long> ids(List<SlotAvailabilityDTO> slots) {
+        return slots.stream().map(SlotAvailabilityDTO::slotId).toList();
+    }
+}
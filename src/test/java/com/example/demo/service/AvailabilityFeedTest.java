@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.demo.cluster.ClusterMembership;
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.dto.SlotStatusDTO;
+import com.example.demo.repository.ReservationRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityFeedTest {
+
+    @Mock
+    private SlotAvailabilityIndex availabilityIndex;
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private ClusterMembership cluster;
+
+    // Sends run only when the test says so, which is how a slow client looks to the feed
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    private final List<String> received = new ArrayList<>();
+    private AvailabilityFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = newFeed(null);
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.statusAt(any())).thenReturn(List.of(status(1L, 10L, false), status(2L, 20L, false)));
+        feed.sweep();
+    }
+
+    @Test
+    void whenSlotsAreSharded_thenOccupancyComesFromTheDatabase() {
+        // Booked through another instance, so this one's index still has the slot free
+        when(reservationRepository.findWindowsBetween(any(), any())).thenReturn(List.of(
+            new ReservationWindow(7L, 2L, LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1))));
+        feed = newFeed(cluster);
+        feed.sweep();
+        feed.subscribe(null);
+        runSends();
+
+        assertEquals(List.of("event:snapshot\ndata:[" + status(1L, 10L, false) + ", " + status(2L, 20L, true) + "]"),
+            received);
+    }
+
+    @Test
+    void whenSubscribed_thenSnapshotComesFirstAndDeltasFollowForTheFloor() {
+        feed.subscribe(10L);
+        runSends();
+        when(availabilityIndex.statusAt(any())).thenReturn(List.of(status(1L, 10L, true), status(2L, 20L, true)));
+        feed.sweep();
+        runSends();
+
+        assertEquals(List.of(
+            "event:snapshot\ndata:[" + status(1L, 10L, false) + "]",
+            "event:slot-occupied\ndata:" + status(1L, 10L, true)), received);
+    }
+
+    @Test
+    void whenASubscriberFallsBehind_thenItsDeltasCollapseIntoOneFreshSnapshot() {
+        feed.subscribe(null);
+        runSends();
+        received.clear();
+        for (int i = 0; i < 3; i++) {
+            boolean occupied = i % 2 == 0;
+            when(availabilityIndex.statusAt(any())).thenReturn(List.of(status(1L, 10L, occupied), status(2L, 20L, occupied)));
+            feed.sweep();
+        }
+        runSends();
+
+        assertEquals(1, received.size());
+        assertEquals("event:snapshot\ndata:[" + status(1L, 10L, true) + ", " + status(2L, 20L, true) + "]", received.get(0));
+    }
+
+    private AvailabilityFeed newFeed(ClusterMembership cluster) {
+        return new AvailabilityFeed(availabilityIndex, reservationRepository, cluster, new SimpleMeterRegistry(), 2,
+                Duration.ofMinutes(1), pendingSends::add, Clock.systemDefaultZone()) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return new SseEmitter(timeoutMillis) {
+                    @Override
+                    public void send(SseEventBuilder builder) {
+                        StringBuilder event = new StringBuilder();
+                        builder.build().forEach(part -> event.append(part.getData()));
+                        received.add(event.toString().trim());
+                    }
+                };
+            }
+        };
+    }
+
+    private void runSends() {
+        while (!pendingSends.isEmpty()) {
+            pendingSends.remove(0).run();
+        }
+    }
+
+    private static SlotStatusDTO status(Long slotId, Long floorId, boolean occupied) {
+        return new SlotStatusDTO(slotId, slotId.intValue() + 100, floorId, floorId.intValue() / 10, occupied);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.demo.dto.FreeWindowDTO;
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.dto.SlotSummary;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.event.SlotHeldEvent;
+import com.example.demo.event.SlotHoldReleasedEvent;
+import com.example.demo.hold.SlotHold;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+
+@ExtendWith(MockitoExtension.class)
+class FloorOccupancyIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 8, 5);
+    private static final LocalDateTime NINE = NOW.withHour(9).withMinute(0);
+
+    @Mock
+    private SlotRepository slotRepository;
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    private FloorOccupancyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(slotRepository.findAllSummaries()).thenReturn(List.of(
+            new SlotSummary(1L, 101, null, 10L, 1),
+            new SlotSummary(2L, 102, VehicleType.TWO_WHEELER, 10L, 1),
+            new SlotSummary(3L, 201, null, 20L, 2)));
+        when(reservationRepository.findWindowsBetween(any(), any())).thenReturn(List.of(
+            new ReservationWindow(7L, 1L, NOW.minusHours(1), NINE.plusMinutes(10)),
+            new ReservationWindow(8L, 2L, NINE, NINE.plusHours(3))));
+        index = new FloorOccupancyIndex(slotRepository, reservationRepository,
+            Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        index.rebuild();
+    }
+
+    @Test
+    void whenSearching_thenEarliestBucketAlignedWindowOnTheFloorIsReturned() {
+        // Slot 2 is free from 8:15 until 9:00, too short for an hour; slot 1 is taken through the 9:00 bucket
+        assertEquals(Optional.of(window(1L, 101, NINE.plusMinutes(15), Duration.ofHours(1))),
+            index.findNextFree(10L, Duration.ofHours(1), NOW, null));
+        assertEquals(Optional.of(window(2L, 102, NOW.plusMinutes(10), Duration.ofMinutes(30))),
+            index.findNextFree(10L, Duration.ofMinutes(30), NOW, null));
+        assertEquals(Optional.of(window(1L, 101, NINE.plusMinutes(15), Duration.ofMinutes(30))),
+            index.findNextFree(10L, Duration.ofMinutes(30), NOW, VehicleType.FOUR_WHEELER));
+        assertEquals(Optional.empty(), index.findNextFree(30L, Duration.ofMinutes(30), NOW, null));
+    }
+
+    @Test
+    void whenReservationCreatedAndCancelled_thenBitmapsFollow() {
+        Reservation reservation = reservation(9L, 3L, NOW.plusMinutes(25), NOW.plusHours(2));
+        index.onReservationCreated(new ReservationCreatedEvent(reservation));
+        assertEquals(NOW.plusHours(2).plusMinutes(10), index.findNextFree(20L, Duration.ofHours(1), NOW, null).orElseThrow().startTime());
+
+        index.onReservationCancelled(new ReservationCancelledEvent(reservation));
+        assertEquals(NOW.plusMinutes(10), index.findNextFree(20L, Duration.ofHours(1), NOW, null).orElseThrow().startTime());
+    }
+
+    @Test
+    void whenCancellingOneOfTwoReservationsSharingABucket_thenTheSharedBucketStaysTaken() {
+        // Reservation 7 ends at 9:10, so a booking from 9:10 shares the 9:00 bucket with it
+        Reservation later = reservation(9L, 1L, NINE.plusMinutes(10), NINE.plusHours(1));
+        index.onReservationCreated(new ReservationCreatedEvent(later));
+        index.onReservationCancelled(new ReservationCancelledEvent(later));
+        assertEquals(NINE.plusMinutes(15), index.findNextFree(10L, Duration.ofHours(1), NOW, VehicleType.FOUR_WHEELER)
+            .orElseThrow().startTime());
+    }
+
+    @Test
+    void whenAHoldIsPlaced_thenItsRangeStaysTakenUntilReleased() {
+        SlotHold hold = new SlotHold("3-hold", 1, 3L, NOW.plusMinutes(25), NOW.plusHours(2), "KA01AB1234",
+            VehicleType.FOUR_WHEELER, 10.0, NOW.plusMinutes(10));
+        index.onSlotHeld(new SlotHeldEvent(hold));
+        assertEquals(NOW.plusHours(2).plusMinutes(10), index.findNextFree(20L, Duration.ofHours(1), NOW, null).orElseThrow().startTime());
+
+        // Redrawing the slot after a cancellation keeps the hold, and so does a rebuild
+        Reservation later = reservation(9L, 3L, NOW.plusHours(3), NOW.plusHours(4));
+        index.onReservationCreated(new ReservationCreatedEvent(later));
+        index.onReservationCancelled(new ReservationCancelledEvent(later));
+        index.rebuild();
+        assertEquals(NOW.plusHours(2).plusMinutes(10), index.findNextFree(20L, Duration.ofHours(1), NOW, null).orElseThrow().startTime());
+
+        index.onSlotHoldReleased(new SlotHoldReleasedEvent(hold));
+        assertEquals(NOW.plusMinutes(10), index.findNextFree(20L, Duration.ofHours(1), NOW, null).orElseThrow().startTime());
+    }
+
+    @Test
+    void whenSearchingTheDatabase_thenBookingsTheIndexNeverSawCount() {
+        // Slot 4 and reservation 11 were added through another instance
+        when(slotRepository.findSummariesByFloorId(20L)).thenReturn(List.of(
+            new SlotSummary(3L, 201, null, 20L, 2),
+            new SlotSummary(4L, 202, null, 20L, 2)));
+        when(reservationRepository.findFloorWindowsBetween(any(), any(), any())).thenReturn(List.of(
+            new ReservationWindow(11L, 3L, NOW, NINE.plusHours(1))));
+
+        assertEquals(Optional.of(window(4L, 202, NOW.plusMinutes(10), Duration.ofHours(1))),
+            index.findNextFreeInDatabase(20L, Duration.ofHours(1), NOW, null));
+        // The bitmaps still have slot 3 free
+        assertEquals(Optional.of(window(3L, 201, NOW.plusMinutes(10), Duration.ofHours(1))),
+            index.findNextFree(20L, Duration.ofHours(1), NOW, null));
+    }
+
+    @Test
+    void whenScanningForARun_thenShortGapsAreSkipped() {
+        BitSet bits = new BitSet();
+        bits.set(2, 4);
+        bits.set(6);
+        bits.set(9, 200);
+        bits.set(300, 384);
+        long[] occupied = Arrays.copyOf(bits.toLongArray(), 6);
+        long[] scratch = new long[6];
+        assertEquals(0, FloorOccupancyIndex.firstFreeRun(occupied, 0, 2, 384, scratch));
+        assertEquals(4, FloorOccupancyIndex.firstFreeRun(occupied, 1, 2, 384, scratch));
+        assertEquals(200, FloorOccupancyIndex.firstFreeRun(occupied, 1, 3, 384, scratch));
+        assertEquals(200, FloorOccupancyIndex.firstFreeRun(occupied, 1, 100, 384, scratch));
+        assertEquals(-1, FloorOccupancyIndex.firstFreeRun(occupied, 1, 101, 384, scratch));
+        assertEquals(-1, FloorOccupancyIndex.firstFreeRun(occupied, 1, 3, 202, scratch));
+    }
+
+    private static FreeWindowDTO window(Long slotId, int slotNumber, LocalDateTime start, Duration duration) {
+        return new FreeWindowDTO(slotId, slotNumber, start, start.plus(duration));
+    }
+
+    private static Reservation reservation(Long id, Long slotId, LocalDateTime start, LocalDateTime end) {
+        Slot slot = new Slot();
+        slot.setId(slotId);
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setSlot(slot);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        return reservation;
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.demo.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -12,15 +14,31 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
-import org.mockito.InjectMocks;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mock;
-import static org.mockito.Mockito.doNothing;
+import org.mockito.Spy;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.demo.dto.BatchReservationRequestDTO;
+import com.example.demo.dto.BatchReservationResultDTO;
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.event.ReservationCancelledEvent;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.hold.SlotHoldRegistry;
+import com.example.demo.metrics.ParkingMetrics;
 import com.example.demo.model.ParkingFloor;
 import com.example.demo.model.Reservation;
 import com.example.demo.model.Slot;
@@ -38,8 +56,23 @@ class ParkingServiceTest {
     private SlotRepository slotRepository;
     @Mock
     private FloorRepository floorRepository;
+    @Mock
+    private SlotAvailabilityIndex availabilityIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ParkingTopology topology;
+    @Mock
+    private SlotHoldRegistry holdRegistry;
+    @Spy
+    private SlotLockRegistry slotLocks = new SlotLockRegistry(16, Duration.ofSeconds(1));
+    @Spy
+    private ParkingMetrics metrics = new ParkingMetrics(new SimpleMeterRegistry());
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine();
 
-    @InjectMocks
     private ParkingService parkingService;
 
     private Slot availableSlot;
@@ -48,6 +81,9 @@ class ParkingServiceTest {
 
     @BeforeEach
     void setUp() {
+        parkingService = new ParkingService(floorRepository, slotRepository, reservationRepository, availabilityIndex,
+            eventPublisher, slotLocks, transactionManager, metrics, topology, null, pricingEngine, null, holdRegistry,
+            null, null, false);
         floor = new ParkingFloor();
         floor.setId(1L);
         floor.setFloorNumber(1);
@@ -74,7 +110,7 @@ class ParkingServiceTest {
 
     @Test
     void whenCreateSlot_thenSucceeds() {
-        when(floorRepository.findById(1L)).thenReturn(Optional.of(floor));
+        when(topology.getFloor(1L)).thenReturn(floor);
         when(slotRepository.save(any(Slot.class))).thenReturn(availableSlot);
         Slot result = parkingService.createSlot(1L, new Slot());
         assertNotNull(result);
@@ -83,7 +119,7 @@ class ParkingServiceTest {
 
     @Test
     void whenSlotIsAvailable_thenReservationSucceeds() {
-        when(slotRepository.findById(1L)).thenReturn(Optional.of(availableSlot));
+        when(topology.getSlot(1L)).thenReturn(availableSlot);
         when(reservationRepository.findOverlappingReservations(any(), any(), any())).thenReturn(Collections.emptyList());
         when(reservationRepository.save(any(Reservation.class))).thenReturn(newReservation);
 
@@ -96,13 +132,24 @@ class ParkingServiceTest {
     @Test
     void whenSlotIsAlreadyBooked_thenReservationFails() {
         Reservation existingReservation = new Reservation();
-        when(slotRepository.findById(1L)).thenReturn(Optional.of(availableSlot));
+        when(topology.getSlot(1L)).thenReturn(availableSlot);
         when(reservationRepository.findOverlappingReservations(any(), any(), any())).thenReturn(Collections.singletonList(existingReservation));
 
         Exception exception = assertThrows(IllegalStateException.class, () -> parkingService.reserveSlot(newReservation));
         assertEquals("Slot is already booked for the selected time range.", exception.getMessage());
     }
 
+    @Test
+    void whenRangeIsHeld_thenReservationFailsWithoutInserting() {
+        when(topology.getSlot(1L)).thenReturn(availableSlot);
+        when(reservationRepository.findOverlappingReservations(any(), any(), any())).thenReturn(Collections.emptyList());
+        when(holdRegistry.conflicts(any(), any(), any())).thenReturn(true);
+
+        Exception exception = assertThrows(IllegalStateException.class, () -> parkingService.reserveSlot(newReservation));
+        assertEquals("Slot is held for the selected time range.", exception.getMessage());
+        verify(reservationRepository, never()).save(any());
+    }
+
     @Test
     void whenReservationDurationExceeds24Hours_thenFails() {
         newReservation.setEndTime(newReservation.getStartTime().plusHours(25));
@@ -112,15 +159,88 @@ class ParkingServiceTest {
     
     @Test
     void whenCancelReservation_thenSucceeds() {
-        when(reservationRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(reservationRepository).deleteById(1L);
+        newReservation.setId(1L);
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(newReservation));
         assertDoesNotThrow(() -> parkingService.cancelReservation(1L));
-        verify(reservationRepository, times(1)).deleteById(1L);
+        verify(reservationRepository, times(1)).delete(newReservation);
+        verify(eventPublisher).publishEvent(new ReservationCancelledEvent(newReservation));
     }
 
     @Test
     void whenCancelNonExistentReservation_thenFails() {
-        when(reservationRepository.existsById(99L)).thenReturn(false);
+        when(reservationRepository.findById(99L)).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class, () -> parkingService.cancelReservation(99L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenIndexIsReady_thenAvailabilityIsServedFromMemory() {
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.findAvailable(any(), any(), any(), any(), anyLong(), anyInt())).thenReturn(Collections.singletonList(new SlotAvailabilityDTO(1L, 101, 1)));
+
+        assertEquals(1, parkingService.getAvailableSlots(newReservation.getStartTime(), newReservation.getEndTime(), null, null, 0, 10).size());
+        verifyNoInteractions(slotRepository, reservationRepository);
+    }
+
+    @Test
+    void whenNextFreeDurationExceedsHorizon_thenFails() {
+        assertThrows(IllegalArgumentException.class,
+            () -> parkingService.findNextFreeWindow(1L, Duration.ofDays(8), newReservation.getStartTime(), null));
+    }
+
+    @Test
+    void whenBatchHasInternalConflict_thenBestEffortSkipsOnlyTheConflictingEntry() {
+        Reservation overlapping = copyOf(newReservation);
+        overlapping.setStartTime(newReservation.getStartTime().plusMinutes(30));
+        when(slotRepository.findAllById(any())).thenReturn(List.of(availableSlot));
+        when(reservationRepository.findOverlappingWindows(any(), any(), any())).thenReturn(List.of());
+        when(reservationRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BatchReservationResultDTO result = parkingService.reserveBatch(
+            List.of(newReservation, overlapping), BatchReservationRequestDTO.Mode.BEST_EFFORT);
+
+        assertEquals(List.of(ReservationDTO.from(newReservation)), result.reserved());
+        assertEquals(1, result.rejected().size());
+        assertEquals(1, result.rejected().get(0).index());
+        assertEquals(60.0, result.reserved().get(0).cost());
+    }
+
+    @Test
+    void whenBatchConflictsWithStoredReservation_thenAllOrNothingFails() {
+        when(slotRepository.findAllById(any())).thenReturn(List.of(availableSlot));
+        when(reservationRepository.findOverlappingWindows(any(), any(), any())).thenReturn(List.of(
+            new ReservationWindow(7L, 1L, newReservation.getStartTime(), newReservation.getEndTime())));
+
+        assertThrows(IllegalStateException.class, () -> parkingService.reserveBatch(
+            List.of(newReservation), BatchReservationRequestDTO.Mode.ALL_OR_NOTHING));
+        verify(reservationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void whenAutoAssignedSlotIsTakenMeanwhile_thenTheNextBestFitIsBooked() {
+        Slot secondChoice = new Slot();
+        secondChoice.setId(2L);
+        secondChoice.setParkingFloor(floor);
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.findBestFits(any(), any(), any(), any(), any(), anyInt(), any())).thenReturn(List.of(1L, 2L));
+        when(topology.getSlot(1L)).thenReturn(availableSlot);
+        when(topology.getSlot(2L)).thenReturn(secondChoice);
+        when(reservationRepository.findOverlappingReservations(eq(1L), any(), any())).thenReturn(List.of(new Reservation()));
+        when(reservationRepository.findOverlappingReservations(eq(2L), any(), any())).thenReturn(List.of());
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Reservation result = parkingService.reserveAuto(copyOf(newReservation), null);
+
+        assertEquals(2L, result.getSlot().getId());
+        verify(reservationRepository, times(1)).save(any());
+    }
+
+    private static Reservation copyOf(Reservation source) {
+        Reservation copy = new Reservation();
+        copy.setSlot(source.getSlot());
+        copy.setStartTime(source.getStartTime());
+        copy.setEndTime(source.getEndTime());
+        copy.setVehicleNumber(source.getVehicleNumber());
+        copy.setVehicleType(source.getVehicleType());
+        return copy;
+    }
+}
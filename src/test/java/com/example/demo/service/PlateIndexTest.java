@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.demo.dto.PlateWindow;
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.repository.ReservationRepository;
+
+class PlateIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+
+    @Test
+    void whenPacked_thenDistinctPlatesGetDistinctKeysAndBadOnesAreRefused() {
+        assertEquals(0, PlateIndex.pack("AA00AA0000"));
+        assertTrue(PlateIndex.pack("ZZ99ZZ9999") < 1L << 41);
+        Set<Long> keys = new HashSet<>();
+        for (String plate : List.of("KA01AB1234", "KA01AB1235", "KA01BA1234", "AK01AB1234", "KA10AB1234", "ZZ99ZZ9999")) {
+            assertTrue(keys.add(PlateIndex.pack(plate)), plate);
+        }
+        assertEquals(-1, PlateIndex.pack("ka01ab1234"));
+        assertEquals(-1, PlateIndex.pack("KA01AB123"));
+        assertEquals(-1, PlateIndex.pack("KAA1AB1234"));
+        assertEquals(-1, PlateIndex.pack(null));
+    }
+
+    @Test
+    void whenBookedCancelledAndPruned_thenLookupsFollow() {
+        MutableClock clock = new MutableClock();
+        when(reservationRepository.findAllPlateWindowsEndingAfter(any())).thenReturn(List.of(
+            new PlateWindow("KA01AB1234", 2L, 5L, NOW.plusHours(3), NOW.plusHours(4)),
+            new PlateWindow("KA01AB1234", 1L, 4L, NOW.minusHours(1), NOW.plusHours(1))));
+        PlateIndex index = new PlateIndex(reservationRepository, clock);
+        index.rebuild();
+
+        assertEquals(List.of(1L, 2L), ids(index.find("KA01AB1234", NOW)));
+        index.onReservationCreated(new ReservationCreatedEvent(reservation(3L, "KA01AB1234", NOW.plusHours(1))));
+        index.onReservationCreated(new ReservationCreatedEvent(reservation(4L, "MH12CD0001", NOW)));
+        assertEquals(List.of(1L, 3L, 2L), ids(index.find("KA01AB1234", NOW)));
+        index.onReservationCancelled(new ReservationCancelledEvent(reservation(2L, "KA01AB1234", NOW.plusHours(3))));
+        assertEquals(List.of(1L, 3L), ids(index.find("KA01AB1234", NOW)));
+        assertEquals(List.of(), index.find("GJ05EF4321", NOW));
+
+        clock.now = NOW.plusMinutes(90);
+        index.prune();
+        assertEquals(1, index.size());
+        assertEquals(List.of(3L), ids(index.find("KA01AB1234", clock.now)));
+        assertEquals(List.of(), index.find("MH12CD0001", clock.now));
+    }
+
+    @Test
+    void whenManyPlatesComeAndGo_thenEveryRemainingOneIsStillFound() {
+        when(reservationRepository.findAllPlateWindowsEndingAfter(any())).thenReturn(List.of());
+        PlateIndex index = new PlateIndex(reservationRepository, Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        index.rebuild();
+        List<String> plates = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String plate = "KA%02dAB%04d".formatted(i % 100, i);
+            plates.add(plate);
+            index.onReservationCreated(new ReservationCreatedEvent(reservation(i, plate, NOW)));
+        }
+        // Removing every other plate exercises deletion across the probe runs built up by growing
+        for (int i = 0; i < plates.size(); i += 2) {
+            index.onReservationCancelled(new ReservationCancelledEvent(reservation(i, plates.get(i), NOW)));
+        }
+        assertEquals(2_500, index.size());
+        for (int i = 0; i < plates.size(); i++) {
+            assertEquals(i % 2 == 0 ? List.of() : List.of((long) i), ids(index.find(plates.get(i), NOW)), plates.get(i));
+        }
+    }
+
+    private static List<Long> ids(List<ReservationWindow> windows) {
+        return windows.stream().map(ReservationWindow::reservationId).toList();
+    }
+
+    private static Reservation reservation(long id, String plate, LocalDateTime start) {
+        Slot slot = new Slot();
+        slot.setId(id % 7);
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setSlot(slot);
+        reservation.setVehicleNumber(plate);
+        reservation.setStartTime(start);
+        reservation.setEndTime(start.plusHours(1));
+        return reservation;
+    }
+
+    private static final class MutableClock extends Clock {
+        private LocalDateTime now = NOW;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.toInstant(ZoneOffset.UTC);
+        }
+    }
+}
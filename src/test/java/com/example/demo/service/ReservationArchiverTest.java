@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.ReservationArchiveRepository;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+
+@DataJpaTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "parking.archive.batch-size=2"
+})
+@Import({ReservationArchiver.class, ReservationArchiveRepository.class, ReservationExportService.class,
+    SlotAvailabilityIndex.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservationArchiverTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.of(2020, 1, 30, 9, 0);
+    private static final LocalDateTime UPCOMING = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @Autowired
+    private ReservationArchiver archiver;
+    @Autowired
+    private ReservationArchiveRepository archiveRepository;
+    @Autowired
+    private ReservationExportService exportService;
+    @Autowired
+    private SlotAvailabilityIndex availabilityIndex;
+    @Autowired
+    private FloorRepository floorRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Test
+    void whenArchiving_thenOnlyExpiredReservationsMoveAndStayReadable() {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(1);
+        floorRepository.save(floor);
+        Slot slot = new Slot();
+        slot.setSlotNumber(1);
+        slot.setParkingFloor(floor);
+        slotRepository.save(slot);
+        List<Reservation> old = new ArrayList<>();
+        // Spread over a month boundary, and more than one batch
+        for (int day = 0; day < 3; day++) {
+            old.add(reservationRepository.save(reservation(slot, LONG_AGO.plusDays(day))));
+        }
+        Reservation upcoming = reservationRepository.save(reservation(slot, UPCOMING));
+        availabilityIndex.rebuild();
+        assertFalse(availabilityIndex.isFree(slot.getId(), LONG_AGO, LONG_AGO.plusHours(1)));
+
+        assertEquals(3, archiver.archiveExpired());
+        assertEquals(0, archiver.archiveExpired());
+
+        assertEquals(List.of(upcoming.getId()), reservationRepository.findAll().stream().map(Reservation::getId).toList());
+        assertEquals(old.get(1).getStartTime(), archiveRepository.findDetailsById(old.get(1).getId()).orElseThrow().startTime());
+        assertTrue(availabilityIndex.isFree(slot.getId(), LONG_AGO, LONG_AGO.plusHours(1)));
+        assertFalse(availabilityIndex.isFree(slot.getId(), UPCOMING, UPCOMING.plusHours(1)));
+        // Exports span both tables, still in id order
+        assertEquals(4, exportService.export(LONG_AGO, UPCOMING.plusDays(1), 0, new ByteArrayOutputStream()));
+        assertEquals(2, exportService.export(LONG_AGO, UPCOMING.plusDays(1), old.get(1).getId(), new ByteArrayOutputStream()));
+    }
+
+    private static Reservation reservation(Slot slot, LocalDateTime start) {
+        Reservation reservation = new Reservation();
+        reservation.setSlot(slot);
+        reservation.setStartTime(start);
+        reservation.setEndTime(start.plusHours(2));
+        reservation.setVehicleNumber("KA01AB1234");
+        reservation.setVehicleType(VehicleType.FOUR_WHEELER);
+        reservation.setCost(60.0);
+        return reservation;
+    }
+}
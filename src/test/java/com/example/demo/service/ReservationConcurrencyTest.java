@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.example.demo.model.TestReservations.reservation;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.demo.hold.SlotHoldRegistry;
+import com.example.demo.metrics.ParkingMetrics;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.ReservationArchiveRepository;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+
+/**
+ * Hammers a handful of hot slots from many threads against a real database and checks that no slot
+ * ever ends up with two overlapping reservations. Throughput under contention is measured by SlotLockBenchmark.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({ParkingService.class, ParkingTopology.class, SlotAvailabilityIndex.class, FloorOccupancyIndex.class,
+    PricingEngine.class, ReservationArchiveRepository.class, SlotHoldRegistry.class, SlotLockRegistry.class,
+    ParkingMetrics.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservationConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 40;
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Autowired
+    private ParkingService parkingService;
+    @Autowired
+    private FloorRepository floorRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Test
+    void whenHotSlotsAreBookedConcurrently_thenNoSlotIsDoubleBooked() throws InterruptedException {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(1);
+        floorRepository.save(floor);
+        List<Slot> hotSlots = new ArrayList<>();
+        for (int number = 1; number <= 3; number++) {
+            Slot slot = new Slot();
+            slot.setSlotNumber(number);
+            slot.setParkingFloor(floor);
+            hotSlots.add(slotRepository.save(slot));
+        }
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    Slot slot = hotSlots.get(random.nextInt(hotSlots.size()));
+                    LocalDateTime start = BASE.plusMinutes(15L * random.nextInt(96));
+                    try {
+                        parkingService.reserveSlot(reservation(slot, start, start.plusMinutes(15L * (1 + random.nextInt(8)))));
+                        booked.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+        List<Reservation> stored = reservationRepository.findAll();
+        assertEquals(booked.get(), stored.size());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD, booked.get() + conflicts.get());
+        Map<Long, List<Reservation>> bySlot = stored.stream().collect(Collectors.groupingBy(r -> r.getSlot().getId()));
+        bySlot.values().forEach(ReservationConcurrencyTest::assertNoOverlaps);
+    }
+
+    private static void assertNoOverlaps(List<Reservation> reservations) {
+        List<Reservation> sorted = reservations.stream().sorted(Comparator.comparing(Reservation::getStartTime)).toList();
+        for (int i = 1; i < sorted.size(); i++) {
+            assertFalse(sorted.get(i).getStartTime().isBefore(sorted.get(i - 1).getEndTime()),
+                "Slot " + sorted.get(i).getSlot().getId() + " is double booked");
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.ReservationArchiveRepository;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({ReservationExportService.class, ReservationArchiveRepository.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class ReservationExportServiceTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Autowired
+    private ReservationExportService exportService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private FloorRepository floorRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private List<Reservation> saved;
+
+    @BeforeEach
+    void setUp() {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(1);
+        floorRepository.save(floor);
+        Slot slot = new Slot();
+        slot.setSlotNumber(1);
+        slot.setParkingFloor(floor);
+        slotRepository.save(slot);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int day = 0; day < 5; day++) {
+            Reservation reservation = new Reservation();
+            reservation.setSlot(slot);
+            reservation.setStartTime(NINE.plusDays(day));
+            reservation.setEndTime(NINE.plusDays(day).plusHours(1));
+            reservation.setVehicleNumber("KA01AB1234");
+            reservation.setVehicleType(VehicleType.FOUR_WHEELER);
+            reservation.setCost(30.0);
+            reservations.add(reservation);
+        }
+        saved = reservationRepository.saveAll(reservations);
+    }
+
+    @Test
+    void whenExporting_thenEachReservationInRangeIsOneLineInIdOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(4, exportService.export(NINE, NINE.plusDays(4), 0, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(5, lines.length);
+        assertEquals("", lines[4]);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(ReservationDTO.from(saved.get(i)), objectMapper.readValue(lines[i], ReservationDTO.class));
+        }
+    }
+
+    @Test
+    void whenResumingAfterAnId_thenOnlyLaterReservationsAreExported() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, exportService.export(NINE, NINE.plusDays(5), saved.get(2).getId(), out));
+        assertEquals(0, exportService.export(NINE, NINE.plusDays(5), saved.get(4).getId(), new ByteArrayOutputStream()));
+    }
+}
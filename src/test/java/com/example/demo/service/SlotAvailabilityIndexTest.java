@@ -0,0 +1,139 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.demo.dto.ReservationWindow;
+import com.example.demo.dto.SlotAvailabilityDTO;
+import com.example.demo.dto.SlotSummary;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.event.SlotCreatedEvent;
+import com.example.demo.event.SlotsCreatedEvent;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SlotAvailabilityIndexTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Mock
+    private SlotRepository slotRepository;
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @InjectMocks
+    private SlotAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(slotRepository.findAllSummaries()).thenReturn(List.of(
+            SlotSummary.from(slot(2L)), SlotSummary.from(slot(1L)), SlotSummary.from(slot(3L))));
+        when(reservationRepository.findAllWindows()).thenReturn(List.of(
+            new ReservationWindow(10L, 1L, NINE, NINE.plusHours(2)),
+            new ReservationWindow(11L, 3L, NINE.minusHours(20), NINE.plusHours(1))));
+        index.rebuild();
+    }
+
+    @Test
+    void whenRebuilt_thenOverlappingSlotsAreExcluded() {
+        assertTrue(index.isReady());
+        assertEquals(List.of(2L), ids(index.findAvailable(NINE.plusMinutes(30), NINE.plusMinutes(90), null, null, 0, 100)));
+        assertEquals(List.of(1L, 2L, 3L), ids(index.findAvailable(NINE.plusHours(2), NINE.plusHours(3), null, null, 0, 100)));
+        assertEquals(List.of(1L, 2L), ids(index.findAvailable(NINE.minusHours(1), NINE, null, null, 0, 100)));
+    }
+
+    @Test
+    void whenReservationCreatedAndCancelled_thenIndexFollows() {
+        Reservation reservation = reservation(12L, slot(2L), NINE.plusHours(5), NINE.plusHours(6));
+
+        index.onReservationCreated(new ReservationCreatedEvent(reservation));
+        assertEquals(List.of(1L, 3L), ids(index.findAvailable(NINE.plusHours(5), NINE.plusHours(7), null, null, 0, 100)));
+
+        index.onReservationCancelled(new ReservationCancelledEvent(reservation));
+        assertEquals(List.of(1L, 2L, 3L), ids(index.findAvailable(NINE.plusHours(5), NINE.plusHours(7), null, null, 0, 100)));
+    }
+
+    @Test
+    void whenSlotCreated_thenItIsAvailableInIdOrder() {
+        index.onSlotCreated(new SlotCreatedEvent(slot(5L)));
+        assertEquals(List.of(2L, 5L), ids(index.findAvailable(NINE, NINE.plusHours(1), null, null, 0, 100)));
+    }
+
+    @Test
+    void whenSlotsCreatedInBulk_thenTheyAreMergedInIdOrderAndKnownSlotsKeepTheirBookings() {
+        index.onSlotsCreated(new SlotsCreatedEvent(List.of(slot(6L), slot(3L), slot(4L))));
+        assertEquals(List.of(2L, 4L, 6L), ids(index.findAvailable(NINE, NINE.plusHours(1), null, null, 0, 100)));
+        assertEquals(List.of(4L), ids(index.findAvailable(NINE, NINE.plusHours(1), null, null, 2, 1)));
+    }
+
+    @Test
+    void whenPagedAndFiltered_thenOnlyMatchingSlotsAfterCursorAreReturned() {
+        Slot twoWheelerSlot = slot(4L);
+        twoWheelerSlot.setVehicleType(VehicleType.TWO_WHEELER);
+        index.onSlotCreated(new SlotCreatedEvent(twoWheelerSlot));
+
+        LocalDateTime later = NINE.plusDays(1);
+        assertEquals(List.of(2L), ids(index.findAvailable(later, later.plusHours(1), null, null, 1, 1)));
+        assertEquals(List.of(3L), ids(index.findAvailable(later, later.plusHours(1), null, VehicleType.FOUR_WHEELER, 2, 5)));
+        assertEquals(List.of(3L, 4L), ids(index.findAvailable(later, later.plusHours(1), null, VehicleType.TWO_WHEELER, 2, 5)));
+    }
+
+    @Test
+    void whenFindingBestFits_thenTightestGapsComeFirstAndDedicatedSlotsBeatGeneralOnes() {
+        Slot twoWheelerSlot = slot(4L);
+        twoWheelerSlot.setVehicleType(VehicleType.TWO_WHEELER);
+        index.onSlotCreated(new SlotCreatedEvent(twoWheelerSlot));
+        Random random = new Random(7);
+
+        // Slot 1 is booked until 11:00 and slot 3 until 10:00, so both leave less idle time than empty slot 2
+        LocalDateTime eleven = NINE.plusHours(2);
+        List<Long> all = index.findBestFits(eleven, eleven.plusHours(1), null, null, id -> true, 8, random);
+        assertEquals(List.of(1L, 3L), all.subList(0, 2));
+        // Empty slots 2 and 4 fit equally well, so either may come first
+        assertEquals(Set.of(2L, 4L), Set.copyOf(all.subList(2, 4)));
+        assertEquals(List.of(1L, 3L), index.findBestFits(eleven, eleven.plusHours(1), null, null, id -> true, 2, random));
+        assertEquals(List.of(3L, 2L), index.findBestFits(eleven, eleven.plusHours(1), null, null, id -> id != 1L && id != 4L, 2, random));
+        assertEquals(List.of(4L, 1L), index.findBestFits(eleven, eleven.plusHours(1), 100L, VehicleType.TWO_WHEELER, id -> true, 2, random));
+        assertEquals(List.of(), index.findBestFits(eleven, eleven.plusHours(1), 200L, null, id -> true, 2, random));
+    }
+
+    private static Slot slot(Long id) {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setId(100L);
+        Slot slot = new Slot();
+        slot.setId(id);
+        slot.setParkingFloor(floor);
+        return slot;
+    }
+
+    private static Reservation reservation(Long id, Slot slot, LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setSlot(slot);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        return reservation;
+    }
+
+    private static List<Long> ids(List<SlotAvailabilityDTO> slots) {
+        return slots.stream().map(SlotAvailabilityDTO::slotId).toList();
+    }
+}
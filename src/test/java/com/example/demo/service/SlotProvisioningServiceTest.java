@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.example.demo.dto.BulkSlotRequestDTO;
+import com.example.demo.dto.BulkSlotResultDTO;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.SlotRepository;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(SlotProvisioningService.class)
+class SlotProvisioningServiceTest {
+
+    @Autowired
+    private SlotProvisioningService provisioningService;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private FloorRepository floorRepository;
+
+    @Test
+    void whenProvisioningIsRepeated_thenOnlyMissingSlotNumbersAreAdded() {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(4);
+        BulkSlotResultDTO created = provisioningService.createFloorWithSlots(floor, numbered(1, 10_000, VehicleType.FOUR_WHEELER));
+        slotRepository.flush();
+        assertEquals(new BulkSlotResultDTO(floor.getId(), 10_000, 0), created);
+
+        BulkSlotResultDTO repeated = provisioningService.addSlots(floor.getId(), numbered(9_001, 2_000, null));
+        assertEquals(new BulkSlotResultDTO(floor.getId(), 1_000, 1_000), repeated);
+        assertEquals(11_000, slotRepository.findSlotNumbersByFloorId(floor.getId()).size());
+    }
+
+    @Test
+    void whenFloorProvisioningIsRetried_thenTheExistingFloorIsReused() {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(7);
+        BulkSlotResultDTO created = provisioningService.createFloorWithSlots(floor, numbered(1, 100, null));
+
+        ParkingFloor retry = new ParkingFloor();
+        retry.setFloorNumber(7);
+        BulkSlotResultDTO repeated = provisioningService.createFloorWithSlots(retry, numbered(1, 120, null));
+
+        assertEquals(created.floorId(), repeated.floorId());
+        assertEquals(new BulkSlotResultDTO(created.floorId(), 20, 100), repeated);
+        assertEquals(1, floorRepository.count());
+        assertEquals(120, slotRepository.findSlotNumbersByFloorId(created.floorId()).size());
+    }
+
+    @Test
+    void whenASlotNumberIsListedTwice_thenNothingIsAdded() {
+        BulkSlotRequestDTO request = new BulkSlotRequestDTO();
+        request.setSlots(List.of(new BulkSlotRequestDTO.SlotSpec(1, null), new BulkSlotRequestDTO.SlotSpec(1, null)));
+        ParkingFloor floor = new ParkingFloor();
+        assertThrows(IllegalArgumentException.class, () -> provisioningService.createFloorWithSlots(floor, request.toSlots()));
+        assertThrows(ResourceNotFoundException.class, () -> provisioningService.addSlots(-1L, List.of()));
+    }
+
+    private static List<Slot> numbered(int first, int count, VehicleType vehicleType) {
+        BulkSlotRequestDTO request = new BulkSlotRequestDTO();
+        request.setCount(count);
+        request.setFirstNumber(first);
+        request.setVehicleType(vehicleType);
+        return request.toSlots();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.model.TariffRule;
+import com.example.demo.model.TariffVersion;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.TariffRuleRepository;
+import com.example.demo.repository.TariffVersionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TariffServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2030, 1, 7, 12, 0);
+
+    @Mock
+    private TariffRuleRepository tariffRuleRepository;
+    @Mock
+    private TariffVersionRepository tariffVersionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final PricingEngine pricingEngine = new PricingEngine();
+    private TariffService tariffService;
+
+    @BeforeEach
+    void setUp() {
+        when(tariffVersionRepository.findById(TariffVersion.ID)).thenReturn(Optional.of(version(3)));
+        when(tariffRuleRepository.findAllByOrderByIdAsc()).thenReturn(List.of(flatRate(10.0)));
+        tariffService = new TariffService(tariffRuleRepository, tariffVersionRepository, pricingEngine, transactionManager);
+        tariffService.start();
+    }
+
+    @Test
+    void whenAnotherInstanceReplacesTheTariff_thenTheNextRefreshInstallsIt() {
+        assertEquals(10.0, hourAtNoon());
+        // Unchanged version: nothing is reread
+        tariffService.refresh();
+        verify(tariffRuleRepository, times(1)).findAllByOrderByIdAsc();
+
+        when(tariffVersionRepository.findById(TariffVersion.ID)).thenReturn(Optional.of(version(4)));
+        when(tariffRuleRepository.findAllByOrderByIdAsc()).thenReturn(List.of(flatRate(25.0)));
+        tariffService.refresh();
+
+        assertEquals(25.0, hourAtNoon());
+    }
+
+    @Test
+    void whenReplacedHere_thenTheVersionIsBumpedAndTheRefreshDoesNotReload() {
+        when(tariffVersionRepository.findLockedById(TariffVersion.ID)).thenReturn(Optional.of(version(3)));
+        when(tariffVersionRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        List<TariffRule> rules = List.of(flatRate(40.0));
+        when(tariffRuleRepository.saveAll(rules)).thenReturn(rules);
+
+        tariffService.replaceRules(rules);
+        assertEquals(40.0, hourAtNoon());
+
+        when(tariffVersionRepository.findById(TariffVersion.ID)).thenReturn(Optional.of(version(4)));
+        tariffService.refresh();
+        verify(tariffVersionRepository).save(version(4));
+        verify(tariffRuleRepository, times(1)).findAllByOrderByIdAsc();
+    }
+
+    private double hourAtNoon() {
+        return pricingEngine.price(null, VehicleType.FOUR_WHEELER, NOON, NOON.plusHours(1));
+    }
+
+    private static TariffVersion version(long number) {
+        TariffVersion version = new TariffVersion();
+        version.setId(TariffVersion.ID);
+        version.setVersion(number);
+        return version;
+    }
+
+    private static TariffRule flatRate(double hourlyRate) {
+        TariffRule rule = new TariffRule();
+        rule.setStartTime(LocalTime.MIDNIGHT);
+        rule.setEndTime(LocalTime.MIDNIGHT);
+        rule.setHourlyRate(hourlyRate);
+        return rule;
+    }
+}
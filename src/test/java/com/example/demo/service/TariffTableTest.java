@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.TariffRule;
+import com.example.demo.model.VehicleType;
+
+class TariffTableTest {
+
+    // A Monday
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2030, 1, 7, 0, 0);
+
+    @Test
+    void whenNoRules_thenStartedHoursAreChargedAtTheVehicleRate() {
+        TariffTable tariffs = TariffTable.defaults();
+        LocalDateTime start = MONDAY.withHour(9).withMinute(20);
+        assertEquals(60.0, tariffs.price(null, VehicleType.FOUR_WHEELER, start, start.plusHours(2)));
+        assertEquals(60.0, tariffs.price(7L, VehicleType.TWO_WHEELER, start, start.plusMinutes(121)));
+        assertEquals(20.0, tariffs.price(null, VehicleType.TWO_WHEELER, start, start.plusMinutes(1)));
+    }
+
+    @Test
+    void whenAnIntervalCrossesBands_thenEachMinuteIsChargedAtItsOwnRate() {
+        TariffTable tariffs = TariffTable.compile(List.of(
+            rule(null, null, null, "08:00", "18:00", 40.0),
+            rule(null, VehicleType.FOUR_WHEELER, DayOfWeek.SATURDAY, "08:00", "18:00", 50.0)));
+        // 17:30 to 19:30 on Monday: half an hour at 40 and an hour and a half at 30
+        LocalDateTime evening = MONDAY.withHour(17).withMinute(30);
+        assertEquals(65.0, tariffs.price(null, VehicleType.FOUR_WHEELER, evening, evening.plusHours(2)));
+        LocalDateTime saturday = MONDAY.plusDays(5).withHour(10);
+        assertEquals(100.0, tariffs.price(null, VehicleType.FOUR_WHEELER, saturday, saturday.plusHours(2)));
+        assertEquals(80.0, tariffs.price(null, VehicleType.TWO_WHEELER, saturday, saturday.plusHours(2)));
+    }
+
+    @Test
+    void whenAFloorHasItsOwnRules_thenOnlyThatFloorIsAffected() {
+        TariffTable tariffs = TariffTable.compile(List.of(
+            rule(3L, null, null, "00:00", "00:00", 10.0),
+            rule(null, VehicleType.FOUR_WHEELER, null, "00:00", "00:00", 35.0)));
+        LocalDateTime start = MONDAY.withHour(12);
+        assertEquals(10.0, tariffs.price(3L, VehicleType.FOUR_WHEELER, start, start.plusHours(1)));
+        assertEquals(35.0, tariffs.price(4L, VehicleType.FOUR_WHEELER, start, start.plusHours(1)));
+        assertEquals(20.0, tariffs.price(null, VehicleType.TWO_WHEELER, start, start.plusHours(1)));
+    }
+
+    @Test
+    void whenABandRunsPastSundayMidnight_thenItContinuesIntoMonday() {
+        TariffTable tariffs = TariffTable.compile(List.of(
+            rule(null, VehicleType.FOUR_WHEELER, DayOfWeek.SUNDAY, "22:00", "02:00", 10.0)));
+        // Sunday 23:00 to Monday 03:00: three hours in the night band, one after it
+        LocalDateTime sunday = MONDAY.minusHours(1);
+        assertEquals(60.0, tariffs.price(null, VehicleType.FOUR_WHEELER, sunday, sunday.plusHours(4)));
+    }
+
+    private static TariffRule rule(Long floorId, VehicleType type, DayOfWeek day, String start, String end, double rate) {
+        TariffRule rule = new TariffRule();
+        rule.setFloorId(floorId);
+        rule.setVehicleType(type);
+        rule.setDayOfWeek(day);
+        rule.setStartTime(LocalTime.parse(start));
+        rule.setEndTime(LocalTime.parse(end));
+        rule.setHourlyRate(rate);
+        return rule;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.OccupancyStatDTO;
+import com.example.demo.dto.RevenueStatDTO;
+import com.example.demo.event.ReservationCancelledEvent;
+import com.example.demo.event.ReservationCreatedEvent;
+import com.example.demo.model.ParkingFloor;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.Slot;
+import com.example.demo.model.VehicleType;
+import com.example.demo.repository.FloorRepository;
+import com.example.demo.repository.ReservationRepository;
+import com.example.demo.repository.SlotRepository;
+import com.example.demo.repository.UsageRollupRepository;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({UsageRollupService.class, UsageRollupRepository.class, ParkingTopology.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UsageRollupServiceTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).plusDays(1).withHour(9);
+
+    @Autowired
+    private UsageRollupService rollups;
+    @Autowired
+    private FloorRepository floorRepository;
+    @Autowired
+    private SlotRepository slotRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Test
+    void whenBookedCancelledAndRebuilt_thenBucketsFollow() {
+        ParkingFloor floor = new ParkingFloor();
+        floor.setFloorNumber(1);
+        floorRepository.save(floor);
+        Slot first = slotRepository.save(slot(floor, 1));
+        Slot second = slotRepository.save(slot(floor, 2));
+        Long floorId = floor.getId();
+
+        Reservation car = reservationRepository.save(reservation(first, NINE.plusMinutes(30), NINE.plusHours(2), VehicleType.FOUR_WHEELER, 60.0));
+        Reservation bike = reservationRepository.save(reservation(second, NINE.plusHours(1), NINE.plusMinutes(90), VehicleType.TWO_WHEELER, 10.0));
+        rollups.onReservationCreated(new ReservationCreatedEvent(car));
+        rollups.onReservationCreated(new ReservationCreatedEvent(bike));
+
+        List<OccupancyStatDTO> occupancy = List.of(
+            new OccupancyStatDTO(NINE, floorId, VehicleType.FOUR_WHEELER, 30, 25.0),
+            new OccupancyStatDTO(NINE.plusHours(1), floorId, VehicleType.FOUR_WHEELER, 60, 50.0),
+            new OccupancyStatDTO(NINE.plusHours(1), floorId, VehicleType.TWO_WHEELER, 30, 25.0));
+        // Unflushed deltas are read straight from memory
+        assertEquals(occupancy, rollups.occupancy(NINE, NINE.plusHours(3), null));
+        rollups.flush();
+        assertEquals(occupancy, rollups.occupancy(NINE, NINE.plusHours(3), floorId));
+        assertEquals(List.of(
+                new RevenueStatDTO(NINE, floorId, VehicleType.FOUR_WHEELER, 1, 60.0),
+                new RevenueStatDTO(NINE.plusHours(1), floorId, VehicleType.TWO_WHEELER, 1, 10.0)),
+            rollups.revenue(NINE, NINE.plusHours(3), null));
+
+        reservationRepository.delete(bike);
+        rollups.onReservationCancelled(new ReservationCancelledEvent(bike));
+        rollups.flush();
+        assertEquals(List.of(new RevenueStatDTO(NINE, floorId, VehicleType.FOUR_WHEELER, 1, 60.0)),
+            rollups.revenue(NINE, NINE.plusHours(3), null));
+
+        // A booking whose delta never made it, as when the process died before a flush
+        reservationRepository.save(reservation(second, NINE, NINE.plusMinutes(15), VehicleType.TWO_WHEELER, 10.0));
+        rollups.rebuild();
+        assertEquals(List.of(
+                new OccupancyStatDTO(NINE, floorId, VehicleType.FOUR_WHEELER, 30, 25.0),
+                new OccupancyStatDTO(NINE, floorId, VehicleType.TWO_WHEELER, 15, 12.5),
+                new OccupancyStatDTO(NINE.plusHours(1), floorId, VehicleType.FOUR_WHEELER, 60, 50.0)),
+            rollups.occupancy(NINE, NINE.plusHours(3), null));
+        assertEquals(List.of(
+                new RevenueStatDTO(NINE, floorId, VehicleType.FOUR_WHEELER, 1, 60.0),
+                new RevenueStatDTO(NINE, floorId, VehicleType.TWO_WHEELER, 1, 10.0)),
+            rollups.revenue(NINE, NINE.plusHours(3), null));
+    }
+
+    @Test
+    void whenRangeIsTooLong_thenItIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> rollups.occupancy(NINE, NINE.plusDays(32), null));
+        assertThrows(IllegalArgumentException.class, () -> rollups.revenue(NINE, NINE, null));
+    }
+
+    private static Slot slot(ParkingFloor floor, int number) {
+        Slot slot = new Slot();
+        slot.setSlotNumber(number);
+        slot.setParkingFloor(floor);
+        return slot;
+    }
+
+    private static Reservation reservation(Slot slot, LocalDateTime start, LocalDateTime end, VehicleType type, double cost) {
+        Reservation reservation = new Reservation();
+        reservation.setSlot(slot);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        reservation.setVehicleNumber("KA01AB1234");
+        reservation.setVehicleType(type);
+        reservation.setCost(cost);
+        return reservation;
+    }
+}